@@ -22,8 +22,13 @@ import com.intellij.lang.ant.config.impl.AntBuildFileImpl;
 import com.intellij.lang.ant.config.impl.AntConfigurationImpl;
 import com.intellij.lang.ant.config.impl.BuildFileProperty;
 import com.intellij.lang.ant.config.impl.GlobalAntConfiguration;
+import consulo.apache.ant.execution.AntClassDataSharing;
+import consulo.apache.ant.execution.AntDaemonBuild;
+import consulo.apache.ant.execution.AntTargetCache;
+import consulo.apache.ant.rt.common.AntEventProtocol;
 import consulo.apache.ant.rt.common.AntLoggerConstants;
 import consulo.component.util.config.AbstractProperty;
+import consulo.container.boot.ContainerPathManager;
 import consulo.container.plugin.PluginManager;
 import consulo.content.base.BinariesOrderRootType;
 import consulo.content.bundle.Sdk;
@@ -33,33 +38,57 @@ import consulo.execution.CantRunException;
 import consulo.java.execution.configurations.OwnJavaParameters;
 import consulo.pathMacro.Macro;
 import consulo.pathMacro.MacroManager;
+import consulo.process.ExecutionException;
+import consulo.process.cmd.GeneralCommandLine;
 import consulo.process.cmd.ParametersList;
 import consulo.util.collection.ArrayUtil;
 import consulo.util.collection.ContainerUtil;
 import consulo.util.io.ClassPathUtil;
 import consulo.virtualFileSystem.VirtualFile;
 import consulo.virtualFileSystem.util.VirtualFilePathUtil;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import jetbrains.buildServer.messages.serviceMessages.ServiceMessage;
 import org.jetbrains.annotations.NonNls;
 
 import java.io.File;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class AntCommandLineBuilder {
+  private static final Pattern VERSION_PATTERN = Pattern.compile("(\\d+)\\.(\\d+)");
+
   private final List<String> myTargets = new ArrayList<String>();
   private final OwnJavaParameters myCommandLine = new OwnJavaParameters();
   private String myBuildFilePath;
   private List<BuildFileProperty> myProperties;
   private boolean myDone = false;
+  private boolean myBinaryLogger;
+  private boolean myDaemon;
+  private boolean myTargetCache;
+  private Sdk myJdk;
+  private boolean myClassDataSharing;
   @NonNls
   private final List<String> myExpandedProperties = new ArrayList<String>();
   @NonNls
+  private static final String DAEMON_MAIN_CLASS = "consulo.apache.ant.rt.daemon.AntDaemon";
+  @NonNls
   private static final String INPUT_HANDLER_PARAMETER = "-inputhandler";
   @NonNls
+  private static final String LISTENER_PARAMETER = "-listener";
+  @NonNls
   private static final String LOGFILE_PARAMETER = "-logfile";
   @NonNls
   private static final String LOGFILE_SHORT_PARAMETER = "-l";
+  @NonNls
+  private static final String EXECUTOR_CLASS_PARAMETER = "-Dant.executor.class=";
+  @NonNls
+  private static final String BUILD_COMPILER_PROPERTY = "build.compiler";
 
   public void calculateProperties(final DataContext dataContext,
                                   List<BuildFileProperty> additionalProperties) throws Macro.ExecutionCancelledException {
@@ -104,6 +133,8 @@ public class AntCommandLineBuilder {
       throw new CantRunException(AntBundle.message("jdk.with.name.bad.configured.error.message", jdkName));
     }
     myCommandLine.setJdk(jdk);
+    myJdk = jdk;
+    myClassDataSharing = AntBuildFileImpl.CLASS_DATA_SHARING.value(container);
 
     final ParametersList vmParametersList = myCommandLine.getVMParametersList();
     vmParametersList.add("-Xmx" + AntBuildFileImpl.MAX_HEAP_SIZE.get(container) + "m");
@@ -168,7 +199,53 @@ public class AntCommandLineBuilder {
 
     if (!(programParameters.getList().contains(LOGFILE_SHORT_PARAMETER) || programParameters.getList().contains(LOGFILE_PARAMETER))) {
       //programParameters.add("-logger", "com.intellij.rt.ant.execution.IdeaAntLogger2");
-      programParameters.add("-logger", "consulo.apache.ant.rt.ConsuloAntLogger");
+      myBinaryLogger = AntBuildFileImpl.BINARY_LOGGER.value(container);
+      if (myBinaryLogger) {
+        // daemon reports build events only through event channel
+        myDaemon = AntBuildFileImpl.USE_DAEMON.value(container);
+        programParameters.add("-logger", "consulo.apache.ant.rt.ConsuloBinaryAntLogger");
+      }
+      else {
+        programParameters.add("-logger", "consulo.apache.ant.rt.ConsuloAntLogger");
+      }
+    }
+    if (AntBuildFileImpl.WRITE_TRACE.value(container)) {
+      String traceName = buildFile.getName() + "-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json";
+      File traceFile = new File(new File(ContainerPathManager.get().getSystemPath(), "ant-traces"), traceName);
+      programParameters.add("-D" + AntLoggerConstants.TRACE_FILE_PROPERTY + "=" + traceFile.getPath());
+    }
+    // cached targets evaluate if/unless with PropertyHelper methods of Ant 1.8
+    myTargetCache = AntBuildFileImpl.TARGET_CACHE.value(container) && isAtLeast(antInstallation.getVersionString(), 1, 8);
+    if (myTargetCache) {
+      File cacheDir = AntTargetCache.getInstance().getDirectory();
+      programParameters.add("-D" + AntLoggerConstants.TARGET_CACHE_DIR_PROPERTY + "=" + cacheDir.getPath());
+    }
+    if (programParameters.getList().stream().noneMatch(param -> param.startsWith(EXECUTOR_CLASS_PARAMETER))) {
+      // parallel executor supports target cache too
+      if (AntBuildFileImpl.PARALLEL_TARGETS.value(container)) {
+        programParameters.add(EXECUTOR_CLASS_PARAMETER + "consulo.apache.ant.rt.ParallelExecutor");
+      }
+      else if (myTargetCache) {
+        programParameters.add(EXECUTOR_CLASS_PARAMETER + "consulo.apache.ant.rt.cache.TargetCacheExecutor");
+      }
+    }
+    boolean incrementalJavac = AntBuildFileImpl.INCREMENTAL_JAVAC.value(container);
+    if ((incrementalJavac || AntBuildFileImpl.IN_PROCESS_JAVAC.value(container)) &&
+      programParameters.getList().stream().noneMatch(param -> param.startsWith("-D" + BUILD_COMPILER_PROPERTY + "=")) &&
+      AntBuildFileImpl.ANT_PROPERTIES.get(container).stream().noneMatch(property -> BUILD_COMPILER_PROPERTY.equals(property.getPropertyName()))) {
+      // javac diagnostics are sent as structured events
+      if (incrementalJavac) {
+        File graphDir = new File(ContainerPathManager.get().getSystemPath(), "ant-javac-graphs");
+        programParameters.add("-D" + AntLoggerConstants.JAVAC_GRAPH_DIR_PROPERTY + "=" + graphDir.getPath());
+        programParameters.add("-D" + BUILD_COMPILER_PROPERTY + "=consulo.apache.ant.rt.javac.IncrementalJavacAdapter");
+      }
+      else {
+        programParameters.add("-D" + BUILD_COMPILER_PROPERTY + "=consulo.apache.ant.rt.javac.ConsuloJavacAdapter");
+      }
+    }
+    if (AntBuildFileImpl.FAST_COPY.value(container) && antInstallation.isPredefined()) {
+      // replacements rely on internals of bundled Ant version
+      programParameters.add(LISTENER_PARAMETER, "consulo.apache.ant.rt.copy.FastCopyInstaller");
     }
     if (!programParameters.getList().contains(INPUT_HANDLER_PARAMETER)) {
       programParameters.add(INPUT_HANDLER_PARAMETER, "com.intellij.rt.ant.execution.IdeaInputHandler");
@@ -180,6 +257,84 @@ public class AntCommandLineBuilder {
     myCommandLine.setWorkingDirectory(buildFile.getParent());
   }
 
+  /**
+   * @return true if events are sent by binary logger, which needs {@link #setEventChannel(int, String)}
+   */
+  public boolean isBinaryLogger() {
+    return myBinaryLogger;
+  }
+
+  /**
+   * @return true if build may run in warm daemon, see {@link #createDaemonBuild(int, String)}
+   */
+  public boolean isDaemon() {
+    return myDaemon;
+  }
+
+  /**
+   * @return true if build adds outputs of targets to {@link AntTargetCache}
+   */
+  public boolean isTargetCache() {
+    return myTargetCache;
+  }
+
+  /**
+   * Must be called before {@link #setEventChannel(int, String)}, event channel is passed with build request, not to daemon JVM
+   */
+  @Nonnull
+  public AntDaemonBuild createDaemonBuild(int eventPort, @Nonnull String eventToken) throws ExecutionException {
+    OwnJavaParameters parameters = getJavaParameters();
+    ParametersList programParameters = parameters.getProgramParametersList();
+    List<String> arguments = new ArrayList<String>(programParameters.getList());
+    String mainClass = parameters.getMainClass();
+
+    programParameters.clearAll();
+    parameters.setMainClass(DAEMON_MAIN_CLASS);
+    try {
+      GeneralCommandLine daemonCommandLine = parameters.toCommandLine();
+      return new AntDaemonBuild(daemonCommandLine, arguments, parameters.getWorkingDirectory(), eventPort, eventToken);
+    }
+    finally {
+      parameters.setMainClass(mainClass);
+      programParameters.addAll(arguments);
+    }
+  }
+
+  /**
+   * Adds class data sharing archive to forked JVM. Must be called after {@link #createDaemonBuild(int, String)} (daemon starts once
+   * and does not need it), and before {@link #setEventChannel(int, String)} (archive does not depend on event channel)
+   *
+   * @return archive, which must be {@link AntClassDataSharing.Archive#finish finished} when process is terminated,
+   * or null if class data sharing is disabled or not supported by jdk
+   */
+  @Nullable
+  public AntClassDataSharing.Archive enableClassDataSharing() {
+    if (!myClassDataSharing || myJdk == null) {
+      return null;
+    }
+    return AntClassDataSharing.getInstance().configure(myJdk, getJavaParameters());
+  }
+
+  /**
+   * @return true if version string of Ant installation is {@code major.minor} or later
+   */
+  static boolean isAtLeast(@Nullable String versionString, int major, int minor) {
+    if (versionString == null) {
+      return false;
+    }
+    Matcher matcher = VERSION_PATTERN.matcher(versionString);
+    if (!matcher.find()) {
+      return false;
+    }
+    int actualMajor = Integer.parseInt(matcher.group(1));
+    return actualMajor > major || actualMajor == major && Integer.parseInt(matcher.group(2)) >= minor;
+  }
+
+  public void setEventChannel(int port, @Nonnull String token) {
+    myCommandLine.getVMParametersList().add("-D" + AntEventProtocol.EVENT_PORT_PROPERTY + "=" + port);
+    myCommandLine.getVMParametersList().add("-D" + AntEventProtocol.EVENT_TOKEN_PROPERTY + "=" + token);
+  }
+
   public OwnJavaParameters getJavaParameters() {
     if (myDone) {
       return myCommandLine;
@@ -200,6 +355,14 @@ public class AntCommandLineBuilder {
     return myCommandLine;
   }
 
+  /**
+   * @return {@code -D} arguments of build file and additional properties, available after {@link #calculateProperties}
+   */
+  @Nonnull
+  public List<String> getExpandedProperties() {
+    return Collections.unmodifiableList(myExpandedProperties);
+  }
+
   public void addTargets(String[] targets) {
     ContainerUtil.addAll(myTargets, targets);
   }
@@ -30,8 +30,8 @@ import jakarta.annotation.Nonnull;
 public class AntProcessWrapper {
   private final ProcessHandler myProcessHandler;
 
-  private AntProcessWrapper(@Nonnull GeneralCommandLine commandLine) throws ExecutionException {
-    myProcessHandler = ProcessHandlerBuilder.create(commandLine).killable().colored().build();
+  private AntProcessWrapper(@Nonnull ProcessHandler processHandler) {
+    myProcessHandler = processHandler;
   }
 
   public void waitFor() {
@@ -52,8 +52,13 @@ public class AntProcessWrapper {
 
   @Nonnull
   public static AntProcessWrapper runCommandLine(@Nonnull GeneralCommandLine commandLine) throws ExecutionException {
-    final AntProcessWrapper processHandler = new AntProcessWrapper(commandLine);
-    ProcessTerminatedListener.attach(processHandler.myProcessHandler);
-    return processHandler;
+    return wrap(ProcessHandlerBuilder.create(commandLine).killable().colored().build());
+  }
+
+  @Nonnull
+  public static AntProcessWrapper wrap(@Nonnull ProcessHandler processHandler) {
+    final AntProcessWrapper wrapper = new AntProcessWrapper(processHandler);
+    ProcessTerminatedListener.attach(wrapper.myProcessHandler);
+    return wrapper;
   }
 }
\ No newline at end of file
@@ -21,7 +21,17 @@ import com.intellij.lang.ant.config.AntBuildFileBase;
 import com.intellij.lang.ant.config.AntBuildListener;
 import com.intellij.lang.ant.config.actions.RunAction;
 import com.intellij.lang.ant.config.impl.BuildFileProperty;
+import consulo.apache.ant.execution.AntBuildLog;
+import consulo.apache.ant.execution.AntBuildQueue;
+import consulo.apache.ant.execution.AntClassDataSharing;
+import consulo.apache.ant.execution.AntDaemonBuild;
+import consulo.apache.ant.execution.AntDaemonManager;
+import consulo.apache.ant.execution.AntEventReceiver;
+import consulo.apache.ant.execution.AntOutputLevelController;
+import consulo.apache.ant.execution.AntTargetCache;
 import consulo.apache.ant.execution.OutputWatcher;
+import consulo.apache.ant.execution.SearchBuildOutputAction;
+import consulo.apache.ant.execution.ToggleVerboseOutputAction;
 import consulo.application.ApplicationManager;
 import consulo.application.progress.ProgressIndicator;
 import consulo.application.progress.Task;
@@ -49,6 +59,7 @@ import consulo.util.lang.StringUtil;
 import consulo.virtualFileSystem.encoding.EncodingProjectManager;
 import consulo.virtualFileSystem.util.VirtualFileUtil;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 
 import java.util.List;
 import java.util.UUID;
@@ -56,6 +67,9 @@ import java.util.concurrent.TimeUnit;
 
 public final class ExecutionHandler {
   private static final Logger LOG = Logger.getInstance(ExecutionHandler.class);
+  private static final long EVENTS_WAIT_TIMEOUT = 5;
+  // ms, shorter wait in build queue is not reported
+  private static final long QUEUE_WAIT_REPORT_THRESHOLD = 1000;
 
   private ExecutionHandler() {
   }
@@ -69,11 +83,8 @@ public final class ExecutionHandler {
                               List<BuildFileProperty> additionalProperties,
                               @Nonnull AntBuildListener antBuildListener) {
     FileDocumentManager.getInstance().saveAllDocuments();
-    final AntCommandLineBuilder builder = new AntCommandLineBuilder();
-    BuildViewManager buildViewManager = BuildViewManager.getInstance(buildFile.getProject());
-    final GeneralCommandLine commandLine;
-    BuildProgress<BuildProgressDescriptor> buildProgress;
     Project project = buildFile.getProject();
+    final AntCommandLineBuilder builder = new AntCommandLineBuilder();
 
     try {
       builder.setBuildFile(buildFile.getAllOptions(), VirtualFileUtil.virtualToIoFile(buildFile.getVirtualFile()));
@@ -81,10 +92,6 @@ public final class ExecutionHandler {
       builder.addTargets(targets);
 
       builder.getJavaParameters().setCharset(EncodingProjectManager.getInstance(buildFile.getProject()).getDefaultCharset());
-
-      buildProgress = buildViewManager.createBuildProgress();
-
-      commandLine = builder.getJavaParameters().toCommandLine();
     }
     catch (RunCanceledException e) {
       e.showMessage(project, AntBundle.message("run.ant.erorr.dialog.title"));
@@ -106,9 +113,72 @@ public final class ExecutionHandler {
       return;
     }
 
+    AntBuildQueue queue = AntBuildQueue.getInstance(project);
+    Object queueKey = AntBuildQueue.createKey(buildFile.getVirtualFile().getPath(), targets, builder.getExpandedProperties());
+    // identical build, which is waiting for running one, is joined instead of new one
     final boolean startInBackground = buildFile.isRunInBackground();
+    queue.submit(queueKey, buildFile.getVirtualFile().getPath(), antBuildListener,
+                 request -> startBuild(buildFile, targets, builder, request, startInBackground));
+  }
+
+  /**
+   * Takes event channel, daemon and class data sharing archive, so it's called, when queue starts build
+   */
+  private static void startBuild(@Nonnull AntBuildFileBase buildFile,
+                                 String[] targets,
+                                 @Nonnull AntCommandLineBuilder builder,
+                                 @Nonnull AntBuildQueue.Request request,
+                                 boolean startInBackground) {
+    Project project = buildFile.getProject();
+    AntBuildListener listener = request.getListener();
+    long waitTime = request.getWaitTime();
+    final GeneralCommandLine commandLine;
+    BuildProgress<BuildProgressDescriptor> buildProgress;
+    AntEventReceiver eventReceiver = null;
+    AntDaemonBuild daemonBuild = null;
+    AntClassDataSharing.Archive classDataSharing = null;
+
+    try {
+      if (builder.isBinaryLogger()) {
+        eventReceiver = AntEventReceiver.open();
+        if (eventReceiver != null && builder.isDaemon()) {
+          daemonBuild = builder.createDaemonBuild(eventReceiver.getPort(), eventReceiver.getToken());
+        }
+      }
 
-    new Task.Backgroundable(buildFile.getProject(), AntBundle.message("ant.build.progress.dialog.title"), true) {
+      classDataSharing = builder.enableClassDataSharing();
+
+      if (eventReceiver != null) {
+        builder.setEventChannel(eventReceiver.getPort(), eventReceiver.getToken());
+      }
+
+      buildProgress = BuildViewManager.getInstance(project).createBuildProgress();
+
+      commandLine = builder.getJavaParameters().toCommandLine();
+    }
+    catch (ExecutionException e) {
+      closeReceiver(eventReceiver);
+      finishClassDataSharing(classDataSharing);
+      // queue may start build from thread of finished one
+      ApplicationManager.getApplication()
+                        .invokeLater(() -> ExecutionErrorDialog.show(e, AntBundle.message("cant.run.ant.erorr.dialog.title"), project));
+      listener.buildFinished(AntBuildListener.FAILED_TO_RUN, 0);
+      return;
+    }
+    catch (Throwable e) {
+      closeReceiver(eventReceiver);
+      finishClassDataSharing(classDataSharing);
+      listener.buildFinished(AntBuildListener.FAILED_TO_RUN, 0);
+      LOG.error(e);
+      return;
+    }
+
+    final AntEventReceiver receiver = eventReceiver;
+    final AntDaemonBuild finalDaemonBuild = daemonBuild;
+    final AntClassDataSharing.Archive archive = classDataSharing;
+    final boolean targetCache = builder.isTargetCache();
+
+    new Task.Backgroundable(project, AntBundle.message("ant.build.progress.dialog.title"), true) {
 
       @Override
       public boolean shouldStartInBackground() {
@@ -118,11 +188,14 @@ public final class ExecutionHandler {
       @Override
       public void run(@Nonnull final ProgressIndicator indicator) {
         try {
-          runBuild(indicator, buildFile, antBuildListener, commandLine, buildProgress, targets);
+          runBuild(indicator, buildFile, listener, commandLine, finalDaemonBuild, archive, buildProgress, receiver, targets, waitTime,
+                   targetCache);
         }
         catch (Throwable e) {
+          closeReceiver(receiver);
+          finishClassDataSharing(archive);
           LOG.error(e);
-          antBuildListener.buildFinished(AntBuildListener.FAILED_TO_RUN, 0);
+          listener.buildFinished(AntBuildListener.FAILED_TO_RUN, 0);
         }
       }
     }.queue();
@@ -132,8 +205,13 @@ public final class ExecutionHandler {
                                @Nonnull final AntBuildFileBase buildFile,
                                @Nonnull final AntBuildListener antBuildListener,
                                @Nonnull GeneralCommandLine commandLine,
+                               @Nullable AntDaemonBuild daemonBuild,
+                               @Nullable AntClassDataSharing.Archive classDataSharing,
                                @Nonnull BuildProgress<BuildProgressDescriptor> buildProgress,
-                               String[] targets) {
+                               @Nullable AntEventReceiver eventReceiver,
+                               String[] targets,
+                               long waitTime,
+                               boolean targetCache) {
     final Project project = buildFile.getProject();
 
     String id = UUID.randomUUID().toString();
@@ -146,6 +224,10 @@ public final class ExecutionHandler {
                                  System.currentTimeMillis());
     buildDescriptor.setActivateToolWindowWhenAdded(true);
     buildDescriptor.withRestartAction(new RunAction(buildFile, targets));
+    AntOutputLevelController outputLevel = new AntOutputLevelController(eventReceiver);
+    buildDescriptor.withAction(new ToggleVerboseOutputAction(outputLevel));
+    AntBuildLog buildLog = AntBuildLog.create(project);
+    buildDescriptor.withAction(new SearchBuildOutputAction(project, buildLog));
     buildProgress.start(new BuildProgressDescriptor() {
       @Nonnull
       @Override
@@ -160,10 +242,24 @@ public final class ExecutionHandler {
       }
     });
 
+    if (waitTime >= QUEUE_WAIT_REPORT_THRESHOLD) {
+      buildProgress.output(AntBundle.message("ant.build.queue.wait.message", StringUtil.formatDuration(waitTime)) + "\n", true);
+    }
+
     LocalHistory.getInstance().putSystemLabel(project, title);
     final AntProcessWrapper handler;
     try {
-      handler = AntProcessWrapper.runCommandLine(commandLine);
+      ProcessHandler daemonHandler = daemonBuild == null ? null : AntDaemonManager.getInstance().runBuild(daemonBuild);
+      // daemon is busy with other build, or failed to start
+      if (daemonHandler != null) {
+        handler = AntProcessWrapper.wrap(daemonHandler);
+        // forked command line is not used
+        finishClassDataSharing(classDataSharing);
+        classDataSharing = null;
+      }
+      else {
+        handler = AntProcessWrapper.runCommandLine(commandLine);
+      }
     }
     catch (final ExecutionException e) {
       ApplicationManager.getApplication()
@@ -171,12 +267,15 @@ public final class ExecutionHandler {
                                                                      AntBundle.message("could.not.start.process.erorr.dialog.title"),
                                                                      project));
 
+      closeReceiver(eventReceiver);
+      finishClassDataSharing(classDataSharing);
       buildProgress.fail(System.currentTimeMillis(), e.getMessage());
       antBuildListener.buildFinished(AntBuildListener.FAILED_TO_RUN, 0);
       return;
     }
 
-    processRunningAnt(progress, handler, buildFile, antBuildListener, buildProgress);
+    processRunningAnt(progress, handler, buildFile, antBuildListener, buildProgress, eventReceiver, classDataSharing, outputLevel,
+                      buildLog, targetCache);
     handler.waitFor();
   }
 
@@ -184,20 +283,41 @@ public final class ExecutionHandler {
                                         AntProcessWrapper wrapper,
                                         AntBuildFile buildFile,
                                         AntBuildListener antBuildListener,
-                                        @Nonnull BuildProgress<BuildProgressDescriptor> buildProgress) {
+                                        @Nonnull BuildProgress<BuildProgressDescriptor> buildProgress,
+                                        @Nullable AntEventReceiver eventReceiver,
+                                        @Nullable AntClassDataSharing.Archive classDataSharing,
+                                        @Nonnull AntOutputLevelController outputLevel,
+                                        @Nonnull AntBuildLog buildLog,
+                                        boolean targetCache) {
     final Project project = buildFile.getProject();
 
     final CheckCancelTask checkCancelTask = new CheckCancelTask(progress, wrapper.getProcessHandler());
     checkCancelTask.start(0);
 
-    final OutputWatcher parser = OutputParser2.attachParser(project, wrapper, progress, buildFile, buildProgress);
+    final OutputWatcher parser = OutputParser2.attachParser(project, wrapper, progress, buildFile, buildProgress, eventReceiver, outputLevel,
+                                                                buildLog);
 
     wrapper.addProcessListener(new ProcessListener() {
       @Override
       public void processTerminated(ProcessEvent event) {
         checkCancelTask.cancel();
+        if (eventReceiver != null) {
+          eventReceiver.waitFor(EVENTS_WAIT_TIMEOUT, TimeUnit.SECONDS);
+          eventReceiver.close();
+        }
         parser.setStopped(true);
 
+        if (classDataSharing != null) {
+          String report = classDataSharing.finish(event.getExitCode() == 0, parser.getStartupTime());
+          if (report != null) {
+            buildProgress.output(report + "\n", true);
+          }
+        }
+        if (targetCache) {
+          // forked ant only adds outputs to target cache
+          AntTargetCache.getInstance().evictLater();
+        }
+
         if (progress != null && progress.isCanceled()) {
           buildProgress.cancel();
           antBuildListener.buildFinished(AntBuildListener.ABORTED, 0);
@@ -215,6 +335,18 @@ public final class ExecutionHandler {
     wrapper.startNotify();
   }
 
+  private static void closeReceiver(@Nullable AntEventReceiver eventReceiver) {
+    if (eventReceiver != null) {
+      eventReceiver.close();
+    }
+  }
+
+  private static void finishClassDataSharing(@Nullable AntClassDataSharing.Archive classDataSharing) {
+    if (classDataSharing != null) {
+      classDataSharing.finish(false, -1);
+    }
+  }
+
   static final class CheckCancelTask implements Runnable {
     private final ProgressIndicator myProgressIndicator;
     private final ProcessHandler myProcessHandler;
@@ -100,6 +100,11 @@ public class OutputParser implements OutputWatcher {
     return 0;
   }
 
+  @Override
+  public long getStartupTime() {
+    return -1;
+  }
+
   private void setProgressStatistics(String s) {
     final ProgressIndicator progress = myProgress.get();
     if (progress != null) {
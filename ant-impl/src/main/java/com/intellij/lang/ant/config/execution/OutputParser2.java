@@ -16,18 +16,22 @@
 package com.intellij.lang.ant.config.execution;
 
 import com.intellij.lang.ant.config.AntBuildFile;
+import consulo.apache.ant.execution.AntBuildLog;
+import consulo.apache.ant.execution.AntEventReceiver;
+import consulo.apache.ant.execution.AntOutputLevelController;
 import consulo.apache.ant.execution.OutputBuilder;
 import consulo.apache.ant.execution.OutputWatcher;
+import consulo.apache.ant.execution.ServiceMessageRecognizer;
 import consulo.application.progress.ProgressIndicator;
 import consulo.build.ui.progress.BuildProgress;
 import consulo.build.ui.progress.BuildProgressDescriptor;
+import consulo.process.ProcessOutputTypes;
 import consulo.process.event.ProcessEvent;
 import consulo.process.event.ProcessListener;
 import consulo.project.Project;
 import consulo.util.dataholder.Key;
-import jetbrains.buildServer.messages.serviceMessages.ServiceMessage;
 
-import java.text.ParseException;
+import jakarta.annotation.Nullable;
 
 @Deprecated
 final class OutputParser2 {
@@ -36,22 +40,38 @@ final class OutputParser2 {
                                            AntProcessWrapper handler,
                                            ProgressIndicator progress,
                                            AntBuildFile buildFile,
-                                           BuildProgress<BuildProgressDescriptor> buildProgress) {
+                                           BuildProgress<BuildProgressDescriptor> buildProgress,
+                                           @Nullable AntEventReceiver eventReceiver,
+                                           AntOutputLevelController outputLevel,
+                                           AntBuildLog buildLog) {
     final OutputBuilder parser = new OutputBuilder(myProject,
                                                    handler.getProcessHandler(),
-                                                   buildProgress
+                                                   buildProgress,
+                                                   outputLevel,
+                                                   buildLog
     );
+    if (eventReceiver != null) {
+      eventReceiver.start(parser);
+    }
+    // partial lines of stdout and stderr are joined separately
+    final ServiceMessageRecognizer outputRecognizer = new ServiceMessageRecognizer(parser);
+    final ServiceMessageRecognizer errorRecognizer = new ServiceMessageRecognizer(parser);
     handler.addProcessListener(new ProcessListener() {
       @Override
       public void onTextAvailable(ProcessEvent event, Key outputType) {
-        String text = event.getText().trim();
-        try {
-          ServiceMessage serviceMessage = ServiceMessage.parse(text);
-          parser.onMessage(serviceMessage, text);
-        }
-        catch (ParseException ignored) {
-          parser.onMessage(null, text);
+        if (eventReceiver != null && eventReceiver.isConnected()) {
+          // build events are going through side channel, process output is only user output
+          parser.onOutput(event.getText(), outputType != ProcessOutputTypes.STDERR);
+          return;
         }
+
+        (outputType == ProcessOutputTypes.STDERR ? errorRecognizer : outputRecognizer).append(event.getText());
+      }
+
+      @Override
+      public void processTerminated(ProcessEvent event) {
+        outputRecognizer.flush();
+        errorRecognizer.flush();
       }
     });
     return parser;
@@ -212,6 +212,8 @@ public class AntExplorer extends SimpleToolWindowPanel implements DataProvider,
     action = CommonActionsManager.getInstance().createCollapseAllAction(myTreeExpander, this);
     action.getTemplatePresentation().setDescription(AntBundle.message("ant.explorer.collapse.all.nodes.action.description"));
     group.add(action);
+    group.addSeparator();
+    group.add(new ShowTargetCacheAction());
 
     final ActionToolbar actionToolBar = ActionManager.getInstance().createActionToolbar(ActionPlaces.ANT_EXPLORER_TOOLBAR, group, true);
     actionToolBar.setTargetComponent(this);
@@ -625,6 +627,17 @@ public class AntExplorer extends SimpleToolWindowPanel implements DataProvider,
     }
   }
 
+  private final class ShowTargetCacheAction extends AnAction {
+    public ShowTargetCacheAction() {
+      super(AntBundle.message("ant.target.cache.action.name"), AntBundle.message("ant.target.cache.action.description"),
+            AllIcons.Nodes.JarDirectory);
+    }
+
+    public void actionPerformed(AnActionEvent e) {
+      new AntTargetCacheDialog(myProject).show();
+    }
+  }
+
   private void setTargetsFiltered(boolean value) {
     myBuilder.setTargetsFiltered(value);
     AntConfigurationBase.getInstance(myProject).setFilterTargets(value);
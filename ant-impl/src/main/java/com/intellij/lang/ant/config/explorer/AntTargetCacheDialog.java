@@ -0,0 +1,125 @@
+package com.intellij.lang.ant.config.explorer;
+
+import com.intellij.lang.ant.AntBundle;
+import consulo.apache.ant.execution.AntTargetCache;
+import consulo.application.util.DateFormatUtil;
+import consulo.project.Project;
+import consulo.ui.ex.awt.ColumnInfo;
+import consulo.ui.ex.awt.DialogWrapper;
+import consulo.ui.ex.awt.JBLabel;
+import consulo.ui.ex.awt.ScrollPaneFactory;
+import consulo.ui.ex.awt.table.ListTableModel;
+import consulo.ui.ex.awt.table.TableView;
+import consulo.util.lang.StringUtil;
+import jakarta.annotation.Nonnull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.util.List;
+
+/**
+ * Shows outputs, archived by target cache, and allows to remove them
+ *
+ * @since 17/10/2026
+ */
+public class AntTargetCacheDialog extends DialogWrapper {
+  private static final ColumnInfo<AntTargetCache.Entry, String> BUILD_FILE_COLUMN =
+    new ColumnInfo<AntTargetCache.Entry, String>(AntBundle.message("ant.target.cache.build.file.column.name")) {
+      public String valueOf(AntTargetCache.Entry entry) {
+        return entry.getBuildFile();
+      }
+    };
+  private static final ColumnInfo<AntTargetCache.Entry, String> TARGET_COLUMN =
+    new ColumnInfo<AntTargetCache.Entry, String>(AntBundle.message("ant.target.cache.target.column.name")) {
+      public String valueOf(AntTargetCache.Entry entry) {
+        return entry.getTarget();
+      }
+    };
+  private static final ColumnInfo<AntTargetCache.Entry, Integer> FILES_COLUMN =
+    new ColumnInfo<AntTargetCache.Entry, Integer>(AntBundle.message("ant.target.cache.files.column.name")) {
+      public Integer valueOf(AntTargetCache.Entry entry) {
+        return entry.getFileCount();
+      }
+    };
+  private static final ColumnInfo<AntTargetCache.Entry, String> SIZE_COLUMN =
+    new ColumnInfo<AntTargetCache.Entry, String>(AntBundle.message("ant.target.cache.size.column.name")) {
+      public String valueOf(AntTargetCache.Entry entry) {
+        return StringUtil.formatFileSize(entry.getSize());
+      }
+    };
+  private static final ColumnInfo<AntTargetCache.Entry, String> LAST_USED_COLUMN =
+    new ColumnInfo<AntTargetCache.Entry, String>(AntBundle.message("ant.target.cache.last.used.column.name")) {
+      public String valueOf(AntTargetCache.Entry entry) {
+        return DateFormatUtil.formatPrettyDateTime(entry.getLastUsed());
+      }
+    };
+
+  private final AntTargetCache myCache = AntTargetCache.getInstance();
+  private final ListTableModel<AntTargetCache.Entry> myModel =
+    new ListTableModel<>(BUILD_FILE_COLUMN, TARGET_COLUMN, FILES_COLUMN, SIZE_COLUMN, LAST_USED_COLUMN);
+  private final TableView<AntTargetCache.Entry> myTable = new TableView<>(myModel);
+  private final JBLabel mySizeLabel = new JBLabel();
+  private final Action myRemoveAction;
+  private final Action myClearAction;
+
+  public AntTargetCacheDialog(@Nonnull Project project) {
+    super(project, true);
+    setTitle(AntBundle.message("ant.target.cache.dialog.title"));
+
+    myRemoveAction = new AbstractAction(AntBundle.message("ant.target.cache.remove.action.name")) {
+      public void actionPerformed(ActionEvent e) {
+        myCache.remove(myTable.getSelectedObjects());
+        reload();
+      }
+    };
+    myClearAction = new AbstractAction(AntBundle.message("ant.target.cache.clear.action.name")) {
+      public void actionPerformed(ActionEvent e) {
+        myCache.clear();
+        reload();
+      }
+    };
+    myTable.getSelectionModel().addListSelectionListener(e -> updateActions());
+
+    init();
+    reload();
+  }
+
+  protected String getDimensionServiceKey() {
+    return "#consulo.apache.ant.explorer.AntTargetCacheDialog";
+  }
+
+  protected JComponent createCenterPanel() {
+    JPanel panel = new JPanel(new BorderLayout(0, 5));
+    panel.add(ScrollPaneFactory.createScrollPane(myTable), BorderLayout.CENTER);
+    panel.add(mySizeLabel, BorderLayout.SOUTH);
+    panel.setPreferredSize(new Dimension(700, 400));
+    return panel;
+  }
+
+  @Nonnull
+  protected Action[] createLeftSideActions() {
+    return new Action[]{myRemoveAction, myClearAction};
+  }
+
+  @Nonnull
+  protected Action[] createActions() {
+    return new Action[]{getOKAction()};
+  }
+
+  public JComponent getPreferredFocusedComponent() {
+    return myTable;
+  }
+
+  private void reload() {
+    List<AntTargetCache.Entry> entries = myCache.getEntries();
+    myModel.setItems(entries);
+    mySizeLabel.setText(AntBundle.message("ant.target.cache.total.size.label", StringUtil.formatFileSize(myCache.getSize())));
+    updateActions();
+  }
+
+  private void updateActions() {
+    myRemoveAction.setEnabled(myTable.getSelectedRowCount() > 0);
+    myClearAction.setEnabled(myModel.getRowCount() > 0);
+  }
+}
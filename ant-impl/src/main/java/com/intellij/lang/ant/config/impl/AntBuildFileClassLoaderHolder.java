@@ -16,9 +16,14 @@
 package com.intellij.lang.ant.config.impl;
 
 import consulo.apache.ant.sdk.AntSdkClassLoaderUtil;
+import consulo.application.ApplicationManager;
+import consulo.application.util.function.Computable;
 import consulo.component.util.config.AbstractProperty;
+import consulo.container.plugin.PluginManager;
 import consulo.content.bundle.Sdk;
 import consulo.logging.Logger;
+import consulo.xml.language.psi.XmlFile;
+import jakarta.annotation.Nonnull;
 
 import java.io.File;
 import java.net.MalformedURLException;
@@ -29,10 +34,30 @@ import java.util.List;
 public class AntBuildFileClassLoaderHolder extends ClassLoaderHolder {
   private static final Logger LOG = Logger.getInstance(AntBuildFileClassLoaderHolder.class);
 
+  // namespace of ant-rt tasks, e.g. antlib:consulo.apache.ant.rt.zip
+  private static final String RUNTIME_ANTLIB = "antlib:consulo.apache.ant.rt";
+
   protected final AbstractProperty.AbstractPropertyContainer myOptions;
+  private final AntBuildFileImpl myBuildFile;
+  private boolean myUsesRuntime;
+  // ant file is scanned again only when it changes
+  private long myScannedStamp = -1;
+  private boolean myScannedUsesRuntime;
 
-  public AntBuildFileClassLoaderHolder(AbstractProperty.AbstractPropertyContainer options) {
+  public AntBuildFileClassLoaderHolder(AbstractProperty.AbstractPropertyContainer options, AntBuildFileImpl buildFile) {
     myOptions = options;
+    myBuildFile = buildFile;
+  }
+
+  @Nonnull
+  @Override
+  public ClassLoader getClassloader() {
+    final boolean usesRuntime = usesRuntime();
+    if (usesRuntime != myUsesRuntime) {
+      myUsesRuntime = usesRuntime;
+      updateClasspath();
+    }
+    return super.getClassloader();
   }
 
   @Override
@@ -42,6 +67,14 @@ public class AntBuildFileClassLoaderHolder extends ClassLoaderHolder {
       entry.addFilesTo(files);
     }
 
+    // tasks of ant-rt are resolved like tasks of build classpath, if build file declares their namespace
+    if (myUsesRuntime) {
+      final File runtimeJar = new File(PluginManager.getPluginPath(AntBuildFileClassLoaderHolder.class), "ant-rt.jar");
+      if (runtimeJar.isFile()) {
+        files.add(runtimeJar);
+      }
+    }
+
     final Sdk antInstallation = AntBuildFileImpl.RUN_WITH_ANT.get(myOptions);
     final ClassLoader parentLoader = (antInstallation != null) ? AntSdkClassLoaderUtil.getClassLoader(antInstallation) : null;
     if (parentLoader != null && files.size() == 0) {
@@ -60,4 +93,21 @@ public class AntBuildFileClassLoaderHolder extends ClassLoaderHolder {
     }
     return new AntResourcesClassLoader(urls, parentLoader, false, false);
   }
+
+  private boolean usesRuntime() {
+    return ApplicationManager.getApplication().runReadAction(new Computable<Boolean>() {
+      public Boolean compute() {
+        final XmlFile antFile = myBuildFile.getAntFile();
+        if (antFile == null) {
+          return false;
+        }
+        final long stamp = antFile.getModificationStamp();
+        if (stamp != myScannedStamp) {
+          myScannedUsesRuntime = antFile.getText().contains(RUNTIME_ANTLIB);
+          myScannedStamp = stamp;
+        }
+        return myScannedUsesRuntime;
+      }
+    });
+  }
 }
\ No newline at end of file
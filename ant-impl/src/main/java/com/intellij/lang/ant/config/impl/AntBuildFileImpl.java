@@ -145,6 +145,15 @@ public class AntBuildFileImpl implements AntBuildFileBase {
   public static final ListProperty<BuildFileProperty> ANT_PROPERTIES =
     ListProperty.create("properties");
   public static final StringProperty ANT_COMMAND_LINE_PARAMETERS = new StringProperty("antCommandLine", "");
+  public static final BooleanProperty BINARY_LOGGER = new BooleanProperty("binaryLogger", false);
+  public static final BooleanProperty USE_DAEMON = new BooleanProperty("useDaemon", false);
+  public static final BooleanProperty CLASS_DATA_SHARING = new BooleanProperty("classDataSharing", true);
+  public static final BooleanProperty WRITE_TRACE = new BooleanProperty("writeTrace", false);
+  public static final BooleanProperty PARALLEL_TARGETS = new BooleanProperty("parallelTargets", false);
+  public static final BooleanProperty TARGET_CACHE = new BooleanProperty("targetCache", false);
+  public static final BooleanProperty IN_PROCESS_JAVAC = new BooleanProperty("inProcessJavac", false);
+  public static final BooleanProperty INCREMENTAL_JAVAC = new BooleanProperty("incrementalJavac", false);
+  public static final BooleanProperty FAST_COPY = new BooleanProperty("fastCopy", false);
   public static final AbstractProperty<AntReference> ANT_REFERENCE =
     new ValueProperty<AntReference>("antReference", AntReference.PROJECT_DEFAULT);
   public static final ListProperty<AntClasspathEntry> ADDITIONAL_CLASSPATH =
@@ -200,6 +209,15 @@ public class AntBuildFileImpl implements AntBuildFileBase {
     myProjectOptions.registerProperty(MAX_STACK_SIZE);
     myProjectOptions.registerProperty(CUSTOM_JDK_NAME);
     myProjectOptions.registerProperty(ANT_COMMAND_LINE_PARAMETERS);
+    myProjectOptions.registerProperty(BINARY_LOGGER);
+    myProjectOptions.registerProperty(USE_DAEMON);
+    myProjectOptions.registerProperty(CLASS_DATA_SHARING);
+    myProjectOptions.registerProperty(WRITE_TRACE);
+    myProjectOptions.registerProperty(PARALLEL_TARGETS);
+    myProjectOptions.registerProperty(TARGET_CACHE);
+    myProjectOptions.registerProperty(IN_PROCESS_JAVAC);
+    myProjectOptions.registerProperty(INCREMENTAL_JAVAC);
+    myProjectOptions.registerProperty(FAST_COPY);
     myProjectOptions.registerProperty(ANT_PROPERTIES, "property", BuildFileProperty::new);
     myProjectOptions.registerProperty(ADDITIONAL_CLASSPATH, "entry", SinglePathEntry.EXTERNALIZER);
     myProjectOptions.registerProperty(ANT_REFERENCE, AntReference.EXTERNALIZER);
@@ -210,7 +228,7 @@ public class AntBuildFileImpl implements AntBuildFileBase {
       GlobalAntConfiguration.getInstance().getProperties(getProject())
     });
 
-    myClassloaderHolder = new AntBuildFileClassLoaderHolder(myAllOptions);
+    myClassloaderHolder = new AntBuildFileClassLoaderHolder(myAllOptions, this);
   }
 
   public static List<File> getUserHomeLibraries() {
@@ -136,7 +136,8 @@ public class BuildFilePropertiesPanel {
         new PropertiesTab(),
         new ExecutionTab(GlobalAntConfiguration.getInstance(), project),
         new AdditionalClasspathTab(),
-        new FiltersTab()
+        new FiltersTab(),
+        new PerformanceTab()
       };
 
       myHeapSizeLabel.setLabelFor(myXmx);
@@ -524,6 +525,60 @@ public class BuildFilePropertiesPanel {
     }
   }
 
+  private static class PerformanceTab extends Tab {
+    private final JPanel myWholePanel = new JPanel(new VerticalFlowLayout());
+    private final JCheckBox myBinaryLogger;
+    private final JCheckBox myUseDaemon;
+
+    public PerformanceTab() {
+      myBinaryLogger = addCheckBox("build.file.properties.binary.logger.checkbox", AntBuildFileImpl.BINARY_LOGGER);
+      // daemon reports build events only through event channel
+      myUseDaemon = addCheckBox("build.file.properties.use.daemon.checkbox", AntBuildFileImpl.USE_DAEMON);
+      addCheckBox("build.file.properties.class.data.sharing.checkbox", AntBuildFileImpl.CLASS_DATA_SHARING);
+      addCheckBox("build.file.properties.parallel.targets.checkbox", AntBuildFileImpl.PARALLEL_TARGETS);
+      addCheckBox("build.file.properties.target.cache.checkbox", AntBuildFileImpl.TARGET_CACHE);
+      addCheckBox("build.file.properties.in.process.javac.checkbox", AntBuildFileImpl.IN_PROCESS_JAVAC);
+      addCheckBox("build.file.properties.incremental.javac.checkbox", AntBuildFileImpl.INCREMENTAL_JAVAC);
+      addCheckBox("build.file.properties.fast.copy.checkbox", AntBuildFileImpl.FAST_COPY);
+      addCheckBox("build.file.properties.write.trace.checkbox", AntBuildFileImpl.WRITE_TRACE);
+
+      myBinaryLogger.addItemListener(e -> updateDaemon());
+    }
+
+    private JCheckBox addCheckBox(String key, AbstractProperty<Boolean> property) {
+      JCheckBox checkBox = new JCheckBox(AntBundle.message(key));
+      getBinding().bindBoolean(checkBox, property);
+      myWholePanel.add(checkBox);
+      return checkBox;
+    }
+
+    private void updateDaemon() {
+      myUseDaemon.setEnabled(myBinaryLogger.isSelected());
+    }
+
+    @Override
+    public void reset(AbstractProperty.AbstractPropertyContainer options) {
+      super.reset(options);
+      updateDaemon();
+    }
+
+    @Override
+    public JComponent getComponent() {
+      return myWholePanel;
+    }
+
+    @Override
+    @Nullable
+    public String getDisplayName() {
+      return AntBundle.message("edit.ant.properties.performance.tab.display.name");
+    }
+
+    @Override
+    public JComponent getPreferedFocusComponent() {
+      return myBinaryLogger;
+    }
+  }
+
   private static void setLabelFor(JLabel label, ComponentWithBrowseButton component) {
     label.setLabelFor(component.getChildComponent());
   }
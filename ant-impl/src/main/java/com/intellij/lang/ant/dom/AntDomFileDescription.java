@@ -18,6 +18,7 @@ package com.intellij.lang.ant.dom;
 import com.intellij.lang.ant.ForcedAntFileAttribute;
 import consulo.annotation.component.ExtensionImpl;
 import consulo.apache.ant.ApacheAntIcons;
+import consulo.apache.ant.rt.common.AntLoggerConstants;
 import consulo.component.util.Iconable;
 import consulo.ui.image.Image;
 import consulo.virtualFileSystem.VirtualFile;
@@ -40,6 +41,11 @@ public class AntDomFileDescription extends AntFileDescription<AntDomProject> {
     super(AntDomProject.class, ROOT_TAG_NAME);
   }
 
+  @Override
+  protected void initializeFileDescription() {
+    registerNamespacePolicy(AntDomTarget.TARGET_CACHE_NAMESPACE_KEY, AntLoggerConstants.TARGET_CACHE_NAMESPACE);
+  }
+
   public boolean isMyFile(@Nonnull XmlFile file) {
     return super.isMyFile(file) && isAntFile(file);
   }
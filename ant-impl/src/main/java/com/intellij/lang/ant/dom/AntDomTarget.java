@@ -18,6 +18,7 @@ package com.intellij.lang.ant.dom;
 import consulo.xml.dom.Attribute;
 import consulo.xml.dom.Convert;
 import consulo.xml.dom.GenericAttributeValue;
+import consulo.xml.dom.Namespace;
 
 /**
  * @author Eugene Zhuravlev
@@ -25,6 +26,7 @@ import consulo.xml.dom.GenericAttributeValue;
  */
 @SuppressWarnings({"AbstractClassNeverImplemented"})
 public abstract class AntDomTarget extends AntDomNamedElement{
+  public static final String TARGET_CACHE_NAMESPACE_KEY = "Ant target cache";
 
   @Attribute("if")
   public abstract GenericAttributeValue<String> getIfPropertyName();
@@ -38,4 +40,18 @@ public abstract class AntDomTarget extends AntDomNamedElement{
   @Attribute("depends")
   @Convert(value = AntDomTargetDependsListConverter.class)
   public abstract GenericAttributeValue<TargetResolver.Result> getDependsList();
+
+  /**
+   * Fileset includes of files, which target reads. Target with inputs is skipped when they are not changed
+   */
+  @Attribute("inputs")
+  @Namespace(TARGET_CACHE_NAMESPACE_KEY)
+  public abstract GenericAttributeValue<String> getCacheInputs();
+
+  /**
+   * Fileset includes of files, which target writes
+   */
+  @Attribute("outputs")
+  @Namespace(TARGET_CACHE_NAMESPACE_KEY)
+  public abstract GenericAttributeValue<String> getCacheOutputs();
 }
@@ -0,0 +1,523 @@
+package consulo.apache.ant.execution;
+
+import consulo.container.boot.ContainerPathManager;
+import consulo.disposer.Disposable;
+import consulo.disposer.Disposer;
+import consulo.logging.Logger;
+import consulo.project.Project;
+import consulo.util.dataholder.Key;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Log of build, which is shown in build view: output, messages and javac diagnostics, with targets and tasks, which
+ * contain them. Records are appended to memory-mapped file in system directory, and so are their addresses, so only
+ * {@link #WINDOW} recent records stay on heap. Build view gets limited output, see {@link OutputFlushScheduler}, the
+ * rest is only here. If file can't be written, records are kept on heap from then on.
+ * Words of records are indexed by {@link AntLogIndex} in file next to log, for search.
+ * <p>
+ * Build view has no event for closing its tab, so logs of {@link #MAX_LOGS} recent builds of project are kept, older
+ * ones are deleted, and so are logs of closed project.
+ *
+ * @since 17/10/2026
+ */
+public final class AntBuildLog implements Disposable {
+  private static final Logger LOG = Logger.getInstance(AntBuildLog.class);
+  private static final Key<Deque<AntBuildLog>> LOGS_KEY = Key.create("ant.build.logs");
+
+  // process output, which is not a build event
+  static final int OUTPUT = 0;
+  static final int MESSAGE = 1;
+  static final int DIAGNOSTIC = 2;
+  // start of target or task, text is its name
+  static final int TARGET = 3;
+  static final int TASK = 4;
+
+  private static final int MAX_LOGS = 10;
+  private static final int WINDOW = 1024;
+  private static final int REGION_SIZE = 8 * 1024 * 1024;
+  private static final int ADDRESSES_PER_REGION = REGION_SIZE / Long.BYTES;
+  // logs of crashed sessions
+  private static final long STALE_AGE = TimeUnit.DAYS.toMillis(1);
+
+  private File myFile;
+  private FileChannel myChannel;
+  private final List<MappedByteBuffer> myRegions = new ArrayList<>();
+  private long myFileSize;
+  // by record index: region index in high bits and position in low bits
+  private File myAddressFile;
+  private FileChannel myAddressChannel;
+  private final List<MappedByteBuffer> myAddressRegions = new ArrayList<>();
+  private boolean myDisposed;
+
+  private int myCount;
+  private final Record[] myWindow = new Record[WINDOW];
+  // records from this index on are kept on heap, or -1
+  private int myHeapStart = -1;
+  private final List<Record> myHeapRecords = new ArrayList<>();
+  private ByteBuffer myBuffer = ByteBuffer.allocate(4096);
+
+  private final List<Range> myRanges = new ArrayList<>();
+  // by key of target or task, in order of start
+  private final Map<Object, Range> myOpenRanges = new HashMap<>();
+  private final List<Range> myOpenRangeOrder = new ArrayList<>();
+  private final AntLogIndex myTextIndex = new AntLogIndex();
+
+  /**
+   * Creates log of new build, log of the oldest build of project is deleted, if there are too many
+   */
+  @Nonnull
+  public static AntBuildLog create(@Nonnull Project project) {
+    AntBuildLog log = new AntBuildLog();
+    Disposer.register(project, log);
+
+    AntBuildLog evicted = null;
+    synchronized (LOGS_KEY) {
+      Deque<AntBuildLog> logs = project.getUserData(LOGS_KEY);
+      if (logs == null) {
+        project.putUserData(LOGS_KEY, logs = new ArrayDeque<>());
+      }
+      logs.addLast(log);
+      if (logs.size() > MAX_LOGS) {
+        evicted = logs.removeFirst();
+      }
+    }
+    if (evicted != null) {
+      Disposer.dispose(evicted);
+    }
+    return log;
+  }
+
+  private AntBuildLog() {
+    File directory = new File(ContainerPathManager.get().getSystemPath(), "ant-logs");
+    deleteStaleLogs(directory);
+    try {
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        throw new IOException("Can't create " + directory);
+      }
+      myFile = File.createTempFile("build", ".log", directory);
+      myChannel = new RandomAccessFile(myFile, "rw").getChannel();
+      myAddressFile = new File(myFile.getPath() + ".adr");
+      myAddressChannel = new RandomAccessFile(myAddressFile, "rw").getChannel();
+      myTextIndex.open(directory);
+    }
+    catch (IOException e) {
+      LOG.warn("Build log is kept in memory: " + e.getMessage());
+      closeFile();
+      myHeapStart = 0;
+    }
+  }
+
+  private static void deleteStaleLogs(@Nonnull File directory) {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    for (File file : files) {
+      if (now - file.lastModified() > STALE_AGE) {
+        file.delete();
+      }
+    }
+  }
+
+  /**
+   * @param key       key of target or task, see {@link #add}
+   * @param parentKey key of target or task, which contains this one, or null for the last started one
+   */
+  synchronized void startRange(@Nonnull Object key, @Nullable Object parentKey, int kind, @Nonnull String name) {
+    Range parent = findOpenRange(parentKey);
+    int start = add(new Record(kind, 0, parent == null ? -1 : parent.myNumber, name, null, -1, -1));
+    if (start < 0) {
+      return;
+    }
+    Range range = new Range(myRanges.size(), kind, name, start, parent == null ? -1 : parent.myNumber);
+    myRanges.add(range);
+    myOpenRanges.put(key, range);
+    myOpenRangeOrder.add(range);
+  }
+
+  synchronized void finishRange(@Nonnull Object key) {
+    Range range = myOpenRanges.remove(key);
+    if (range != null) {
+      range.myEnd = myCount;
+      myOpenRangeOrder.remove(range);
+    }
+  }
+
+  /**
+   * @param key key of target or task, which record belongs to, or null for the last started one
+   */
+  void add(int kind, int priority, @Nullable Object key, @Nonnull String text) {
+    add(kind, priority, key, text, null, -1, -1);
+  }
+
+  /**
+   * @param path file of diagnostic
+   */
+  synchronized void add(int kind, int priority, @Nullable Object key, @Nonnull String text, @Nullable String path, int line, int column) {
+    Range range = findOpenRange(key);
+    add(new Record(kind, priority, range == null ? -1 : range.myNumber, text, path, line, column));
+  }
+
+  @Nullable
+  private Range findOpenRange(@Nullable Object key) {
+    Range range = key == null ? null : myOpenRanges.get(key);
+    if (range == null && !myOpenRangeOrder.isEmpty()) {
+      range = myOpenRangeOrder.get(myOpenRangeOrder.size() - 1);
+    }
+    return range;
+  }
+
+  /**
+   * @return index of record, or -1 if log is deleted
+   */
+  private int add(@Nonnull Record record) {
+    if (myDisposed) {
+      return -1;
+    }
+    write(record);
+    myWindow[myCount % WINDOW] = record;
+    myTextIndex.add(myCount, record.myText);
+    return myCount++;
+  }
+
+  synchronized int size() {
+    return myCount;
+  }
+
+  @Nonnull
+  synchronized Record get(int index) {
+    if (index < 0 || index >= myCount) {
+      throw new IndexOutOfBoundsException(index + " of " + myCount);
+    }
+    if (index >= myCount - WINDOW) {
+      return myWindow[index % WINDOW];
+    }
+    if (myHeapStart >= 0 && index >= myHeapStart) {
+      return myHeapRecords.get(index - myHeapStart);
+    }
+    long address = myAddressRegions.get(index / ADDRESSES_PER_REGION).getLong(index % ADDRESSES_PER_REGION * Long.BYTES);
+    ByteBuffer region = myRegions.get((int)(address >>> 32)).duplicate();
+    region.position((int)address);
+    return read(region);
+  }
+
+  /**
+   * Finds records, which text matches query. Candidates are found by index, and all records are checked, if query has
+   * no keys or index is not available. Records are read one by one, so log is not locked while search is running.
+   *
+   * @param limit     maximal number of found records
+   * @param cancelled search stops, when it returns true
+   * @return ascending records
+   */
+  @Nonnull
+  int[] search(@Nonnull AntLogQuery query, int limit, @Nonnull BooleanSupplier cancelled) {
+    int[] keys = query.getKeys();
+    int[] candidates;
+    int to;
+    synchronized (this) {
+      candidates = keys.length == 0 ? null : myTextIndex.find(keys);
+      to = myCount;
+    }
+    int[] result = new int[Math.min(limit, 1024)];
+    int count = 0;
+    for (int position = 0; count < limit && !cancelled.getAsBoolean(); position++) {
+      int index = candidates == null ? position : position < candidates.length ? candidates[position] : -1;
+      if (index < 0 || index >= to) {
+        break;
+      }
+      Record record;
+      synchronized (this) {
+        if (index >= myCount) {
+          // log is deleted
+          break;
+        }
+        record = get(index);
+      }
+      if (query.matches(record.myText)) {
+        if (count == result.length) {
+          result = Arrays.copyOf(result, Math.min(limit, count * 2));
+        }
+        result[count++] = index;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  /**
+   * @return targets and tasks, which contain record, outer first
+   */
+  @Nonnull
+  synchronized List<Range> getEnclosingRanges(@Nonnull Record record) {
+    List<Range> result = new ArrayList<>();
+    for (int number = record.myRange; number >= 0; number = myRanges.get(number).myParent) {
+      result.add(0, myRanges.get(number));
+    }
+    return result;
+  }
+
+  /**
+   * Deletes file of log
+   */
+  @Override
+  public synchronized void dispose() {
+    myDisposed = true;
+    closeFile();
+    myCount = 0;
+    Arrays.fill(myWindow, null);
+    myHeapRecords.clear();
+    myRanges.clear();
+    myOpenRanges.clear();
+    myOpenRangeOrder.clear();
+  }
+
+  private void closeFile() {
+    myTextIndex.close();
+    myRegions.clear();
+    myAddressRegions.clear();
+    myFileSize = 0;
+    close(myChannel);
+    close(myAddressChannel);
+    myChannel = null;
+    myAddressChannel = null;
+    delete(myFile);
+    delete(myAddressFile);
+    myFile = null;
+    myAddressFile = null;
+  }
+
+  private static void close(@Nullable FileChannel channel) {
+    if (channel != null) {
+      try {
+        channel.close();
+      }
+      catch (IOException e) {
+        LOG.debug(e);
+      }
+    }
+  }
+
+  private static void delete(@Nullable File file) {
+    // mapped file can't be deleted on Windows until buffers are collected
+    if (file != null && !file.delete()) {
+      file.deleteOnExit();
+    }
+  }
+
+  private void write(@Nonnull Record record) {
+    if (myHeapStart < 0) {
+      try {
+        writeToFile(record);
+        return;
+      }
+      catch (IOException e) {
+        LOG.warn("Build log is kept in memory from now: " + e.getMessage());
+        myHeapStart = myCount;
+      }
+    }
+    myHeapRecords.add(record);
+  }
+
+  private void writeToFile(@Nonnull Record record) throws IOException {
+    ByteBuffer buffer = encode(record);
+    int length = buffer.remaining();
+    MappedByteBuffer region = myRegions.isEmpty() ? null : myRegions.get(myRegions.size() - 1);
+    if (region == null || region.remaining() < length) {
+      int size = Math.max(REGION_SIZE, length);
+      region = myChannel.map(FileChannel.MapMode.READ_WRITE, myFileSize, size);
+      myFileSize += size;
+      myRegions.add(region);
+    }
+    int addressRegion = myCount / ADDRESSES_PER_REGION;
+    if (addressRegion == myAddressRegions.size()) {
+      myAddressRegions.add(myAddressChannel.map(FileChannel.MapMode.READ_WRITE, (long)addressRegion * REGION_SIZE, REGION_SIZE));
+    }
+
+    long address = ((long)(myRegions.size() - 1) << 32) | region.position();
+    myAddressRegions.get(addressRegion).putLong(myCount % ADDRESSES_PER_REGION * Long.BYTES, address);
+    region.put(buffer);
+  }
+
+  /**
+   * Record: kind, priority, range, line, column, path and text. Strings are UTF-8 with length, -1 is null.
+   */
+  @Nonnull
+  private ByteBuffer encode(@Nonnull Record record) {
+    myBuffer.clear();
+    ensureCapacity(14);
+    myBuffer.put((byte)record.myKind);
+    myBuffer.put((byte)record.myPriority);
+    myBuffer.putInt(record.myRange);
+    myBuffer.putInt(record.myLine);
+    myBuffer.putInt(record.myColumn);
+    putString(record.myPath);
+    putString(record.myText);
+    myBuffer.flip();
+    return myBuffer;
+  }
+
+  @Nonnull
+  private static Record read(@Nonnull ByteBuffer buffer) {
+    int kind = buffer.get();
+    int priority = buffer.get();
+    int range = buffer.getInt();
+    int line = buffer.getInt();
+    int column = buffer.getInt();
+    String path = getString(buffer);
+    String text = getString(buffer);
+    return new Record(kind, priority, range, text == null ? "" : text, path, line, column);
+  }
+
+  private void putString(@Nullable String text) {
+    if (text == null) {
+      ensureCapacity(4);
+      myBuffer.putInt(-1);
+      return;
+    }
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    ensureCapacity(4 + bytes.length);
+    myBuffer.putInt(bytes.length);
+    myBuffer.put(bytes);
+  }
+
+  @Nullable
+  private static String getString(@Nonnull ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private void ensureCapacity(int size) {
+    if (myBuffer.remaining() < size) {
+      ByteBuffer buffer = ByteBuffer.allocate(Math.max(myBuffer.capacity() * 2, myBuffer.position() + size));
+      myBuffer.flip();
+      buffer.put(myBuffer);
+      myBuffer = buffer;
+    }
+  }
+
+  /**
+   * Target or task: its start record and records, which are added until it finishes
+   */
+  static final class Range {
+    private final int myNumber;
+    private final int myKind;
+    private final String myName;
+    private final int myStart;
+    private final int myParent;
+    private volatile int myEnd = -1;
+
+    private Range(int number, int kind, @Nonnull String name, int start, int parent) {
+      myNumber = number;
+      myKind = kind;
+      myName = name;
+      myStart = start;
+      myParent = parent;
+    }
+
+    /**
+     * @return {@link #TARGET} or {@link #TASK}
+     */
+    int getKind() {
+      return myKind;
+    }
+
+    @Nonnull
+    String getName() {
+      return myName;
+    }
+
+    int getStart() {
+      return myStart;
+    }
+
+    /**
+     * @return index of first record after target or task, or -1 if it's running
+     */
+    int getEnd() {
+      return myEnd;
+    }
+  }
+
+  static final class Record {
+    private final int myKind;
+    private final int myPriority;
+    // number of target or task, or -1
+    private final int myRange;
+    private final String myText;
+    @Nullable
+    private final String myPath;
+    private final int myLine;
+    private final int myColumn;
+
+    private Record(int kind, int priority, int range, @Nonnull String text, @Nullable String path, int line, int column) {
+      myKind = kind;
+      myPriority = priority;
+      myRange = range;
+      myText = text;
+      myPath = path;
+      myLine = line;
+      myColumn = column;
+    }
+
+    int getKind() {
+      return myKind;
+    }
+
+    /**
+     * @return priority of Ant message, {@code org.apache.tools.ant.Project.MSG_ERR} for errors
+     */
+    int getPriority() {
+      return myPriority;
+    }
+
+    @Nonnull
+    String getText() {
+      return myText;
+    }
+
+    /**
+     * @return file of diagnostic, or null
+     */
+    @Nullable
+    String getPath() {
+      return myPath;
+    }
+
+    /**
+     * @return 1-based line of diagnostic, or -1
+     */
+    int getLine() {
+      return myLine;
+    }
+
+    /**
+     * @return 1-based column of diagnostic, or -1
+     */
+    int getColumn() {
+      return myColumn;
+    }
+  }
+}
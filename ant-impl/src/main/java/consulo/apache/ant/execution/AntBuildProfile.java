@@ -0,0 +1,234 @@
+package consulo.apache.ant.execution;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Aggregates target and task timings of one build.
+ * <p>
+ * Inclusive time is time between start and finish. Exclusive time is inclusive time without nested targets
+ * (for targets) or nested tasks (for tasks, like {@code antcall} or {@code sequential}).
+ * Open targets and tasks are matched by id, or by name if events have no id. Without ids targets and tasks are nested
+ * into innermost open one, with ids - into their parent, so targets of parallel executor are not nested into each other.
+ *
+ * @since 17/10/2026
+ */
+public class AntBuildProfile {
+  private static final int SLOWEST_TASKS = 10;
+  private static final int MAX_TARGETS = 50;
+
+  private final Map<Object, Entry> myOpenTargets = new HashMap<>();
+  private final Map<Object, Entry> myOpenTasks = new HashMap<>();
+  private final Deque<Entry> myTargetStack = new ArrayDeque<>();
+  private final Deque<Entry> myTaskStack = new ArrayDeque<>();
+
+  private final Map<String, Stat> myTargets = new HashMap<>();
+  private final Map<String, Stat> myTaskTypes = new HashMap<>();
+  // min heap by exclusive time
+  private final PriorityQueue<Entry> mySlowestTasks = new PriorityQueue<>(Comparator.comparingLong(Entry::getExclusive));
+
+  private long myStartTime = -1;
+  private long myFinishTime = -1;
+
+  public synchronized void buildStarted(long time) {
+    myStartTime = time;
+  }
+
+  public synchronized void buildFinished(long time) {
+    myFinishTime = time;
+  }
+
+  /**
+   * @param parentKey key of enclosing task, or null if events have no ids
+   */
+  public synchronized void targetStarted(@Nonnull Object key, @Nullable Object parentKey, @Nonnull String name, long time) {
+    Entry entry;
+    if (parentKey == null) {
+      entry = new Entry(name, null, time, myTargetStack.peekLast());
+    }
+    else {
+      // target of antcall
+      Entry parentTask = myOpenTasks.get(parentKey);
+      entry = new Entry(name, null, time, parentTask == null ? null : parentTask.myOwner);
+      entry.myParentTask = parentTask;
+    }
+    myOpenTargets.put(key, entry);
+    myTargetStack.addLast(entry);
+  }
+
+  public synchronized void targetFinished(@Nonnull Object key, long time) {
+    Entry entry = finish(myOpenTargets, myTargetStack, key, time);
+    if (entry != null) {
+      myTargets.computeIfAbsent(entry.myName, Stat::new).add(entry);
+    }
+  }
+
+  /**
+   * @param parentKey key of enclosing task or owning target, or null if events have no ids
+   */
+  public synchronized void taskStarted(@Nonnull Object key, @Nullable Object parentKey, @Nonnull String name, long time) {
+    Entry target;
+    Entry parent;
+    if (parentKey == null) {
+      target = myTargetStack.peekLast();
+      parent = myTaskStack.peekLast();
+    }
+    else if (myOpenTasks.containsKey(parentKey)) {
+      parent = myOpenTasks.get(parentKey);
+      target = parent.myOwner;
+    }
+    else {
+      target = myOpenTargets.get(parentKey);
+      parent = target == null ? null : target.myParentTask;
+    }
+
+    Entry entry = new Entry(name, target == null ? null : target.myName, time, parent);
+    entry.myOwner = target;
+    myOpenTasks.put(key, entry);
+    myTaskStack.addLast(entry);
+  }
+
+  public synchronized void taskFinished(@Nonnull Object key, long time) {
+    Entry entry = finish(myOpenTasks, myTaskStack, key, time);
+    if (entry == null) {
+      return;
+    }
+
+    myTaskTypes.computeIfAbsent(entry.myName, Stat::new).add(entry);
+    if (mySlowestTasks.size() < SLOWEST_TASKS) {
+      mySlowestTasks.add(entry);
+    }
+    else if (mySlowestTasks.peek().getExclusive() < entry.getExclusive()) {
+      mySlowestTasks.poll();
+      mySlowestTasks.add(entry);
+    }
+  }
+
+  @Nullable
+  private static Entry finish(Map<Object, Entry> open, Deque<Entry> stack, Object key, long time) {
+    Entry entry = open.remove(key);
+    if (entry == null) {
+      return null;
+    }
+
+    // not always last - targets and tasks of parallel builds finish in any order
+    stack.removeLastOccurrence(entry);
+    entry.myFinish = time;
+    if (entry.myParent != null) {
+      entry.myParent.myChildrenTime += entry.getInclusive();
+    }
+    entry.myParent = null;
+    entry.myOwner = null;
+    entry.myParentTask = null;
+    return entry;
+  }
+
+  public synchronized boolean isEmpty() {
+    return myTargets.isEmpty() && myTaskTypes.isEmpty();
+  }
+
+  /**
+   * @return profile report, as text table
+   */
+  @Nonnull
+  public synchronized String getReport() {
+    StringBuilder builder = new StringBuilder();
+    builder.append("Build profile");
+    if (myStartTime >= 0 && myFinishTime >= myStartTime) {
+      builder.append(", total ").append(formatTime(myFinishTime - myStartTime));
+    }
+    builder.append("\n");
+
+    List<Stat> targets = new ArrayList<>(myTargets.values());
+    targets.sort(Comparator.comparingLong((Stat stat) -> stat.myInclusive).reversed());
+    builder.append("\nTargets (inclusive / exclusive / calls):\n");
+    for (Stat stat : targets.subList(0, Math.min(targets.size(), MAX_TARGETS))) {
+      row(builder, stat.myName, formatTime(stat.myInclusive), formatTime(stat.myExclusive), String.valueOf(stat.myCount));
+    }
+    if (targets.size() > MAX_TARGETS) {
+      builder.append("  ... ").append(targets.size() - MAX_TARGETS).append(" more\n");
+    }
+
+    List<Entry> slowest = new ArrayList<>(mySlowestTasks);
+    slowest.sort(Comparator.comparingLong(Entry::getExclusive).reversed());
+    builder.append("\nSlowest tasks (exclusive / inclusive):\n");
+    for (Entry entry : slowest) {
+      String name = entry.myTarget == null ? entry.myName : entry.myName + " [" + entry.myTarget + "]";
+      row(builder, name, formatTime(entry.getExclusive()), formatTime(entry.getInclusive()));
+    }
+
+    List<Stat> types = new ArrayList<>(myTaskTypes.values());
+    types.sort(Comparator.comparingLong((Stat stat) -> stat.myExclusive).reversed());
+    builder.append("\nTasks by type (count / exclusive):\n");
+    for (Stat stat : types) {
+      row(builder, stat.myName, String.valueOf(stat.myCount), formatTime(stat.myExclusive));
+    }
+    return builder.toString();
+  }
+
+  private static void row(StringBuilder builder, String name, String... columns) {
+    builder.append("  ").append(name);
+    for (int i = name.length(); i < 40; i++) {
+      builder.append(' ');
+    }
+    for (String column : columns) {
+      builder.append(' ');
+      for (int i = column.length(); i < 12; i++) {
+        builder.append(' ');
+      }
+      builder.append(column);
+    }
+    builder.append('\n');
+  }
+
+  @Nonnull
+  static String formatTime(long nanos) {
+    return String.format(Locale.ROOT, "%.3f s", nanos / 1e9);
+  }
+
+  private static class Entry {
+    private final String myName;
+    private final String myTarget;
+    private final long myStart;
+    private Entry myParent;
+    // owning target of task
+    private Entry myOwner;
+    // task of target, started with antcall
+    private Entry myParentTask;
+    private long myFinish;
+    private long myChildrenTime;
+
+    private Entry(String name, @Nullable String target, long start, @Nullable Entry parent) {
+      myName = name;
+      myTarget = target;
+      myStart = start;
+      myParent = parent;
+    }
+
+    long getInclusive() {
+      return Math.max(0, myFinish - myStart);
+    }
+
+    long getExclusive() {
+      return Math.max(0, getInclusive() - myChildrenTime);
+    }
+  }
+
+  private static class Stat {
+    private final String myName;
+    private int myCount;
+    private long myInclusive;
+    private long myExclusive;
+
+    private Stat(String name) {
+      myName = name;
+    }
+
+    void add(Entry entry) {
+      myCount++;
+      myInclusive += entry.getInclusive();
+      myExclusive += entry.getExclusive();
+    }
+  }
+}
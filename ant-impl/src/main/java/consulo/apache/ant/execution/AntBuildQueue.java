@@ -0,0 +1,302 @@
+package consulo.apache.ant.execution;
+
+import com.intellij.lang.ant.AntBundle;
+import com.intellij.lang.ant.config.AntBuildListener;
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.application.progress.ProgressIndicator;
+import consulo.application.progress.Task;
+import consulo.ide.ServiceManager;
+import consulo.logging.Logger;
+import consulo.project.Project;
+import consulo.util.lang.StringUtil;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.File;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Schedules ant builds of project: limits count of running builds, in project and for one build file (builds of one file
+ * write to the same output directories), and merges identical pending builds into one run.
+ * <p>
+ * Pending build is shown as background task with its place in queue, cancelling the task removes build from queue.
+ *
+ * @since 17/10/2026
+ */
+@ServiceAPI(ComponentScope.PROJECT)
+@ServiceImpl
+@Singleton
+public class AntBuildQueue {
+  private static final Logger LOG = Logger.getInstance(AntBuildQueue.class);
+
+  private static final int MAX_RUNNING = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+  private static final int MAX_RUNNING_PER_BUILD_FILE = 1;
+  // ms
+  private static final long PENDING_UPDATE_INTERVAL = 200;
+
+  @Nonnull
+  public static AntBuildQueue getInstance(@Nonnull Project project) {
+    return ServiceManager.getService(project, AntBuildQueue.class);
+  }
+
+  private final Project myProject;
+  private final Object myLock = new Object();
+  // in order of submit
+  private final List<Request> myPending = new ArrayList<>();
+  private final List<Request> myRunning = new ArrayList<>();
+  private long myTotalWaitTime;
+  private int myStartedCount;
+
+  @Inject
+  public AntBuildQueue(Project project) {
+    myProject = project;
+  }
+
+  /**
+   * @param properties properties with expanded macros,
+   *                   see {@link com.intellij.lang.ant.config.execution.AntCommandLineBuilder#getExpandedProperties()}
+   * @return key of build, builds with equal keys are merged
+   */
+  @Nonnull
+  public static Object createKey(@Nonnull String buildFilePath, @Nullable String[] targets, @Nonnull List<String> properties) {
+    return List.of(buildFilePath, targets == null ? List.of() : List.of(targets), new ArrayList<>(properties));
+  }
+
+  /**
+   * Adds build to queue, or adds listener to pending build with same key. Lookup and adding are done under one lock, so
+   * pending build can't be started between them, and two identical submits can't both add new build.
+   *
+   * @param starter runs build and calls {@link Request#getListener()} when build is finished, called when build can be started
+   * @return new request, or pending one, which build is merged with
+   */
+  @Nonnull
+  public Request submit(@Nonnull Object key,
+                        @Nonnull String buildFilePath,
+                        @Nonnull AntBuildListener listener,
+                        @Nonnull Consumer<Request> starter) {
+    Request request;
+    synchronized (myLock) {
+      for (Request pending : myPending) {
+        if (pending.myKey.equals(key)) {
+          pending.myListeners.add(listener);
+          LOG.debug("Ant build is merged with pending one: " + key);
+          return pending;
+        }
+      }
+      request = new Request(key, buildFilePath, listener, starter);
+      myPending.add(request);
+    }
+    schedule();
+    if (request.isPending()) {
+      showPending(request);
+    }
+    return request;
+  }
+
+  /**
+   * Removes pending build from queue, its listeners are notified, that build is aborted
+   *
+   * @return false, if build is started already
+   */
+  public boolean cancel(@Nonnull Request request) {
+    List<AntBuildListener> listeners;
+    synchronized (myLock) {
+      if (!myPending.remove(request)) {
+        return false;
+      }
+      request.myCancelled = true;
+      listeners = new ArrayList<>(request.myListeners);
+    }
+    LOG.debug("Pending Ant build is cancelled: " + request.myKey);
+    for (AntBuildListener listener : listeners) {
+      listener.buildFinished(AntBuildListener.ABORTED, 0);
+    }
+    return true;
+  }
+
+  /**
+   * @return running builds, then pending builds in order of start
+   */
+  @Nonnull
+  public List<Request> getRequests() {
+    synchronized (myLock) {
+      List<Request> requests = new ArrayList<>(myRunning);
+      requests.addAll(myPending);
+      return requests;
+    }
+  }
+
+  public int getPendingCount() {
+    synchronized (myLock) {
+      return myPending.size();
+    }
+  }
+
+  /**
+   * @return average time in queue of started builds, ms
+   */
+  public long getAverageWaitTime() {
+    synchronized (myLock) {
+      return myStartedCount == 0 ? 0 : myTotalWaitTime / myStartedCount;
+    }
+  }
+
+  private void showPending(@Nonnull Request request) {
+    String name = new File(request.myBuildFilePath).getName();
+    new Task.Backgroundable(myProject, AntBundle.message("ant.build.queue.pending.title", name), true) {
+      @Override
+      public void run(@Nonnull ProgressIndicator indicator) {
+        indicator.setIndeterminate(true);
+        while (request.isPending()) {
+          if (indicator.isCanceled()) {
+            cancel(request);
+            return;
+          }
+          updatePending(request, indicator);
+          try {
+            Thread.sleep(PENDING_UPDATE_INTERVAL);
+          }
+          catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+    }.queue();
+  }
+
+  private void updatePending(@Nonnull Request request, @Nonnull ProgressIndicator indicator) {
+    List<Request> requests = getRequests();
+    int running = 0;
+    for (Request other : requests) {
+      if (other.isRunning()) {
+        running++;
+      }
+    }
+    int position = requests.indexOf(request) - running + 1;
+    if (position <= 0) {
+      // started or cancelled meanwhile
+      return;
+    }
+    indicator.setText(AntBundle.message("ant.build.queue.pending.text", running, position, getPendingCount()));
+    indicator.setText2(AntBundle.message("ant.build.queue.pending.details", StringUtil.formatDuration(getAverageWaitTime()),
+                                         request.getListenerCount()));
+  }
+
+  private void schedule() {
+    List<Request> started = new ArrayList<>();
+    synchronized (myLock) {
+      for (Iterator<Request> iterator = myPending.iterator(); iterator.hasNext() && myRunning.size() < MAX_RUNNING; ) {
+        Request request = iterator.next();
+        if (getRunningCount(request.myBuildFilePath) >= MAX_RUNNING_PER_BUILD_FILE) {
+          continue;
+        }
+
+        iterator.remove();
+        request.myStartTime = System.currentTimeMillis();
+        myRunning.add(request);
+        myTotalWaitTime += request.getWaitTime();
+        myStartedCount++;
+        started.add(request);
+      }
+    }
+
+    for (Request request : started) {
+      try {
+        request.myStarter.accept(request);
+      }
+      catch (Throwable e) {
+        LOG.error(e);
+        request.getListener().buildFinished(AntBuildListener.FAILED_TO_RUN, 0);
+      }
+    }
+  }
+
+  private int getRunningCount(String buildFilePath) {
+    int count = 0;
+    for (Request request : myRunning) {
+      if (request.myBuildFilePath.equals(buildFilePath)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private void finished(Request request) {
+    synchronized (myLock) {
+      if (!myRunning.remove(request)) {
+        return;
+      }
+    }
+    schedule();
+  }
+
+  public final class Request {
+    private final Object myKey;
+    private final String myBuildFilePath;
+    private final Consumer<Request> myStarter;
+    private final List<AntBuildListener> myListeners = new ArrayList<>();
+    private final long mySubmitTime = System.currentTimeMillis();
+    private volatile long myStartTime;
+    private volatile boolean myCancelled;
+
+    private Request(Object key, String buildFilePath, AntBuildListener listener, Consumer<Request> starter) {
+      myKey = key;
+      myBuildFilePath = buildFilePath;
+      myStarter = starter;
+      myListeners.add(listener);
+    }
+
+    @Nonnull
+    public String getBuildFilePath() {
+      return myBuildFilePath;
+    }
+
+    public boolean isRunning() {
+      return myStartTime != 0;
+    }
+
+    public boolean isPending() {
+      return myStartTime == 0 && !myCancelled;
+    }
+
+    /**
+     * @return count of merged builds
+     */
+    public int getListenerCount() {
+      synchronized (myLock) {
+        return myListeners.size();
+      }
+    }
+
+    /**
+     * @return time in queue, ms
+     */
+    public long getWaitTime() {
+      long startTime = myStartTime;
+      return (startTime == 0 ? System.currentTimeMillis() : startTime) - mySubmitTime;
+    }
+
+    /**
+     * @return listener, which notifies all merged builds and starts next pending build
+     */
+    @Nonnull
+    public AntBuildListener getListener() {
+      return (state, errorCount) -> {
+        List<AntBuildListener> listeners;
+        synchronized (myLock) {
+          listeners = new ArrayList<>(myListeners);
+        }
+        finished(this);
+        for (AntBuildListener listener : listeners) {
+          listener.buildFinished(state, errorCount);
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,223 @@
+package consulo.apache.ant.execution;
+
+import com.intellij.lang.ant.AntBundle;
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.container.boot.ContainerPathManager;
+import consulo.content.bundle.Sdk;
+import consulo.ide.ServiceManager;
+import consulo.java.execution.configurations.OwnJavaParameters;
+import consulo.logging.Logger;
+import consulo.process.cmd.ParametersList;
+import jakarta.inject.Singleton;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Application class data sharing archives for forked ant JVM, one per jdk, ant installation and classpath.
+ * <p>
+ * First build records loaded classes into archive ({@code -XX:ArchiveClassesAtExit}), next builds map it
+ * ({@code -XX:SharedArchiveFile}). JDK before 13 can't create dynamic archives, and runs without it.
+ * If archive does not match JVM, JVM silently ignores it ({@code -Xshare:auto}). Classpath with directories is not supported.
+ *
+ * @since 17/10/2026
+ */
+@ServiceAPI(ComponentScope.APPLICATION)
+@ServiceImpl
+@Singleton
+public class AntClassDataSharing {
+  private static final Logger LOG = Logger.getInstance(AntClassDataSharing.class);
+
+  private static final int MIN_DYNAMIC_ARCHIVE_VERSION = 13;
+  private static final int MIN_AUTO_CREATE_VERSION = 19;
+  private static final Pattern VERSION_PATTERN = Pattern.compile("(\\d+)(?:\\.(\\d+))?");
+
+  @Nonnull
+  public static AntClassDataSharing getInstance() {
+    return ServiceManager.getService(AntClassDataSharing.class);
+  }
+
+  private final Set<Path> myTrainingArchives = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Adds class data sharing options to vm parameters. Must be called when classpath and vm parameters are final
+   *
+   * @return archive of this build, or null if jdk does not support dynamic archives
+   */
+  @Nullable
+  public Archive configure(@Nonnull Sdk jdk, @Nonnull OwnJavaParameters parameters) {
+    int version = getFeatureVersion(jdk.getVersionString());
+    if (version < MIN_DYNAMIC_ARCHIVE_VERSION) {
+      return null;
+    }
+
+    for (String path : parameters.getClassPath().getPathList()) {
+      // jvm can't archive classes from directories, and fails on exit
+      if (new File(path).isDirectory()) {
+        return null;
+      }
+    }
+
+    Path directory = Path.of(ContainerPathManager.get().getSystemPath(), "ant-cds");
+    String hash = hash(jdk, parameters);
+    if (hash == null) {
+      return null;
+    }
+
+    Path archive = directory.resolve(hash + ".jsa");
+    Path training = directory.resolve(hash + ".jsa.tmp");
+    Path baseline = directory.resolve(hash + ".startup");
+
+    ParametersList vmParameters = parameters.getVMParametersList();
+    vmParameters.add("-Xshare:auto");
+    // mismatch warnings must not get into build output
+    vmParameters.add("-Xlog:cds*=off");
+
+    if (Files.isRegularFile(archive)) {
+      if (version >= MIN_AUTO_CREATE_VERSION) {
+        // jvm recreates archive itself, if it's stale
+        vmParameters.add("-XX:+AutoCreateSharedArchive");
+      }
+      vmParameters.add("-XX:SharedArchiveFile=" + archive);
+      return new Archive(archive, training, baseline, false);
+    }
+
+    if (!myTrainingArchives.add(archive)) {
+      // other build already records this archive
+      return null;
+    }
+
+    try {
+      Files.createDirectories(directory);
+    }
+    catch (IOException e) {
+      LOG.warn(e);
+      myTrainingArchives.remove(archive);
+      return null;
+    }
+    vmParameters.add("-XX:ArchiveClassesAtExit=" + training);
+    return new Archive(archive, training, baseline, true);
+  }
+
+  static int getFeatureVersion(@Nullable String versionString) {
+    if (versionString == null) {
+      return -1;
+    }
+
+    Matcher matcher = VERSION_PATTERN.matcher(versionString);
+    if (!matcher.find()) {
+      return -1;
+    }
+
+    int major = Integer.parseInt(matcher.group(1));
+    if (major == 1 && matcher.group(2) != null) {
+      // 1.8.0_292
+      return Integer.parseInt(matcher.group(2));
+    }
+    return major;
+  }
+
+  /**
+   * Hash of everything, what makes archive invalid: jdk, vm options (ant home, heap) and classpath jars
+   */
+  @Nullable
+  private static String hash(@Nonnull Sdk jdk, @Nonnull OwnJavaParameters parameters) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-1");
+      update(digest, jdk.getHomePath());
+      update(digest, jdk.getVersionString());
+      for (String parameter : parameters.getVMParametersList().getList()) {
+        update(digest, parameter);
+      }
+      for (String path : parameters.getClassPath().getPathList()) {
+        File file = new File(path);
+        update(digest, path);
+        update(digest, file.length() + ":" + file.lastModified());
+      }
+      return HexFormat.of().formatHex(digest.digest(), 0, 10);
+    }
+    catch (NoSuchAlgorithmException e) {
+      LOG.error(e);
+      return null;
+    }
+  }
+
+  private static void update(MessageDigest digest, @Nullable String value) {
+    if (value != null) {
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+    digest.update((byte)0);
+  }
+
+  public class Archive {
+    private final Path myArchive;
+    private final Path myTrainingArchive;
+    private final Path myBaselineFile;
+    private final boolean myTraining;
+
+    private Archive(Path archive, Path trainingArchive, Path baselineFile, boolean training) {
+      myArchive = archive;
+      myTrainingArchive = trainingArchive;
+      myBaselineFile = baselineFile;
+      myTraining = training;
+    }
+
+    /**
+     * Called when forked process is terminated
+     *
+     * @param startupTime JVM startup time reported by build, or -1
+     * @return report of saved startup time, or null if nothing to report
+     */
+    @Nullable
+    public String finish(boolean success, long startupTime) {
+      if (myTraining) {
+        try {
+          if (success && Files.size(myTrainingArchive) > 0) {
+            Files.move(myTrainingArchive, myArchive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (startupTime > 0) {
+              Files.writeString(myBaselineFile, String.valueOf(startupTime));
+            }
+          }
+          else {
+            Files.deleteIfExists(myTrainingArchive);
+          }
+        }
+        catch (IOException e) {
+          LOG.debug(e);
+        }
+        finally {
+          myTrainingArchives.remove(myArchive);
+        }
+        return null;
+      }
+
+      if (startupTime <= 0) {
+        return null;
+      }
+
+      long baseline;
+      try {
+        baseline = Long.parseLong(Files.readString(myBaselineFile).trim());
+      }
+      catch (IOException | NumberFormatException e) {
+        return null;
+      }
+      return AntBundle.message("ant.class.data.sharing.report", String.valueOf(startupTime), String.valueOf(baseline - startupTime));
+    }
+  }
+}
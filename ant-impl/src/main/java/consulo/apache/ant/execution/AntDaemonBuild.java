@@ -0,0 +1,68 @@
+package consulo.apache.ant.execution;
+
+import consulo.process.cmd.GeneralCommandLine;
+
+import jakarta.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Build request for warm ant daemon
+ *
+ * @since 17/10/2026
+ */
+public final class AntDaemonBuild {
+  private final String myDaemonKey;
+  private final GeneralCommandLine myDaemonCommandLine;
+  private final List<String> myArguments;
+  private final String myWorkingDirectory;
+  private final int myEventPort;
+  private final String myEventToken;
+
+  /**
+   * @param daemonCommandLine command line which starts daemon, builds with equal command lines (same jdk, ant, classpath
+   *                          and vm options) share one daemon
+   * @param arguments         ant arguments of build
+   * @param eventToken        token of event channel, see {@link AntEventReceiver#getToken()}
+   */
+  public AntDaemonBuild(@Nonnull GeneralCommandLine daemonCommandLine,
+                        @Nonnull List<String> arguments,
+                        @Nonnull String workingDirectory,
+                        int eventPort,
+                        @Nonnull String eventToken) {
+    myDaemonKey = daemonCommandLine.getCommandLineString();
+    myDaemonCommandLine = daemonCommandLine;
+    myArguments = arguments;
+    myWorkingDirectory = workingDirectory;
+    myEventPort = eventPort;
+    myEventToken = eventToken;
+  }
+
+  @Nonnull
+  public String getDaemonKey() {
+    return myDaemonKey;
+  }
+
+  @Nonnull
+  public GeneralCommandLine getDaemonCommandLine() {
+    return myDaemonCommandLine;
+  }
+
+  @Nonnull
+  public List<String> getArguments() {
+    return myArguments;
+  }
+
+  @Nonnull
+  public String getWorkingDirectory() {
+    return myWorkingDirectory;
+  }
+
+  public int getEventPort() {
+    return myEventPort;
+  }
+
+  @Nonnull
+  public String getEventToken() {
+    return myEventToken;
+  }
+}
@@ -0,0 +1,123 @@
+package consulo.apache.ant.execution;
+
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.ide.ServiceManager;
+import consulo.logging.Logger;
+import consulo.process.ExecutionException;
+import consulo.process.ProcessHandler;
+import jakarta.inject.Singleton;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pool of warm ant daemons, one per jdk, ant installation, classpath and vm options
+ *
+ * @since 17/10/2026
+ */
+@ServiceAPI(ComponentScope.APPLICATION)
+@ServiceImpl
+@Singleton
+public class AntDaemonManager {
+  private static final Logger LOG = Logger.getInstance(AntDaemonManager.class);
+
+  private static final int MAX_DAEMONS = 4;
+
+  @Nonnull
+  public static AntDaemonManager getInstance() {
+    return ServiceManager.getService(AntDaemonManager.class);
+  }
+
+  // access order, first is least recently used
+  private final Map<String, AntDaemonProcess> myDaemons = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Runs build in daemon, starts daemon if needed. Must not be called from EDT - daemon start waits for JVM.
+   *
+   * @return null if daemon is busy with other build or can't be started, build should be run in new process then
+   */
+  @Nullable
+  public ProcessHandler runBuild(@Nonnull AntDaemonBuild build) {
+    AntDaemonProcess daemon = acquire(build);
+    if (daemon == null) {
+      return null;
+    }
+
+    try {
+      return new AntDaemonProcessHandler(daemon, build, () -> release(build.getDaemonKey(), daemon));
+    }
+    catch (IOException e) {
+      LOG.warn("Can't connect to ant daemon", e);
+      daemon.destroy();
+      release(build.getDaemonKey(), daemon);
+      return null;
+    }
+  }
+
+  @Nullable
+  private AntDaemonProcess acquire(@Nonnull AntDaemonBuild build) {
+    String key = build.getDaemonKey();
+    synchronized (this) {
+      AntDaemonProcess daemon = getAlive(key);
+      if (daemon != null) {
+        return daemon.acquire() ? daemon : null;
+      }
+    }
+
+    // jvm starts for seconds, builds of other daemons should not wait for it
+    AntDaemonProcess started;
+    try {
+      started = AntDaemonProcess.start(build.getDaemonCommandLine());
+    }
+    catch (ExecutionException | IOException e) {
+      LOG.warn(e);
+      return null;
+    }
+
+    synchronized (this) {
+      AntDaemonProcess daemon = getAlive(key);
+      if (daemon != null) {
+        // other build started same daemon meanwhile
+        started.destroy();
+        return daemon.acquire() ? daemon : null;
+      }
+      evictIdle();
+      myDaemons.put(key, started);
+      return started.acquire() ? started : null;
+    }
+  }
+
+  @Nullable
+  private AntDaemonProcess getAlive(@Nonnull String key) {
+    AntDaemonProcess daemon = myDaemons.get(key);
+    if (daemon != null && !daemon.isAlive()) {
+      myDaemons.remove(key);
+      return null;
+    }
+    return daemon;
+  }
+
+  private synchronized void release(@Nonnull String key, @Nonnull AntDaemonProcess daemon) {
+    daemon.release();
+    if (!daemon.isAlive() && myDaemons.get(key) == daemon) {
+      myDaemons.remove(key);
+    }
+  }
+
+  private void evictIdle() {
+    Iterator<AntDaemonProcess> iterator = myDaemons.values().iterator();
+    while (myDaemons.size() >= MAX_DAEMONS && iterator.hasNext()) {
+      AntDaemonProcess daemon = iterator.next();
+      if (!daemon.isBusy()) {
+        daemon.destroy();
+        iterator.remove();
+      }
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package consulo.apache.ant.execution;
+
+import consulo.apache.ant.rt.common.AntDaemonProtocol;
+import consulo.application.util.concurrent.AppExecutorUtil;
+import consulo.logging.Logger;
+import consulo.process.ExecutionException;
+import consulo.process.cmd.GeneralCommandLine;
+
+import jakarta.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Running ant daemon JVM. Daemon runs one build at time.
+ * Daemon stdin is never closed by IDE: daemon exits when IDE process is gone.
+ *
+ * @since 17/10/2026
+ */
+public class AntDaemonProcess {
+  private static final Logger LOG = Logger.getInstance(AntDaemonProcess.class);
+
+  private static final long START_TIMEOUT = 30;
+
+  private final Process myProcess;
+  private final Charset myCharset;
+  private final int myPort;
+  private final AtomicBoolean myBusy = new AtomicBoolean();
+  private volatile boolean myRetired;
+
+  private AntDaemonProcess(Process process, Charset charset, int port) {
+    myProcess = process;
+    myCharset = charset;
+    myPort = port;
+  }
+
+  /**
+   * Starts daemon and waits until it is ready to accept builds
+   */
+  @Nonnull
+  public static AntDaemonProcess start(@Nonnull GeneralCommandLine commandLine) throws ExecutionException, IOException {
+    Process process = commandLine.createProcess();
+    Charset charset = commandLine.getCharset();
+
+    ScheduledFuture<?> timeout =
+      AppExecutorUtil.getAppScheduledExecutorService().schedule(process::destroy, START_TIMEOUT, TimeUnit.SECONDS);
+    try {
+      BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), charset));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith(AntDaemonProtocol.READY_PREFIX)) {
+          int port = Integer.parseInt(line.substring(AntDaemonProtocol.READY_PREFIX.length()).trim());
+          drain(reader);
+          drain(new BufferedReader(new InputStreamReader(process.getErrorStream(), charset)));
+          return new AntDaemonProcess(process, charset, port);
+        }
+        LOG.info(line);
+      }
+    }
+    catch (IOException | NumberFormatException e) {
+      process.destroy();
+      throw new IOException("Can't start ant daemon", e);
+    }
+    finally {
+      timeout.cancel(false);
+    }
+
+    process.destroy();
+    throw new IOException("Ant daemon exited on start: " + readAll(process.getErrorStream(), charset));
+  }
+
+  /**
+   * Output which is printed by daemon between builds
+   */
+  private static void drain(BufferedReader reader) {
+    AppExecutorUtil.getAppExecutorService().execute(() -> {
+      try {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          LOG.debug(line);
+        }
+      }
+      catch (IOException ignored) {
+      }
+    });
+  }
+
+  private static String readAll(InputStream stream, Charset charset) {
+    try {
+      return new String(stream.readAllBytes(), charset);
+    }
+    catch (IOException e) {
+      return e.getMessage();
+    }
+  }
+
+  public int getPort() {
+    return myPort;
+  }
+
+  @Nonnull
+  public Charset getCharset() {
+    return myCharset;
+  }
+
+  public boolean isAlive() {
+    return !myRetired && myProcess.isAlive();
+  }
+
+  /**
+   * @return false if daemon already runs build
+   */
+  public boolean acquire() {
+    return myBusy.compareAndSet(false, true);
+  }
+
+  public void release() {
+    myBusy.set(false);
+  }
+
+  public boolean isBusy() {
+    return myBusy.get();
+  }
+
+  /**
+   * Daemon reported that it exits after current build
+   */
+  public void retire() {
+    myRetired = true;
+  }
+
+  public void destroy() {
+    myRetired = true;
+    myProcess.destroy();
+  }
+}
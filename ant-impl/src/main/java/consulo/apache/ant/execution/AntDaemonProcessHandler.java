@@ -0,0 +1,174 @@
+package consulo.apache.ant.execution;
+
+import consulo.apache.ant.rt.common.AntDaemonProtocol;
+import consulo.application.util.concurrent.AppExecutorUtil;
+import consulo.logging.Logger;
+import consulo.process.ProcessHandler;
+import consulo.process.ProcessOutputTypes;
+import consulo.util.dataholder.Key;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Build, which runs inside {@link AntDaemonProcess}. Build output is received from daemon connection,
+ * and build is stopped by killing daemon.
+ *
+ * @since 17/10/2026
+ */
+public class AntDaemonProcessHandler extends ProcessHandler {
+  private static final Logger LOG = Logger.getInstance(AntDaemonProcessHandler.class);
+
+  private final AntDaemonProcess myDaemon;
+  private final Socket mySocket;
+  private final Runnable myOnFinish;
+
+  /**
+   * @param onFinish called when build is finished, before termination is notified
+   */
+  public AntDaemonProcessHandler(@Nonnull AntDaemonProcess daemon, @Nonnull AntDaemonBuild build, @Nonnull Runnable onFinish)
+    throws IOException {
+    myDaemon = daemon;
+    myOnFinish = onFinish;
+    mySocket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort());
+    try {
+      DataOutputStream output = new DataOutputStream(new BufferedOutputStream(mySocket.getOutputStream()));
+      output.writeUTF(build.getWorkingDirectory());
+      output.writeInt(build.getEventPort());
+      output.writeUTF(build.getEventToken());
+      output.writeInt(build.getArguments().size());
+      for (String argument : build.getArguments()) {
+        output.writeUTF(argument);
+      }
+      output.flush();
+    }
+    catch (IOException e) {
+      mySocket.close();
+      throw e;
+    }
+  }
+
+  @Override
+  public void startNotify() {
+    super.startNotify();
+    AppExecutorUtil.getAppExecutorService().execute(this::readOutput);
+  }
+
+  private void readOutput() {
+    int exitCode = -1;
+    try {
+      DataInputStream input = new DataInputStream(new BufferedInputStream(mySocket.getInputStream()));
+      OutputDecoder stdout = new OutputDecoder(myDaemon.getCharset());
+      OutputDecoder stderr = new OutputDecoder(myDaemon.getCharset());
+      byte[] buffer = new byte[8192];
+      while (true) {
+        byte kind = input.readByte();
+        int value = input.readInt();
+        if (kind == AntDaemonProtocol.EXIT) {
+          exitCode = value;
+          break;
+        }
+        if (kind == AntDaemonProtocol.RETIRED) {
+          myDaemon.retire();
+          continue;
+        }
+
+        if (buffer.length < value) {
+          buffer = new byte[value];
+        }
+        input.readFully(buffer, 0, value);
+        if (kind == AntDaemonProtocol.STDERR) {
+          notify(stderr.decode(buffer, value), ProcessOutputTypes.STDERR);
+        }
+        else {
+          notify(stdout.decode(buffer, value), ProcessOutputTypes.STDOUT);
+        }
+      }
+    }
+    catch (IOException e) {
+      // daemon is killed, or crashed - it can't be reused
+      LOG.debug(e);
+      myDaemon.destroy();
+    }
+    finally {
+      closeSocket();
+      myOnFinish.run();
+      notifyProcessTerminated(exitCode);
+    }
+  }
+
+  private void notify(String text, Key outputType) {
+    if (!text.isEmpty()) {
+      notifyTextAvailable(text, outputType);
+    }
+  }
+
+  private void closeSocket() {
+    try {
+      mySocket.close();
+    }
+    catch (IOException ignored) {
+    }
+  }
+
+  @Override
+  protected void destroyProcessImpl() {
+    // ant can't stop build in the middle, so daemon is killed. Output reader will notify termination
+    myDaemon.destroy();
+  }
+
+  @Override
+  protected void detachProcessImpl() {
+    myDaemon.destroy();
+  }
+
+  @Override
+  public boolean detachIsDefault() {
+    return false;
+  }
+
+  @Nullable
+  @Override
+  public OutputStream getProcessInput() {
+    return null;
+  }
+
+  /**
+   * Decodes output chunks, multibyte char may be split between chunks
+   */
+  private static class OutputDecoder {
+    private final CharsetDecoder myDecoder;
+    private ByteBuffer myBytes = ByteBuffer.allocate(0);
+
+    private OutputDecoder(Charset charset) {
+      myDecoder = charset.newDecoder()
+                         .onMalformedInput(CodingErrorAction.REPLACE)
+                         .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    String decode(byte[] bytes, int length) {
+      ByteBuffer input;
+      if (myBytes.hasRemaining()) {
+        input = ByteBuffer.allocate(myBytes.remaining() + length);
+        input.put(myBytes).put(bytes, 0, length).flip();
+      }
+      else {
+        input = ByteBuffer.wrap(bytes, 0, length);
+      }
+
+      CharBuffer output = CharBuffer.allocate((int)(input.remaining() * (double)myDecoder.maxCharsPerByte()) + 1);
+      myDecoder.decode(input, output, false);
+      // keep incomplete tail, buffer is reused by caller
+      myBytes = ByteBuffer.allocate(input.remaining()).put(input).flip();
+      return output.flip().toString();
+    }
+  }
+}
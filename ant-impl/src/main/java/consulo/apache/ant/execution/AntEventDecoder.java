@@ -0,0 +1,149 @@
+package consulo.apache.ant.execution;
+
+import consulo.apache.ant.rt.common.AntEventProtocol;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes {@link AntEventProtocol} frames, and dispatch them to {@link AntEventListener}
+ *
+ * @since 17/10/2026
+ */
+public class AntEventDecoder {
+  private final AntEventListener myListener;
+  private byte[] myBuffer = new byte[1024];
+
+  public AntEventDecoder(@Nonnull AntEventListener listener) {
+    myListener = listener;
+  }
+
+  /**
+   * Decodes all complete frames from buffer. Incomplete tail frame is left in buffer
+   */
+  public void decode(@Nonnull ByteBuffer buffer) throws IOException {
+    while (buffer.remaining() >= 4) {
+      int length = buffer.getInt(buffer.position());
+      if (length < AntEventProtocol.HEADER_SIZE || length > AntEventProtocol.MAX_FRAME_SIZE) {
+        throw new IOException("Bad frame length: " + length);
+      }
+
+      if (buffer.remaining() < 4 + length) {
+        return;
+      }
+
+      if (myBuffer.length < length) {
+        myBuffer = new byte[Math.max(length, myBuffer.length * 2)];
+      }
+      buffer.position(buffer.position() + 4);
+      buffer.get(myBuffer, 0, length);
+
+      decode(myBuffer, 0, length);
+    }
+  }
+
+  /**
+   * Decodes one frame body (without length prefix)
+   */
+  public void decode(@Nonnull byte[] frame, int offset, int length) {
+    byte type = frame[offset];
+    int id = ((frame[offset + 1] & 0xFF) << 24) |
+      ((frame[offset + 2] & 0xFF) << 16) |
+      ((frame[offset + 3] & 0xFF) << 8) |
+      (frame[offset + 4] & 0xFF);
+    int parent = ((frame[offset + 5] & 0xFF) << 24) |
+      ((frame[offset + 6] & 0xFF) << 16) |
+      ((frame[offset + 7] & 0xFF) << 8) |
+      (frame[offset + 8] & 0xFF);
+    int priority = frame[offset + 9];
+    long time = 0;
+    for (int i = 10; i < 18; i++) {
+      time = (time << 8) | (frame[offset + i] & 0xFF);
+    }
+    String text = new String(frame,
+                             offset + AntEventProtocol.HEADER_SIZE,
+                             length - AntEventProtocol.HEADER_SIZE,
+                             StandardCharsets.UTF_8);
+
+    switch (type) {
+      case AntEventProtocol.BUILD_STARTED:
+        myListener.buildStarted(time, parseStartupTime(text));
+        break;
+      case AntEventProtocol.BUILD_FINISHED:
+        myListener.buildFinished(time);
+        break;
+      case AntEventProtocol.TARGET_STARTED:
+        myListener.targetStarted(id, parent, text, time);
+        break;
+      case AntEventProtocol.TARGET_FINISHED:
+        myListener.targetFinished(id, text, time);
+        break;
+      case AntEventProtocol.TARGET_UP_TO_DATE:
+        myListener.targetUpToDate(id, text);
+        break;
+      case AntEventProtocol.TASK_STARTED:
+        myListener.taskStarted(id, parent, text, time);
+        break;
+      case AntEventProtocol.TASK_FINISHED:
+        myListener.taskFinished(id, text, time);
+        break;
+      case AntEventProtocol.MESSAGE:
+        myListener.messageLogged(id, priority, text);
+        break;
+      case AntEventProtocol.COMPILER_DIAGNOSTIC:
+        decodeCompilerDiagnostic(myListener, id, text);
+        break;
+      default:
+        // unknown event from newer ant-rt - skip it
+        break;
+    }
+  }
+
+  /**
+   * Decodes payload of {@link AntEventProtocol#COMPILER_DIAGNOSTIC}, malformed payload is ignored
+   */
+  public static void decodeCompilerDiagnostic(@Nonnull AntEventListener listener, int id, @Nonnull String text) {
+    String[] fields = new String[5];
+    int start = 0;
+    for (int i = 0; i < fields.length; i++) {
+      int end = text.indexOf('\n', start);
+      if (end < 0) {
+        return;
+      }
+      fields[i] = text.substring(start, end);
+      start = end + 1;
+    }
+
+    int line;
+    int column;
+    try {
+      line = Integer.parseInt(fields[1]);
+      column = Integer.parseInt(fields[2]);
+    }
+    catch (NumberFormatException e) {
+      return;
+    }
+    listener.compilerDiagnostic(id,
+                                fields[0],
+                                fields[4].isEmpty() ? null : fields[4],
+                                line,
+                                column,
+                                fields[3].isEmpty() ? null : fields[3],
+                                text.substring(start));
+  }
+
+  static long parseStartupTime(@Nullable String text) {
+    if (text == null) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(text);
+    }
+    catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package consulo.apache.ant.execution;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+/**
+ * Structured build events from forked ant process, independent of transport format.
+ * Event time is {@link System#nanoTime()} of forked process, or of IDE if transport does not provide it
+ *
+ * @since 17/10/2026
+ */
+public interface AntEventListener {
+  /**
+   * Id of target or task when transport does not provide it. Targets and tasks are matched by name in that case
+   */
+  int NO_ID = 0;
+
+  /**
+   * @param startupTime time from JVM start to build start in milliseconds, or -1 if transport does not provide it
+   */
+  void buildStarted(long time, long startupTime);
+
+  void buildFinished(long time);
+
+  /**
+   * @param parentId id of enclosing task (like {@code antcall}), or {@link #NO_ID}
+   */
+  void targetStarted(int id, int parentId, @Nonnull String name, long time);
+
+  void targetFinished(int id, @Nonnull String name, long time);
+
+  /**
+   * Target is skipped by target cache: its inputs and outputs are not changed since last run
+   */
+  void targetUpToDate(int id, @Nonnull String name);
+
+  /**
+   * @param parentId id of enclosing task or owning target, or {@link #NO_ID}
+   */
+  void taskStarted(int id, int parentId, @Nonnull String name, long time);
+
+  void taskFinished(int id, @Nonnull String name, long time);
+
+  /**
+   * @param id id of target or task, which logged message. Targets run in parallel, so it's not always last started one
+   */
+  void messageLogged(int id, int priority, @Nonnull String text);
+
+  /**
+   * Diagnostic of javac task, reported by compiler as is
+   *
+   * @param kind   name of {@code javax.tools.Diagnostic.Kind}
+   * @param line   1-based line, or -1
+   * @param column 1-based column, or -1
+   */
+  void compilerDiagnostic(int id,
+                          @Nonnull String kind,
+                          @Nullable String file,
+                          int line,
+                          int column,
+                          @Nullable String code,
+                          @Nonnull String message);
+}
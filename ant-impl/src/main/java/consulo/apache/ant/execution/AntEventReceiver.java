@@ -0,0 +1,215 @@
+package consulo.apache.ant.execution;
+
+import consulo.apache.ant.rt.common.AntEventProtocol;
+import consulo.application.util.concurrent.AppExecutorUtil;
+import consulo.logging.Logger;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dedicated loopback channel for structured build events. Forked process connects to it from {@code AntMain2}, so
+ * process stdout/stderr contains only user output. Connection is trusted only if it starts with
+ * {@link AntEventProtocol#HANDSHAKE} frame, which carries random token of build; other connections are dropped.
+ *
+ * @since 17/10/2026
+ */
+public class AntEventReceiver {
+  private static final Logger LOG = Logger.getInstance(AntEventReceiver.class);
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int TOKEN_SIZE = 16;
+  private static final int HANDSHAKE_TIMEOUT = 10000;
+  private static final SecureRandom ourRandom = new SecureRandom();
+
+  private final ServerSocketChannel myServerChannel;
+  private final String myToken;
+  private final CountDownLatch myFinished = new CountDownLatch(1);
+  private volatile boolean myConnected;
+  private volatile SocketChannel myChannel;
+
+  private AntEventReceiver(ServerSocketChannel serverChannel) {
+    myServerChannel = serverChannel;
+    byte[] token = new byte[TOKEN_SIZE];
+    ourRandom.nextBytes(token);
+    myToken = HexFormat.of().formatHex(token);
+  }
+
+  @Nullable
+  public static AntEventReceiver open() {
+    try {
+      ServerSocketChannel channel = ServerSocketChannel.open();
+      channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1);
+      return new AntEventReceiver(channel);
+    }
+    catch (IOException e) {
+      LOG.warn("Can't open event channel, fallback to service messages", e);
+      return null;
+    }
+  }
+
+  public int getPort() {
+    return myServerChannel.socket().getLocalPort();
+  }
+
+  /**
+   * @return token, which process sends in {@link AntEventProtocol#HANDSHAKE} frame
+   */
+  @Nonnull
+  public String getToken() {
+    return myToken;
+  }
+
+  /**
+   * @return true if process connected to channel, and all events are going through it
+   */
+  public boolean isConnected() {
+    return myConnected;
+  }
+
+  public void start(@Nonnull AntEventListener listener) {
+    AppExecutorUtil.getAppExecutorService().execute(() -> {
+      try (SocketChannel channel = acceptTrusted()) {
+        myChannel = channel;
+        myConnected = true;
+        read(channel, new AntEventDecoder(listener));
+      }
+      catch (IOException e) {
+        if (myServerChannel.isOpen()) {
+          LOG.warn(e);
+        }
+      }
+      finally {
+        myChannel = null;
+        myFinished.countDown();
+      }
+    });
+  }
+
+  /**
+   * Accepts connections, until one starts with handshake of this build
+   */
+  @Nonnull
+  private SocketChannel acceptTrusted() throws IOException {
+    while (true) {
+      SocketChannel channel = myServerChannel.accept();
+      try {
+        if (readHandshake(channel)) {
+          return channel;
+        }
+        LOG.warn("Event channel dropped connection without valid handshake");
+      }
+      catch (IOException e) {
+        LOG.debug(e);
+      }
+      channel.close();
+    }
+  }
+
+  private boolean readHandshake(@Nonnull SocketChannel channel) throws IOException {
+    Socket socket = channel.socket();
+    // stream of socket adapter honours timeout, so silent connection does not hold the channel
+    socket.setSoTimeout(HANDSHAKE_TIMEOUT);
+    DataInputStream input = new DataInputStream(socket.getInputStream());
+    int length = input.readInt();
+    if (length < AntEventProtocol.HEADER_SIZE || length > AntEventProtocol.HEADER_SIZE + 2 * TOKEN_SIZE) {
+      return false;
+    }
+    byte[] frame = new byte[length];
+    input.readFully(frame);
+    socket.setSoTimeout(0);
+
+    byte[] token = Arrays.copyOfRange(frame, AntEventProtocol.HEADER_SIZE, length);
+    return frame[0] == AntEventProtocol.HANDSHAKE && MessageDigest.isEqual(token, myToken.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Asks running process to send messages up to {@code level} priority
+   *
+   * @return false if process is not connected
+   */
+  public boolean sendOutputLevel(int level) {
+    SocketChannel channel = myChannel;
+    if (channel == null) {
+      return false;
+    }
+
+    ByteBuffer frame = ByteBuffer.allocate(4 + AntEventProtocol.HEADER_SIZE);
+    frame.putInt(AntEventProtocol.HEADER_SIZE);
+    frame.put(AntEventProtocol.SET_OUTPUT_LEVEL);
+    frame.putInt(AntEventProtocol.NO_ID);
+    frame.putInt(AntEventProtocol.NO_ID);
+    frame.put((byte)level);
+    frame.putLong(System.nanoTime());
+    frame.flip();
+
+    try {
+      synchronized (this) {
+        while (frame.hasRemaining()) {
+          channel.write(frame);
+        }
+      }
+      return true;
+    }
+    catch (IOException e) {
+      LOG.debug(e);
+      return false;
+    }
+  }
+
+  private static void read(SocketChannel channel, AntEventDecoder decoder) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    while (channel.read(buffer) >= 0) {
+      buffer.flip();
+      decoder.decode(buffer);
+      buffer.compact();
+
+      if (!buffer.hasRemaining()) {
+        // frame bigger than buffer
+        ByteBuffer bigger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+        buffer.flip();
+        bigger.put(buffer);
+        buffer = bigger;
+      }
+    }
+  }
+
+  /**
+   * Waits until all events, which process sent before exit, are dispatched.
+   * Returns immediately if process never connected (logger fallback to service messages)
+   */
+  public void waitFor(long timeout, @Nonnull TimeUnit unit) {
+    if (!myConnected) {
+      return;
+    }
+
+    try {
+      myFinished.await(timeout, unit);
+    }
+    catch (InterruptedException ignored) {
+    }
+  }
+
+  public void close() {
+    try {
+      myServerChannel.close();
+    }
+    catch (IOException ignored) {
+    }
+  }
+}
@@ -0,0 +1,278 @@
+package consulo.apache.ant.execution;
+
+import consulo.logging.Logger;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Inverted index of {@link AntBuildLog}: word of message text to records, which have it. Words are case-insensitive.
+ * Whole words and their first {@link #PREFIX_LENGTH} characters are keys, so words are found by prefix too.
+ * <p>
+ * Keys are hashed to {@link #BUCKETS} buckets, and records of bucket are kept in ascending order in blocks of
+ * memory-mapped file next to log. Only heads of buckets stay on heap, however many words log has. Keys of bucket
+ * collide, so records, which are found, are candidates and their text is checked by {@link AntLogQuery}.
+ *
+ * @since 17/10/2026
+ */
+final class AntLogIndex {
+  private static final Logger LOG = Logger.getInstance(AntLogIndex.class);
+
+  static final int MIN_WORD_LENGTH = 2;
+  static final int PREFIX_LENGTH = 3;
+
+  private static final int BUCKETS = 1 << 14;
+  private static final int PREFIX_SEED = 0x9E3779B9;
+  // block: number of next block, number of records, records
+  private static final int BLOCK_INTS = 16;
+  private static final int BLOCK_CAPACITY = BLOCK_INTS - 2;
+  private static final int BLOCK_SIZE = BLOCK_INTS * 4;
+  private static final int REGION_BLOCKS = 64 * 1024;
+
+  private File myFile;
+  private FileChannel myChannel;
+  private final List<MappedByteBuffer> myRegions = new ArrayList<>();
+  private int myBlockCount;
+
+  // blocks are numbered from 1, 0 is no block
+  private final int[] myFirstBlocks = new int[BUCKETS];
+  private final int[] myLastBlocks = new int[BUCKETS];
+  private final int[] myCounts = new int[BUCKETS];
+  private int[] myKeys = new int[64];
+
+  /**
+   * Creates file of index, index is not available, if it can't be created
+   */
+  void open(@Nonnull File directory) {
+    try {
+      myFile = File.createTempFile("build", ".idx", directory);
+      myChannel = new RandomAccessFile(myFile, "rw").getChannel();
+    }
+    catch (IOException e) {
+      LOG.warn("Build log is not indexed: " + e.getMessage());
+      close();
+    }
+  }
+
+  /**
+   * @return false if index is not written, records should be scanned
+   */
+  boolean isAvailable() {
+    return myChannel != null;
+  }
+
+  void add(int record, @Nonnull CharSequence text) {
+    if (myChannel == null) {
+      return;
+    }
+    int count = collectKeys(text);
+    try {
+      for (int i = 0; i < count; i++) {
+        append(myKeys[i], record);
+      }
+    }
+    catch (IOException e) {
+      LOG.warn("Build log is not indexed from now: " + e.getMessage());
+      close();
+    }
+  }
+
+  /**
+   * @param keys keys of words, see {@link #wordKey} and {@link #prefixKey}
+   * @return ascending records, which have all keys, or null if index is not available
+   */
+  @Nullable
+  int[] find(@Nonnull int[] keys) {
+    if (myChannel == null) {
+      return null;
+    }
+    // the shortest list first, others only filter it
+    Integer[] order = new Integer[keys.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = keys[i];
+    }
+    Arrays.sort(order, (bucket1, bucket2) -> Integer.compare(myCounts[bucket1], myCounts[bucket2]));
+
+    int[] result = null;
+    int size = 0;
+    for (int bucket : order) {
+      if (result == null) {
+        result = new int[myCounts[bucket]];
+        size = readBucket(bucket, result, result.length);
+      }
+      else {
+        size = retain(bucket, result, size);
+      }
+      if (size == 0) {
+        break;
+      }
+    }
+    return result == null ? new int[0] : Arrays.copyOf(result, size);
+  }
+
+  /**
+   * Deletes file of index
+   */
+  void close() {
+    myRegions.clear();
+    myBlockCount = 0;
+    Arrays.fill(myFirstBlocks, 0);
+    Arrays.fill(myLastBlocks, 0);
+    Arrays.fill(myCounts, 0);
+    if (myChannel != null) {
+      try {
+        myChannel.close();
+      }
+      catch (IOException e) {
+        LOG.debug(e);
+      }
+      myChannel = null;
+    }
+    if (myFile != null) {
+      if (!myFile.delete()) {
+        myFile.deleteOnExit();
+      }
+      myFile = null;
+    }
+  }
+
+  static int wordKey(@Nonnull CharSequence text, int start, int end) {
+    return hash(text, start, end, 0);
+  }
+
+  static int prefixKey(@Nonnull CharSequence text, int start) {
+    return hash(text, start, start + PREFIX_LENGTH, PREFIX_SEED);
+  }
+
+  static boolean isWordChar(char c) {
+    return Character.isLetterOrDigit(c) || c == '_';
+  }
+
+  private static int hash(@Nonnull CharSequence text, int start, int end, int seed) {
+    int hash = seed;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + Character.toLowerCase(text.charAt(i));
+    }
+    hash ^= hash >>> 16;
+    return hash & (BUCKETS - 1);
+  }
+
+  /**
+   * Puts sorted distinct keys of text to {@link #myKeys}
+   *
+   * @return number of keys
+   */
+  private int collectKeys(@Nonnull CharSequence text) {
+    int count = 0;
+    int length = text.length();
+    int i = 0;
+    while (i < length) {
+      if (!isWordChar(text.charAt(i))) {
+        i++;
+        continue;
+      }
+      int start = i;
+      while (i < length && isWordChar(text.charAt(i))) {
+        i++;
+      }
+      if (count + 2 > myKeys.length) {
+        myKeys = Arrays.copyOf(myKeys, myKeys.length * 2);
+      }
+      if (i - start >= MIN_WORD_LENGTH) {
+        myKeys[count++] = wordKey(text, start, i);
+      }
+      if (i - start >= PREFIX_LENGTH) {
+        myKeys[count++] = prefixKey(text, start);
+      }
+    }
+    Arrays.sort(myKeys, 0, count);
+    int distinct = 0;
+    for (int j = 0; j < count; j++) {
+      if (distinct == 0 || myKeys[distinct - 1] != myKeys[j]) {
+        myKeys[distinct++] = myKeys[j];
+      }
+    }
+    return distinct;
+  }
+
+  private void append(int bucket, int record) throws IOException {
+    int block = myLastBlocks[bucket];
+    if (block == 0 || getInt(block, 1) == BLOCK_CAPACITY) {
+      int newBlock = allocateBlock();
+      if (block == 0) {
+        myFirstBlocks[bucket] = newBlock;
+      }
+      else {
+        putInt(block, 0, newBlock);
+      }
+      myLastBlocks[bucket] = block = newBlock;
+    }
+    int count = getInt(block, 1);
+    putInt(block, 2 + count, record);
+    putInt(block, 1, count + 1);
+    myCounts[bucket]++;
+  }
+
+  private int allocateBlock() throws IOException {
+    if (myBlockCount == myRegions.size() * REGION_BLOCKS) {
+      long size = (long)REGION_BLOCKS * BLOCK_SIZE;
+      // new region of file is filled by zeros
+      myRegions.add(myChannel.map(FileChannel.MapMode.READ_WRITE, myRegions.size() * size, size));
+    }
+    return ++myBlockCount;
+  }
+
+  /**
+   * @return number of records, which are read
+   */
+  private int readBucket(int bucket, @Nonnull int[] records, int limit) {
+    int size = 0;
+    for (int block = myFirstBlocks[bucket]; block != 0 && size < limit; block = getInt(block, 0)) {
+      int count = Math.min(getInt(block, 1), limit - size);
+      for (int i = 0; i < count; i++) {
+        records[size++] = getInt(block, 2 + i);
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Keeps records, which bucket has, both lists are ascending
+   *
+   * @return number of records, which are kept
+   */
+  private int retain(int bucket, @Nonnull int[] records, int size) {
+    int kept = 0;
+    int i = 0;
+    for (int block = myFirstBlocks[bucket]; block != 0 && i < size; block = getInt(block, 0)) {
+      int count = getInt(block, 1);
+      for (int j = 0; j < count && i < size; j++) {
+        int record = getInt(block, 2 + j);
+        while (i < size && records[i] < record) {
+          i++;
+        }
+        if (i < size && records[i] == record) {
+          records[kept++] = record;
+          i++;
+        }
+      }
+    }
+    return kept;
+  }
+
+  private int getInt(int block, int index) {
+    return myRegions.get((block - 1) / REGION_BLOCKS).getInt(((block - 1) % REGION_BLOCKS) * BLOCK_SIZE + index * 4);
+  }
+
+  private void putInt(int block, int index, int value) {
+    myRegions.get((block - 1) / REGION_BLOCKS).putInt(((block - 1) % REGION_BLOCKS) * BLOCK_SIZE + index * 4, value);
+  }
+}
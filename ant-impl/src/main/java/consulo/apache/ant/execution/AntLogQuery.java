@@ -0,0 +1,193 @@
+package consulo.apache.ant.execution;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Query of build log search. Text query is found case-insensitively at start of word, so its words are keys of
+ * {@link AntLogIndex}: whole words, and prefix of the last one, which may be typed yet. Regular expression is found
+ * anywhere, its keys are words, which any match has for sure, or none, then all records are checked.
+ *
+ * @since 17/10/2026
+ */
+final class AntLogQuery {
+  private final String myText;
+  @Nullable
+  private final Pattern myPattern;
+  private final int[] myKeys;
+
+  private AntLogQuery(@Nonnull String text, @Nullable Pattern pattern, @Nonnull int[] keys) {
+    myText = text;
+    myPattern = pattern;
+    myKeys = keys;
+  }
+
+  @Nonnull
+  static AntLogQuery text(@Nonnull String text) {
+    int[] keys = new int[text.length()];
+    int count = 0;
+    int i = 0;
+    while (i < text.length()) {
+      if (!AntLogIndex.isWordChar(text.charAt(i))) {
+        i++;
+        continue;
+      }
+      int start = i;
+      while (i < text.length() && AntLogIndex.isWordChar(text.charAt(i))) {
+        i++;
+      }
+      // the first word starts a word of message, and next ones follow separators
+      if (i < text.length()) {
+        if (i - start >= AntLogIndex.MIN_WORD_LENGTH) {
+          keys[count++] = AntLogIndex.wordKey(text, start, i);
+        }
+      }
+      else if (i - start >= AntLogIndex.PREFIX_LENGTH) {
+        keys[count++] = AntLogIndex.prefixKey(text, start);
+      }
+    }
+    return new AntLogQuery(text, null, Arrays.copyOf(keys, count));
+  }
+
+  @Nonnull
+  static AntLogQuery regex(@Nonnull String regex) throws PatternSyntaxException {
+    return new AntLogQuery(regex, Pattern.compile(regex), getRequiredKeys(regex));
+  }
+
+  /**
+   * @return keys, which text of found record has, empty if any record may be found
+   */
+  @Nonnull
+  int[] getKeys() {
+    return myKeys;
+  }
+
+  boolean matches(@Nonnull String text) {
+    if (myPattern != null) {
+      return myPattern.matcher(text).find();
+    }
+    boolean wordStart = !myText.isEmpty() && AntLogIndex.isWordChar(myText.charAt(0));
+    for (int i = 0; i + myText.length() <= text.length(); i++) {
+      if (wordStart && i > 0 && AntLogIndex.isWordChar(text.charAt(i - 1))) {
+        continue;
+      }
+      if (startsWith(text, i)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean startsWith(@Nonnull String text, int offset) {
+    for (int i = 0; i < myText.length(); i++) {
+      if (Character.toLowerCase(text.charAt(offset + i)) != Character.toLowerCase(myText.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Literal words of pattern out of groups and classes, which are not optional or repeated and start a word of text:
+   * they follow {@code \b}, {@code ^} or literal separator. Word, which also ends before {@code \b}, {@code $} or
+   * literal separator, is key, otherwise its prefix is. Pattern with alternatives has no keys.
+   */
+  @Nonnull
+  private static int[] getRequiredKeys(@Nonnull String regex) {
+    if (regex.indexOf('|') >= 0 || regex.contains("\\Q")) {
+      return new int[0];
+    }
+    int[] keys = new int[regex.length()];
+    int count = 0;
+    int depth = 0;
+    boolean boundary = false;
+    int i = 0;
+    while (i < regex.length()) {
+      char c = regex.charAt(i);
+      if (AntLogIndex.isWordChar(c) && depth == 0) {
+        int start = i;
+        while (i < regex.length() && AntLogIndex.isWordChar(regex.charAt(i))) {
+          i++;
+        }
+        char next = i < regex.length() ? regex.charAt(i) : 0;
+        boolean repeated = next == '?' || next == '*' || next == '+' || next == '{';
+        if (boundary && !repeated) {
+          if (isRequiredBoundaryAt(regex, i) && i - start >= AntLogIndex.MIN_WORD_LENGTH) {
+            keys[count++] = AntLogIndex.wordKey(regex, start, i);
+          }
+          else if (i - start >= AntLogIndex.PREFIX_LENGTH) {
+            keys[count++] = AntLogIndex.prefixKey(regex, start);
+          }
+        }
+        boundary = false;
+        continue;
+      }
+      boundary = isBoundaryAt(regex, i);
+      if (c == '\\') {
+        i += 2;
+      }
+      else if (c == '[') {
+        i = skipClass(regex, i);
+      }
+      else {
+        if (c == '(') {
+          depth++;
+        }
+        else if (c == ')') {
+          depth = Math.max(0, depth - 1);
+        }
+        i++;
+      }
+      if (depth > 0 || (i < regex.length() && "?*+{".indexOf(regex.charAt(i)) >= 0)) {
+        // separator is optional
+        boundary = false;
+      }
+    }
+    return Arrays.copyOf(keys, count);
+  }
+
+  private static boolean isRequiredBoundaryAt(@Nonnull String regex, int offset) {
+    if (!isBoundaryAt(regex, offset)) {
+      return false;
+    }
+    int next = offset + (regex.charAt(offset) == '\\' ? 2 : 1);
+    return next >= regex.length() || "?*+{".indexOf(regex.charAt(next)) < 0;
+  }
+
+  /**
+   * @return true if pattern at offset is {@code \b}, {@code ^}, {@code $} or literal separator
+   */
+  private static boolean isBoundaryAt(@Nonnull String regex, int offset) {
+    if (offset >= regex.length()) {
+      return false;
+    }
+    char c = regex.charAt(offset);
+    if (c == '\\') {
+      if (offset + 1 >= regex.length()) {
+        return false;
+      }
+      char escaped = regex.charAt(offset + 1);
+      return escaped == 'b' || !Character.isLetterOrDigit(escaped) && escaped != '_';
+    }
+    return c == '^' || c == '$' || !AntLogIndex.isWordChar(c) && ".[](){}?*+|".indexOf(c) < 0;
+  }
+
+  private static int skipClass(@Nonnull String regex, int offset) {
+    int i = offset + 1;
+    if (i < regex.length() && regex.charAt(i) == '^') {
+      i++;
+    }
+    // ']' right after '[' is literal
+    if (i < regex.length() && regex.charAt(i) == ']') {
+      i++;
+    }
+    while (i < regex.length() && regex.charAt(i) != ']') {
+      i += regex.charAt(i) == '\\' ? 2 : 1;
+    }
+    return i + 1;
+  }
+}
@@ -0,0 +1,306 @@
+package consulo.apache.ant.execution;
+
+import com.intellij.lang.ant.AntBundle;
+import consulo.application.ApplicationManager;
+import consulo.disposer.Disposable;
+import consulo.disposer.Disposer;
+import consulo.execution.ui.console.ConsoleView;
+import consulo.execution.ui.console.ConsoleViewContentType;
+import consulo.execution.ui.console.TextConsoleBuilder;
+import consulo.execution.ui.console.TextConsoleBuilderFactory;
+import consulo.navigation.OpenFileDescriptorFactory;
+import consulo.project.Project;
+import consulo.ui.ex.SimpleTextAttributes;
+import consulo.ui.ex.awt.ColoredListCellRenderer;
+import consulo.ui.ex.awt.JBList;
+import consulo.ui.ex.awt.JBSplitter;
+import consulo.ui.ex.awt.ScrollPaneFactory;
+import consulo.ui.ex.awt.event.DocumentAdapter;
+import consulo.ui.ex.awt.event.DoubleClickListener;
+import consulo.ui.ex.awt.util.Alarm;
+import consulo.virtualFileSystem.LocalFileSystem;
+import consulo.virtualFileSystem.VirtualFile;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Search field over {@link AntBuildLog}. Records are searched on pooled thread, while query is typed, and are listed
+ * with targets and tasks, which contain them. Chosen diagnostic is opened in editor. Console of build view can't be
+ * scrolled from outside, so other chosen record is shown in console below the list, with records around it.
+ *
+ * @since 17/10/2026
+ */
+final class AntLogSearchPanel extends JPanel implements Disposable {
+  private static final int LIMIT = 1000;
+  private static final int DELAY = 100;
+  private static final int MAX_TEXT_LENGTH = 200;
+  // records before and after chosen one, which console shows
+  private static final int CONTEXT = 200;
+
+  private final Project myProject;
+  private final AntBuildLog myLog;
+  private final JTextField myField = new JTextField(40);
+  private final JCheckBox myRegexBox = new JCheckBox(AntBundle.message("ant.execution.search.regex"));
+  private final JLabel myStatus = new JLabel();
+  private final DefaultListModel<Match> myModel = new DefaultListModel<>();
+  private final JBList myList = new JBList(myModel);
+  private final Alarm myAlarm;
+  private final ConsoleView myConsole;
+  // search, which number is not current, is cancelled
+  private final AtomicInteger mySearchNumber = new AtomicInteger();
+
+  AntLogSearchPanel(@Nonnull Project project, @Nonnull AntBuildLog log) {
+    super(new BorderLayout(0, 2));
+    myProject = project;
+    myLog = log;
+    myAlarm = new Alarm(Alarm.ThreadToUse.SWING_THREAD, this);
+    TextConsoleBuilder builder = TextConsoleBuilderFactory.getInstance().createBuilder(project);
+    builder.setViewer(true);
+    myConsole = builder.getConsole();
+    Disposer.register(this, myConsole);
+
+    JPanel optionsPanel = new JPanel(new BorderLayout(4, 0));
+    optionsPanel.add(myRegexBox, BorderLayout.WEST);
+    optionsPanel.add(myStatus, BorderLayout.EAST);
+    JPanel fieldPanel = new JPanel(new BorderLayout(4, 0));
+    fieldPanel.add(myField, BorderLayout.CENTER);
+    fieldPanel.add(optionsPanel, BorderLayout.EAST);
+    add(fieldPanel, BorderLayout.NORTH);
+
+    myList.setVisibleRowCount(12);
+    myList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+    myList.setCellRenderer(new ColoredListCellRenderer() {
+      @Override
+      protected void customizeCellRenderer(JList list, Object value, int index, boolean selected, boolean hasFocus) {
+        Match match = (Match)value;
+        if (!match.myContext.isEmpty()) {
+          append(match.myContext + "  ", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+        }
+        append(match.myText, match.myPath != null ? SimpleTextAttributes.LINK_ATTRIBUTES : SimpleTextAttributes.REGULAR_ATTRIBUTES);
+      }
+    });
+    JBSplitter splitter = new JBSplitter(true, 0.4f);
+    splitter.setFirstComponent(ScrollPaneFactory.createScrollPane(myList));
+    splitter.setSecondComponent(myConsole.getComponent());
+    add(splitter, BorderLayout.CENTER);
+
+    myField.getDocument().addDocumentListener(new DocumentAdapter() {
+      @Override
+      protected void textChanged(DocumentEvent e) {
+        refresh();
+      }
+    });
+    myRegexBox.addActionListener(e -> refresh());
+    myField.addKeyListener(new KeyAdapter() {
+      @Override
+      public void keyPressed(KeyEvent e) {
+        if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+          navigate(myList.getSelectedIndex() >= 0 ? myList.getSelectedIndex() : 0);
+          e.consume();
+        }
+        else if (e.getKeyCode() == KeyEvent.VK_DOWN && !myModel.isEmpty()) {
+          myList.setSelectedIndex(0);
+          myList.requestFocus();
+          e.consume();
+        }
+      }
+    });
+    myList.addKeyListener(new KeyAdapter() {
+      @Override
+      public void keyPressed(KeyEvent e) {
+        if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+          navigate(myList.getSelectedIndex());
+          e.consume();
+        }
+      }
+    });
+    new DoubleClickListener() {
+      @Override
+      protected boolean onDoubleClick(MouseEvent e) {
+        int index = myList.locationToIndex(e.getPoint());
+        if (index < 0) {
+          return false;
+        }
+        navigate(index);
+        return true;
+      }
+    }.installOn(myList);
+  }
+
+  @Nonnull
+  JComponent getPreferredFocusedComponent() {
+    return myField;
+  }
+
+  @Override
+  public void dispose() {
+    // running search stops
+    mySearchNumber.incrementAndGet();
+  }
+
+  private void refresh() {
+    mySearchNumber.incrementAndGet();
+    myAlarm.cancelAllRequests();
+    myAlarm.addRequest(this::search, DELAY);
+  }
+
+  private void search() {
+    String text = myField.getText();
+    if (text.trim().isEmpty()) {
+      showMatches(new ArrayList<>(), "");
+      return;
+    }
+
+    AntLogQuery query;
+    try {
+      query = myRegexBox.isSelected() ? AntLogQuery.regex(text) : AntLogQuery.text(text);
+    }
+    catch (PatternSyntaxException e) {
+      showMatches(new ArrayList<>(), AntBundle.message("ant.execution.search.invalid.regex"));
+      return;
+    }
+
+    int number = mySearchNumber.get();
+    BooleanSupplier cancelled = () -> mySearchNumber.get() != number;
+    myStatus.setText(AntBundle.message("ant.execution.search.progress"));
+    ApplicationManager.getApplication().executeOnPooledThread(() -> {
+      int[] records = myLog.search(query, LIMIT + 1, cancelled);
+      List<Match> matches = new ArrayList<>();
+      for (int i = 0; i < records.length && i < LIMIT && !cancelled.getAsBoolean(); i++) {
+        Match match = createMatch(records[i]);
+        if (match == null) {
+          // log is deleted
+          break;
+        }
+        matches.add(match);
+      }
+      String status = records.length > LIMIT
+                      ? AntBundle.message("ant.execution.search.too.many.matches", LIMIT)
+                      : AntBundle.message("ant.execution.search.matches", records.length);
+      SwingUtilities.invokeLater(() -> {
+        if (!cancelled.getAsBoolean()) {
+          showMatches(matches, status);
+        }
+      });
+    });
+  }
+
+  @Nullable
+  private Match createMatch(int index) {
+    try {
+      AntBuildLog.Record record = myLog.get(index);
+      StringBuilder context = new StringBuilder();
+      for (AntBuildLog.Range range : myLog.getEnclosingRanges(record)) {
+        context.append(context.length() == 0 ? "" : " > ").append(range.getName());
+      }
+      String text = record.getText().trim();
+      int end = text.indexOf('\n');
+      if (end >= 0) {
+        text = text.substring(0, end).trim();
+      }
+      if (text.length() > MAX_TEXT_LENGTH) {
+        text = text.substring(0, MAX_TEXT_LENGTH) + "...";
+      }
+      return new Match(index, context.toString(), text, record.getPath(), record.getLine(), record.getColumn());
+    }
+    catch (IndexOutOfBoundsException e) {
+      return null;
+    }
+  }
+
+  private void showMatches(@Nonnull List<Match> matches, @Nonnull String status) {
+    myModel.clear();
+    for (Match match : matches) {
+      myModel.addElement(match);
+    }
+    myStatus.setText(status);
+  }
+
+  private void navigate(int index) {
+    if (index < 0 || index >= myModel.size()) {
+      return;
+    }
+    Match match = myModel.get(index);
+    VirtualFile file = match.myPath == null ? null : LocalFileSystem.getInstance().findFileByPath(match.myPath);
+    if (file == null) {
+      showInConsole(match.myRecord);
+    }
+    else {
+      OpenFileDescriptorFactory.getInstance(myProject)
+                               .builder(file)
+                               .line(Math.max(0, match.myLine - 1))
+                               .column(Math.max(0, match.myColumn - 1))
+                               .build()
+                               .navigate(true);
+    }
+  }
+
+  private void showInConsole(int index) {
+    myConsole.clear();
+    int offset = 0;
+    try {
+      int end = Math.min(myLog.size(), index + CONTEXT + 1);
+      for (int i = Math.max(0, index - CONTEXT); i < end; i++) {
+        AntBuildLog.Record record = myLog.get(i);
+        String text = switch (record.getKind()) {
+          case AntBuildLog.TARGET -> "target: " + record.getText();
+          case AntBuildLog.TASK -> "task: " + record.getText();
+          default -> record.getText();
+        };
+        if (!text.endsWith("\n")) {
+          text += "\n";
+        }
+        if (i < index) {
+          offset += text.length();
+        }
+        myConsole.print(text, getContentType(record));
+      }
+    }
+    catch (IndexOutOfBoundsException e) {
+      // log is deleted
+      return;
+    }
+    myConsole.scrollTo(offset);
+  }
+
+  @Nonnull
+  private static ConsoleViewContentType getContentType(@Nonnull AntBuildLog.Record record) {
+    if (record.getKind() == AntBuildLog.TARGET || record.getKind() == AntBuildLog.TASK) {
+      return ConsoleViewContentType.SYSTEM_OUTPUT;
+    }
+    // org.apache.tools.ant.Project.MSG_ERR
+    return record.getPriority() == 0 ? ConsoleViewContentType.ERROR_OUTPUT : ConsoleViewContentType.NORMAL_OUTPUT;
+  }
+
+  private static final class Match {
+    private final int myRecord;
+    // targets and tasks
+    private final String myContext;
+    private final String myText;
+    @Nullable
+    private final String myPath;
+    private final int myLine;
+    private final int myColumn;
+
+    private Match(int record, @Nonnull String context, @Nonnull String text, @Nullable String path, int line, int column) {
+      myRecord = record;
+      myContext = context;
+      myText = text;
+      myPath = path;
+      myLine = line;
+      myColumn = column;
+    }
+  }
+}
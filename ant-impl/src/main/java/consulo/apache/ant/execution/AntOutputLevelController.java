@@ -0,0 +1,40 @@
+package consulo.apache.ant.execution;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Message output level of running build. Shared between build view (which shows messages up to level),
+ * and forked process, which does not send messages above it.
+ *
+ * @since 17/10/2026
+ */
+public class AntOutputLevelController {
+  // org.apache.tools.ant.Project.MSG_INFO, MSG_VERBOSE
+  public static final int MSG_INFO = 2;
+  public static final int MSG_VERBOSE = 3;
+
+  @Nullable
+  private final AntEventReceiver myEventReceiver;
+  private volatile int myLevel = MSG_INFO;
+
+  public AntOutputLevelController(@Nullable AntEventReceiver eventReceiver) {
+    myEventReceiver = eventReceiver;
+  }
+
+  public int getLevel() {
+    return myLevel;
+  }
+
+  /**
+   * Level can be changed only if process sends events through {@link AntEventReceiver}, for service messages it is fixed
+   */
+  public boolean isChangeable() {
+    return myEventReceiver != null && myEventReceiver.isConnected();
+  }
+
+  public void setLevel(int level) {
+    if (myEventReceiver != null && myEventReceiver.sendOutputLevel(level)) {
+      myLevel = level;
+    }
+  }
+}
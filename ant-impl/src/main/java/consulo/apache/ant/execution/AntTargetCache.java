@@ -0,0 +1,285 @@
+package consulo.apache.ant.execution;
+
+import consulo.annotation.component.ComponentScope;
+import consulo.annotation.component.ServiceAPI;
+import consulo.annotation.component.ServiceImpl;
+import consulo.apache.ant.rt.common.TargetCacheLayout;
+import consulo.application.ApplicationManager;
+import consulo.container.boot.ContainerPathManager;
+import consulo.ide.ServiceManager;
+import consulo.logging.Logger;
+import consulo.util.io.FileUtil;
+import jakarta.inject.Singleton;
+
+import jakarta.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * IDE side of target cache, see {@link TargetCacheLayout}. Forked ant only adds archived outputs, IDE shows them
+ * and evicts least recently used entries, when archive is bigger than {@link #MAX_SIZE}.
+ *
+ * @since 17/10/2026
+ */
+@ServiceAPI(ComponentScope.APPLICATION)
+@ServiceImpl
+@Singleton
+public class AntTargetCache {
+  private static final Logger LOG = Logger.getInstance(AntTargetCache.class);
+
+  private static final long MAX_SIZE = 2L * 1024 * 1024 * 1024;
+  // object without entry can be written by running build right now
+  private static final long ORPHAN_OBJECT_AGE = TimeUnit.HOURS.toMillis(1);
+
+  @Nonnull
+  public static AntTargetCache getInstance() {
+    return ServiceManager.getService(AntTargetCache.class);
+  }
+
+  private final AtomicBoolean myEvictionScheduled = new AtomicBoolean();
+
+  @Nonnull
+  public File getDirectory() {
+    return new File(ContainerPathManager.get().getSystemPath(), "ant-target-cache");
+  }
+
+  /**
+   * @return valid entries, most recently used first
+   */
+  @Nonnull
+  public synchronized List<Entry> getEntries() {
+    Map<String, Long> objects = getObjects();
+    List<Entry> entries = new ArrayList<>();
+    for (Path file : list(getDirectory().toPath().resolve(TargetCacheLayout.ENTRIES_DIR))) {
+      Entry entry = readEntry(file, objects);
+      if (entry != null) {
+        entries.add(entry);
+      }
+    }
+    entries.sort(Comparator.comparingLong(Entry::getLastUsed).reversed());
+    return entries;
+  }
+
+  /**
+   * @return size of all archived files
+   */
+  public synchronized long getSize() {
+    long size = 0;
+    for (long objectSize : getObjects().values()) {
+      size += objectSize;
+    }
+    return size;
+  }
+
+  public synchronized void remove(@Nonnull Collection<Entry> entries) {
+    for (Entry entry : entries) {
+      delete(entry.myFile);
+    }
+    collectGarbage();
+  }
+
+  public synchronized void clear() {
+    FileUtil.delete(getDirectory());
+  }
+
+  /**
+   * Evicts least recently used entries in background
+   */
+  public void evictLater() {
+    if (!getDirectory().isDirectory() || !myEvictionScheduled.compareAndSet(false, true)) {
+      return;
+    }
+
+    ApplicationManager.getApplication().executeOnPooledThread(() -> {
+      try {
+        evict(MAX_SIZE);
+      }
+      finally {
+        myEvictionScheduled.set(false);
+      }
+    });
+  }
+
+  synchronized void evict(long maxSize) {
+    Map<String, Long> objects = getObjects();
+    long size = 0;
+    for (long objectSize : objects.values()) {
+      size += objectSize;
+    }
+    if (size <= maxSize) {
+      return;
+    }
+
+    List<Entry> entries = getEntries();
+    Map<String, Integer> references = new HashMap<>();
+    for (Entry entry : entries) {
+      for (String object : entry.myObjects) {
+        references.merge(object, 1, Integer::sum);
+      }
+    }
+
+    // least recently used first
+    for (int i = entries.size() - 1; i >= 0 && size > maxSize; i--) {
+      Entry entry = entries.get(i);
+      delete(entry.myFile);
+      for (String object : entry.myObjects) {
+        if (references.merge(object, -1, Integer::sum) == 0) {
+          size -= objects.getOrDefault(object, 0L);
+        }
+      }
+    }
+    collectGarbage();
+  }
+
+  /**
+   * Deletes objects, which are not referenced by entries
+   */
+  private void collectGarbage() {
+    Set<String> referenced = new HashSet<>();
+    for (Entry entry : getEntries()) {
+      referenced.addAll(entry.myObjects);
+    }
+
+    long now = System.currentTimeMillis();
+    for (Path bucket : list(getDirectory().toPath().resolve(TargetCacheLayout.OBJECTS_DIR))) {
+      for (Path object : list(bucket)) {
+        if (!referenced.contains(object.getFileName().toString()) && now - object.toFile().lastModified() > ORPHAN_OBJECT_AGE) {
+          delete(object);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return size of objects by hash
+   */
+  @Nonnull
+  private Map<String, Long> getObjects() {
+    Map<String, Long> objects = new HashMap<>();
+    for (Path bucket : list(getDirectory().toPath().resolve(TargetCacheLayout.OBJECTS_DIR))) {
+      for (Path object : list(bucket)) {
+        String name = object.getFileName().toString();
+        if (!name.endsWith(".tmp")) {
+          objects.put(name, object.toFile().length());
+        }
+      }
+    }
+    return objects;
+  }
+
+  private static Entry readEntry(@Nonnull Path file, @Nonnull Map<String, Long> objects) {
+    String fileName = file.getFileName().toString();
+    if (!fileName.endsWith(TargetCacheLayout.ENTRY_EXTENSION)) {
+      return null;
+    }
+
+    Properties properties = new Properties();
+    try (InputStream stream = Files.newInputStream(file)) {
+      properties.load(stream);
+    }
+    catch (IOException | IllegalArgumentException e) {
+      return null;
+    }
+
+    Set<String> entryObjects = new HashSet<>();
+    int files = 0;
+    long size = 0;
+    for (String key : properties.stringPropertyNames()) {
+      if (key.startsWith(TargetCacheLayout.OUTPUT_PREFIX)) {
+        String object = properties.getProperty(key);
+        Long objectSize = objects.get(object);
+        if (objectSize == null) {
+          // ant will not restore it
+          return null;
+        }
+        files++;
+        if (entryObjects.add(object)) {
+          size += objectSize;
+        }
+      }
+    }
+
+    return new Entry(file,
+                     properties.getProperty(TargetCacheLayout.BUILD_FILE_KEY, ""),
+                     properties.getProperty(TargetCacheLayout.TARGET_KEY, ""),
+                     file.toFile().lastModified(),
+                     files,
+                     size,
+                     entryObjects);
+  }
+
+  @Nonnull
+  private static List<Path> list(@Nonnull Path directory) {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> stream = Files.list(directory)) {
+      return stream.toList();
+    }
+    catch (IOException e) {
+      LOG.warn(e);
+      return List.of();
+    }
+  }
+
+  private static void delete(@Nonnull Path file) {
+    try {
+      Files.deleteIfExists(file);
+    }
+    catch (IOException e) {
+      LOG.warn(e);
+    }
+  }
+
+  public static final class Entry {
+    private final Path myFile;
+    private final String myBuildFile;
+    private final String myTarget;
+    private final long myLastUsed;
+    private final int myFileCount;
+    private final long mySize;
+    private final Set<String> myObjects;
+
+    private Entry(Path file, String buildFile, String target, long lastUsed, int fileCount, long size, Set<String> objects) {
+      myFile = file;
+      myBuildFile = buildFile;
+      myTarget = target;
+      myLastUsed = lastUsed;
+      myFileCount = fileCount;
+      mySize = size;
+      myObjects = objects;
+    }
+
+    @Nonnull
+    public String getBuildFile() {
+      return myBuildFile;
+    }
+
+    @Nonnull
+    public String getTarget() {
+      return myTarget;
+    }
+
+    public long getLastUsed() {
+      return myLastUsed;
+    }
+
+    public int getFileCount() {
+      return myFileCount;
+    }
+
+    /**
+     * @return size of archived files, files shared with other entries are counted too
+     */
+    public long getSize() {
+      return mySize;
+    }
+  }
+}
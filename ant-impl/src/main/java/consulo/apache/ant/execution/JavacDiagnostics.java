@@ -0,0 +1,278 @@
+package consulo.apache.ant.execution;
+
+import com.intellij.java.compiler.impl.OutputParser;
+import com.intellij.java.compiler.impl.javaCompiler.FileObject;
+import com.intellij.java.compiler.impl.javaCompiler.javac.JavacOutputParser;
+import consulo.application.ApplicationManager;
+import consulo.application.util.concurrent.AppExecutorUtil;
+import consulo.build.ui.FilePosition;
+import consulo.build.ui.event.MessageEvent;
+import consulo.build.ui.progress.BuildProgress;
+import consulo.build.ui.progress.BuildProgressDescriptor;
+import consulo.compiler.CompilerMessageCategory;
+import consulo.project.Project;
+import consulo.virtualFileSystem.VirtualFile;
+import consulo.virtualFileSystem.VirtualFileManager;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diagnostics of one javac task. Structured diagnostics of compiler adapter are reported as is, text output is parsed
+ * while task is running: diagnostic is parsed, when its caret line is received.
+ * Diagnostics are reported in batches: files of batch are resolved in one read action. Batch is reported, when it's full,
+ * or {@link #BATCH_DELAY} after its first diagnostic, even if task prints nothing more.
+ *
+ * @since 17/10/2026
+ */
+final class JavacDiagnostics {
+  private static final int BATCH_SIZE = 100;
+  // ms
+  private static final long BATCH_DELAY = 200;
+
+  private final BuildProgress<BuildProgressDescriptor> myProgress;
+  // url -> file, shared by tasks of build
+  private final Map<String, VirtualFile> myFiles;
+  // urls, which have no file, shared by tasks of build
+  private final Set<String> myMissingFiles;
+  private final OutputParser myParser;
+  private final Callback myCallback = new Callback();
+
+  // lines of diagnostics, which are not parsed yet
+  private final List<String> myLines = new ArrayList<>();
+  private final List<Diagnostic> myBatch = new ArrayList<>();
+  @Nullable
+  private ScheduledFuture<?> myScheduledFlush;
+  private int myErrorsCount;
+
+  JavacDiagnostics(@Nonnull Project project,
+                   @Nonnull BuildProgress<BuildProgressDescriptor> progress,
+                   @Nonnull Map<String, VirtualFile> files,
+                   @Nonnull Set<String> missingFiles) {
+    myProgress = progress;
+    myFiles = files;
+    myMissingFiles = missingFiles;
+    myParser = new JavacOutputParser(project);
+  }
+
+  synchronized void addLine(@Nonnull String line) {
+    myLines.add(line);
+    if (isCaretLine(line)) {
+      // diagnostic is complete
+      parse();
+    }
+
+    if (myBatch.size() >= BATCH_SIZE) {
+      flush();
+    }
+  }
+
+  /**
+   * Adds diagnostic of {@code javax.tools} compiler
+   *
+   * @param kind   name of {@code javax.tools.Diagnostic.Kind}
+   * @param line   1-based line, or -1
+   * @param column 1-based column, or -1
+   */
+  synchronized void add(@Nonnull String kind, @Nullable String path, int line, int column, @Nonnull String message) {
+    CompilerMessageCategory category = switch (kind) {
+      case "ERROR" -> CompilerMessageCategory.ERROR;
+      case "WARNING", "MANDATORY_WARNING" -> CompilerMessageCategory.WARNING;
+      default -> CompilerMessageCategory.INFORMATION;
+    };
+    Diagnostic diagnostic = new Diagnostic(category, message, null, Math.max(line, 1), Math.max(column - 1, 0));
+    diagnostic.myPath = path;
+    add(diagnostic);
+
+    if (myBatch.size() >= BATCH_SIZE || category == CompilerMessageCategory.ERROR) {
+      flush();
+    }
+  }
+
+  private void add(@Nonnull Diagnostic diagnostic) {
+    if (myBatch.isEmpty()) {
+      myScheduledFlush = AppExecutorUtil.getAppScheduledExecutorService().schedule(this::scheduledFlush, BATCH_DELAY,
+                                                                                   TimeUnit.MILLISECONDS);
+    }
+    myBatch.add(diagnostic);
+    if (diagnostic.myCategory == CompilerMessageCategory.ERROR) {
+      myErrorsCount++;
+    }
+  }
+
+  /**
+   * Parses and reports rest of output
+   *
+   * @return count of errors of task
+   */
+  synchronized int finish() {
+    parse();
+    flush();
+    return myErrorsCount;
+  }
+
+  private void parse() {
+    myCallback.myIndex = -1;
+    try {
+      while (myParser.processMessageLine(myCallback)) {
+      }
+    }
+    catch (Exception e) {
+      //ignore
+    }
+    myLines.clear();
+  }
+
+  private synchronized void scheduledFlush() {
+    myScheduledFlush = null;
+    flush();
+  }
+
+  private void flush() {
+    if (myScheduledFlush != null) {
+      myScheduledFlush.cancel(false);
+      myScheduledFlush = null;
+    }
+    if (myBatch.isEmpty()) {
+      return;
+    }
+
+    List<Diagnostic> batch = new ArrayList<>(myBatch);
+    myBatch.clear();
+
+    if (batch.stream().anyMatch(diagnostic -> diagnostic.myUrl != null)) {
+      resolveFiles(batch);
+    }
+
+    for (Diagnostic diagnostic : batch) {
+      if (diagnostic.myPath != null) {
+        int line = diagnostic.myLine - 1;
+        myProgress.fileMessage(diagnostic.myMessage,
+                               diagnostic.myMessage,
+                               convertCategory(diagnostic.myCategory),
+                               new FilePosition(new File(diagnostic.myPath), line, diagnostic.myColumn, line, diagnostic.myColumn));
+      }
+      else {
+        myProgress.message(diagnostic.myMessage, diagnostic.myMessage, convertCategory(diagnostic.myCategory), null);
+      }
+    }
+  }
+
+  private void resolveFiles(List<Diagnostic> batch) {
+    ApplicationManager.getApplication().runReadAction(() -> {
+      VirtualFileManager fileManager = VirtualFileManager.getInstance();
+      for (Diagnostic diagnostic : batch) {
+        if (diagnostic.myUrl == null) {
+          continue;
+        }
+        VirtualFile file = myFiles.get(diagnostic.myUrl);
+        if (file == null && !myMissingFiles.contains(diagnostic.myUrl)) {
+          file = fileManager.findFileByUrl(diagnostic.myUrl);
+          if (file != null) {
+            myFiles.put(diagnostic.myUrl, file);
+          }
+          else {
+            myMissingFiles.add(diagnostic.myUrl);
+          }
+        }
+        diagnostic.myPath = file == null ? null : file.getCanonicalPath();
+      }
+    });
+  }
+
+  private static boolean isCaretLine(String line) {
+    int end = line.length();
+    while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+      end--;
+    }
+    if (end == 0 || line.charAt(end - 1) != '^') {
+      return false;
+    }
+    for (int i = 0; i < end - 1; i++) {
+      if (!Character.isWhitespace(line.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static MessageEvent.Kind convertCategory(CompilerMessageCategory category) {
+    if (CompilerMessageCategory.ERROR.equals(category)) {
+      return MessageEvent.Kind.ERROR;
+    }
+    if (CompilerMessageCategory.WARNING.equals(category)) {
+      return MessageEvent.Kind.WARNING;
+    }
+    return MessageEvent.Kind.INFO;
+  }
+
+  private static final class Diagnostic {
+    private final CompilerMessageCategory myCategory;
+    private final String myMessage;
+    private final String myUrl;
+    private final int myLine;
+    private final int myColumn;
+    private String myPath;
+
+    private Diagnostic(CompilerMessageCategory category, String message, String url, int line, int column) {
+      myCategory = category;
+      myMessage = message;
+      myUrl = url;
+      myLine = line;
+      myColumn = column;
+    }
+  }
+
+  private final class Callback implements OutputParser.Callback {
+    private int myIndex = -1;
+
+    @Override
+    @Nullable
+    public String getCurrentLine() {
+      if (myIndex < 0 || myIndex >= myLines.size()) {
+        return null;
+      }
+      return myLines.get(myIndex);
+    }
+
+    @Override
+    public String getNextLine() {
+      final int size = myLines.size();
+      final int next = Math.min(myIndex + 1, size);
+      myIndex = next;
+      if (next >= size) {
+        return null;
+      }
+      return myLines.get(next);
+    }
+
+    @Override
+    public void pushBack(String line) {
+      myIndex--;
+    }
+
+    @Override
+    public void message(CompilerMessageCategory category, String message, String url, int lineNum, int columnNum) {
+      add(new Diagnostic(category, message, url, lineNum, columnNum));
+    }
+
+    @Override
+    public void setProgressText(String text) {
+    }
+
+    @Override
+    public void fileProcessed(String path) {
+    }
+
+    @Override
+    public void fileGenerated(FileObject path) {
+    }
+  }
+}
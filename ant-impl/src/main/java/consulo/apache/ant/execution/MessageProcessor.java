@@ -1,14 +1,19 @@
 package consulo.apache.ant.execution;
 
-import jetbrains.buildServer.messages.serviceMessages.ServiceMessage;
-
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import java.util.Map;
 
 /**
  * @author VISTALL
  * @since 08/05/2023
  */
 public interface MessageProcessor {
-  void onMessage(@Nullable ServiceMessage message, @Nonnull String text);
+  /**
+   * @param argument   value of {@code ##teamcity[name 'argument']} message, or null
+   * @param attributes attributes of {@code ##teamcity[name key='value']} message, valid only during call
+   */
+  void onServiceMessage(@Nonnull String name, @Nullable String argument, @Nonnull Map<String, String> attributes);
+
+  void onText(@Nonnull String text);
 }
@@ -1,27 +1,19 @@
 package consulo.apache.ant.execution;
 
-import com.intellij.java.compiler.impl.javaCompiler.FileObject;
-import com.intellij.java.compiler.impl.javaCompiler.javac.JavacOutputParser;
-import consulo.application.ApplicationManager;
-import consulo.build.ui.FilePosition;
-import consulo.build.ui.event.MessageEvent;
+import com.intellij.lang.ant.AntBundle;
+import consulo.apache.ant.rt.common.AntLoggerConstants;
 import consulo.build.ui.progress.BuildProgress;
 import consulo.build.ui.progress.BuildProgressDescriptor;
-import consulo.compiler.CompilerMessageCategory;
 import consulo.logging.Logger;
 import consulo.process.ProcessHandler;
 import consulo.project.Project;
 import consulo.virtualFileSystem.VirtualFile;
-import consulo.virtualFileSystem.VirtualFileManager;
-import jetbrains.buildServer.messages.serviceMessages.*;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
-import java.io.File;
-import java.util.ArrayList;
 import java.util.Deque;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -30,37 +22,70 @@ import java.util.concurrent.atomic.AtomicInteger;
  * @author VISTALL
  * @since 08/05/2023
  */
-public class OutputBuilder implements OutputWatcher, MessageProcessor {
+public class OutputBuilder implements OutputWatcher, MessageProcessor, AntEventListener {
   private static final String JAVAC = "javac";
   private static final String ECHO = "echo";
+  private static final String TARGET = "target:";
+  private static final String TASK = "task:";
+  // diagnostics, which come outside of task
+  private static final String BUILD = "build";
+
+  // org.apache.tools.ant.Project.MSG_ERR, MSG_WARN, MSG_INFO
+  private static final int MSG_ERR = 0;
+  private static final int MSG_WARN = 1;
+  private static final int MSG_INFO = 2;
 
   private static final Logger LOG = Logger.getInstance(OutputBuilder.class);
   private final Project myProject;
   private final BuildProgress<BuildProgressDescriptor> myBuildProgress;
   private final ProcessHandler myProcessHandler;
+  private final AntOutputLevelController myOutputLevel;
+  private final AntBuildLog myLog;
+  private final OutputFlushScheduler myOutput;
   private boolean isStopped;
-  private List<String> myJavacMessages;
+  // by key of running task, see myTasks
+  private final Map<Object, JavacDiagnostics> myJavacMessages = new ConcurrentHashMap<>();
+  // url -> file of javac diagnostics
+  private final Map<String, VirtualFile> myJavacFiles = new ConcurrentHashMap<>();
+  private final Set<String> myMissingJavacFiles = ConcurrentHashMap.newKeySet();
   private boolean myIsEcho;
-  private int myErrorsCount;
+  private final AtomicInteger myErrorsCount = new AtomicInteger();
+  private volatile long myStartupTime = -1;
+  private final AntBuildProfile myProfile = new AntBuildProfile();
+  // by kind and name of target or task, when events have no ids
+  private final Map<String, AtomicInteger> myNameDepths = new ConcurrentHashMap<>();
 
-  private Map<String, BuildProgress<BuildProgressDescriptor>> myTargets = new ConcurrentHashMap<>();
-  private Map<String, BuildProgress<BuildProgressDescriptor>> myTasks = new ConcurrentHashMap<>();
+  private Map<Object, BuildProgress<BuildProgressDescriptor>> myTargets = new ConcurrentHashMap<>();
+  private Map<Object, BuildProgress<BuildProgressDescriptor>> myTasks = new ConcurrentHashMap<>();
+  private Set<Object> myUpToDateTargets = ConcurrentHashMap.newKeySet();
 
   private Deque<BuildProgress<BuildProgressDescriptor>> myQueue = new ConcurrentLinkedDeque<>();
+  // keys of running tasks, in order of start
+  private Deque<Object> myRunningTasks = new ConcurrentLinkedDeque<>();
 
   public OutputBuilder(Project project,
                        ProcessHandler processHandler,
-                       BuildProgress<BuildProgressDescriptor> buildProgress) {
+                       BuildProgress<BuildProgressDescriptor> buildProgress,
+                       AntOutputLevelController outputLevel,
+                       AntBuildLog log) {
     myProject = project;
     myProcessHandler = processHandler;
     myBuildProgress = buildProgress;
+    myOutputLevel = outputLevel;
+    myLog = log;
+    myOutput = new OutputFlushScheduler(buildProgress);
 
     myQueue.add(myBuildProgress);
   }
 
   @Override
   public int getErrorsCount() {
-    return myErrorsCount;
+    return myErrorsCount.get();
+  }
+
+  @Override
+  public long getStartupTime() {
+    return myStartupTime;
   }
 
   @Override
@@ -80,108 +105,56 @@ public class OutputBuilder implements OutputWatcher, MessageProcessor {
 
   @Override
   public final void setStopped(boolean stopped) {
+    if (stopped) {
+      // build progress is finished next
+      myOutput.flush();
+    }
     isStopped = stopped;
   }
 
   @Override
-  public void onMessage(@Nullable ServiceMessage serviceMessage, @Nonnull String text) {
+  public void onText(@Nonnull String text) {
     if (LOG.isDebugEnabled()) {
       LOG.debug(text);
     }
 
-    BuildProgress<BuildProgressDescriptor> current = myQueue.getLast();
+    myLog.add(AntBuildLog.OUTPUT, MSG_INFO, null, text);
+    myOutput.output(myQueue.getLast(), text + "\n", true);
+  }
 
-    if (serviceMessage == null) {
-      current.output(text + "\n", true);
-      return;
+  @Override
+  public void onServiceMessage(@Nonnull String name, @Nullable String argument, @Nonnull Map<String, String> attributes) {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(name + " " + (argument != null ? argument : attributes));
     }
 
-    if (serviceMessage instanceof BuildStatus buildStatus) {
-      boolean started = "buildStarted".equals(buildStatus.getStatus());
-
-      if (started) {
-        // we already started it
-      }
-      else {
-        if (myErrorsCount > 0) {
-          myBuildProgress.fail();
+    switch (name) {
+      case "buildStatus" -> {
+        if ("buildStarted".equals(attributes.get("status"))) {
+          buildStarted(System.nanoTime(), AntEventDecoder.parseStartupTime(attributes.get(AntLoggerConstants.UPTIME_ATTRIBUTE)));
         }
         else {
-          myBuildProgress.finish();
+          buildFinished(System.nanoTime());
         }
       }
-    }
-    else if (serviceMessage instanceof ProgressStart progressStart) {
-      BuildProgress<BuildProgressDescriptor> childProgress = current.startChildProgress("target: " + progressStart.getArgument());
-      myTargets.put(progressStart.getArgument(), childProgress);
-      myQueue.addLast(childProgress);
-    }
-    else if (serviceMessage instanceof TestStarted started) {
-      String taskName = started.getTestName();
-      BuildProgress<BuildProgressDescriptor> childProgress = current.startChildProgress("task: " + taskName);
-      myTasks.put(taskName, childProgress);
-      myQueue.addLast(childProgress);
-
-      if (JAVAC.equals(taskName)) {
-        myJavacMessages = new ArrayList<>();
-      }
-    }
-    else if (serviceMessage instanceof TestFinished testFinished) {
-      String taskName = testFinished.getTestName();
-      BuildProgress<BuildProgressDescriptor> childProgress = myTasks.remove(taskName);
-      final List<String> javacMessages = myJavacMessages;
-      myJavacMessages = null;
-      int currentErrors = processJavacMessages(javacMessages, myQueue.getLast(), myProject);
-      myErrorsCount += currentErrors;
-      myIsEcho = false;
-
-      if (childProgress != null) {
-        if (currentErrors > 0) {
-          childProgress.fail();
-        }
-        else {
-          childProgress.finish();
-        }
-
-        myQueue.remove(childProgress);
-      }
-    }
-    else if (serviceMessage instanceof ProgressFinish progressFinish) {
-      BuildProgress<BuildProgressDescriptor> childProgress = myTargets.remove(progressFinish.getArgument());
-      final List<String> javacMessages = myJavacMessages;
-      myJavacMessages = null;
-      int currentErrors = processJavacMessages(javacMessages, myQueue.getLast(), myProject);
-      myErrorsCount += currentErrors;
-      myIsEcho = false;
-
-      if (childProgress != null) {
-        if (currentErrors > 0) {
-          childProgress.fail();
+      case "progressStart" -> targetStarted(NO_ID, NO_ID, argument, System.nanoTime());
+      case "testStarted" -> taskStarted(NO_ID, NO_ID, attributes.get("name"), System.nanoTime());
+      case "testFinished" -> taskFinished(NO_ID, attributes.get("name"), System.nanoTime());
+      case "progressFinish" -> targetFinished(NO_ID, argument, System.nanoTime());
+      case "message" -> {
+        int priority;
+        try {
+          priority = Integer.parseInt(attributes.get("status"));
         }
-        else {
-          childProgress.finish();
+        catch (NumberFormatException e) {
+          return;
         }
-
-        myQueue.remove(childProgress);
+        messageLogged(NO_ID, priority, attributes.get("text"));
       }
-    }
-    else if (serviceMessage instanceof Message messageObj) {
-      String messageText = messageObj.getText();
-      // org.apache.tools.ant.Project.MSG_ERR = 0
-      boolean isError = "0".equals(messageObj.getStatus());
-      boolean isWarn = "1".equals(messageObj.getStatus());
-      boolean isInfo = "2".equals(messageObj.getStatus());
-
-      if (isError || isWarn || isInfo) {
-        if (myJavacMessages != null) {
-          myJavacMessages.add(messageText);
-        }
-        else {
-          myQueue.getLast().output(messageText + "\n", !isError);
-
-          if (isError) {
-            myErrorsCount++;
-          }
+      case AntLoggerConstants.TARGET_UP_TO_DATE_MESSAGE -> targetUpToDate(NO_ID, argument);
+      case AntLoggerConstants.COMPILER_DIAGNOSTIC_MESSAGE -> {
+        if (argument != null) {
+          AntEventDecoder.decodeCompilerDiagnostic(this, NO_ID, argument);
         }
       }
     }
@@ -242,110 +215,223 @@ public class OutputBuilder implements OutputWatcher, MessageProcessor {
 //    }
   }
 
-  private static int processJavacMessages(List<String> javacMessages,
-                                          BuildProgress<BuildProgressDescriptor> buildProgress,
-                                          Project project) {
-    if (javacMessages == null) return 0;
+  /**
+   * Raw process output, when build events are delivered through {@link AntEventReceiver}
+   */
+  public void onOutput(@Nonnull String text, boolean stdOut) {
+    myLog.add(AntBuildLog.OUTPUT, stdOut ? MSG_INFO : MSG_ERR, null, text);
+    myOutput.output(myQueue.getLast(), text, stdOut);
+  }
 
-    com.intellij.java.compiler.impl.OutputParser outputParser = new JavacOutputParser(project);
+  @Override
+  public void buildStarted(long time, long startupTime) {
+    // we already started it
+    myStartupTime = startupTime;
+    myProfile.buildStarted(time);
+  }
 
+  @Override
+  public void buildFinished(long time) {
+    myOutput.flush();
+    for (Object key : myJavacMessages.keySet()) {
+      JavacDiagnostics diagnostics = myJavacMessages.remove(key);
+      if (diagnostics != null) {
+        myErrorsCount.addAndGet(diagnostics.finish());
+      }
+    }
+    myProfile.buildFinished(time);
+    if (!myProfile.isEmpty()) {
+      BuildProgress<BuildProgressDescriptor> profileProgress = myBuildProgress.startChildProgress(AntBundle.message("ant.build.profile.node.name"));
+      profileProgress.output(myProfile.getReport(), true);
+      profileProgress.finish();
+    }
 
-    AtomicInteger errorCount = new AtomicInteger();
-    com.intellij.java.compiler.impl.OutputParser.Callback callback = new com.intellij.java.compiler.impl.OutputParser.Callback() {
-      private int myIndex = -1;
+    if (myErrorsCount.get() > 0) {
+      myBuildProgress.fail();
+    }
+    else {
+      myBuildProgress.finish();
+    }
+  }
 
-      @Override
-      @Nullable
-      public String getCurrentLine() {
-        if (javacMessages == null || myIndex >= javacMessages.size()) {
-          return null;
-        }
-        return javacMessages.get(myIndex);
-      }
+  @Override
+  public void targetStarted(int id, int parentId, @Nonnull String name, long time) {
+    myOutput.flush();
+    BuildProgress<BuildProgressDescriptor> childProgress = getProgress(parentId).startChildProgress("target: " + name);
+    Object key = startKey(id, TARGET, name);
+    myTargets.put(key, childProgress);
+    myProfile.targetStarted(key, parentKey(id, parentId), name, time);
+    myLog.startRange(key, parentKey(id, parentId), AntBuildLog.TARGET, name);
+    myQueue.addLast(childProgress);
+  }
 
-      @Override
-      public String getNextLine() {
-        final int size = javacMessages.size();
-        final int next = Math.min(myIndex + 1, javacMessages.size());
-        myIndex = next;
-        if (next >= size) {
-          return null;
-        }
-        return javacMessages.get(next);
-      }
+  @Override
+  public void targetFinished(int id, @Nonnull String name, long time) {
+    Object key = finishKey(id, TARGET, name);
+    myProfile.targetFinished(key, time);
+    myLog.finishRange(key);
+    finishChild(myTargets.remove(key), null, myUpToDateTargets.remove(key));
+  }
+
+  @Override
+  public void targetUpToDate(int id, @Nonnull String name) {
+    myUpToDateTargets.add(runningKey(id, TARGET, name));
+  }
 
-      @Override
-      public void pushBack(String line) {
-        myIndex--;
+  @Override
+  public void taskStarted(int id, int parentId, @Nonnull String name, long time) {
+    myOutput.flush();
+    BuildProgress<BuildProgressDescriptor> childProgress = getProgress(parentId).startChildProgress("task: " + name);
+    Object key = startKey(id, TASK, name);
+    myTasks.put(key, childProgress);
+    myProfile.taskStarted(key, parentKey(id, parentId), name, time);
+    myLog.startRange(key, parentKey(id, parentId), AntBuildLog.TASK, name);
+    myQueue.addLast(childProgress);
+    myRunningTasks.addLast(key);
+
+    if (JAVAC.equals(name)) {
+      myJavacMessages.put(key, new JavacDiagnostics(myProject, childProgress, myJavacFiles, myMissingJavacFiles));
+    }
+  }
+
+  @Override
+  public void taskFinished(int id, @Nonnull String name, long time) {
+    Object key = finishKey(id, TASK, name);
+    myProfile.taskFinished(key, time);
+    myLog.finishRange(key);
+    myRunningTasks.removeLastOccurrence(key);
+    // whatever its name, e.g. presetdef of javac
+    finishChild(myTasks.remove(key), myJavacMessages.remove(key), false);
+  }
+
+  @Override
+  public void messageLogged(int id, int priority, @Nonnull String text) {
+    boolean isError = priority == MSG_ERR;
+
+    if (priority <= myOutputLevel.getLevel()) {
+      myLog.add(AntBuildLog.MESSAGE, priority, eventKey(id), text);
+
+      Object taskKey = taskKey(id);
+      JavacDiagnostics javacMessages = taskKey == null ? null : myJavacMessages.get(taskKey);
+      if (javacMessages != null) {
+        javacMessages.addLine(text);
       }
+      else {
+        myOutput.output(getProgress(id), text + "\n", !isError);
 
-      @Override
-      public void message(final CompilerMessageCategory category,
-                          final String message,
-                          final String url,
-                          final int lineNum,
-                          final int columnNum) {
-        if (category == CompilerMessageCategory.ERROR) {
-          errorCount.incrementAndGet();
+        if (isError) {
+          myErrorsCount.incrementAndGet();
         }
-        ApplicationManager.getApplication().runReadAction(new Runnable() {
-          @Override
-          public void run() {
-            VirtualFile file = url == null ? null : VirtualFileManager.getInstance().findFileByUrl(url);
-            if (file != null) {
-              buildProgress.fileMessage(message,
-                                        message,
-                                        convertCategory(category),
-                                        new FilePosition(new File(file.getCanonicalPath()),
-                                                         lineNum - 1,
-                                                         columnNum,
-                                                         lineNum - 1,
-                                                         columnNum));
-            }
-            else {
-              buildProgress.message(message,
-                                    message,
-                                    convertCategory(category),
-                                    null);
-            }
-
-          }
-        });
       }
+    }
+  }
 
-      @Override
-      public void setProgressText(String text) {
-      }
+  @Override
+  public void compilerDiagnostic(int id,
+                                 @Nonnull String kind,
+                                 @Nullable String file,
+                                 int line,
+                                 int column,
+                                 @Nullable String code,
+                                 @Nonnull String message) {
+    int priority = switch (kind) {
+      case "ERROR" -> MSG_ERR;
+      case "WARNING", "MANDATORY_WARNING" -> MSG_WARN;
+      default -> MSG_INFO;
+    };
+    myLog.add(AntBuildLog.DIAGNOSTIC, priority, eventKey(id), message, file, line, column);
 
-      @Override
-      public void fileProcessed(String path) {
-      }
+    // compiler adapter can be used by other task than javac
+    Object taskKey = taskKey(id);
+    JavacDiagnostics diagnostics = myJavacMessages.computeIfAbsent(taskKey == null ? BUILD : taskKey,
+                                                                   key -> new JavacDiagnostics(myProject, getProgress(id), myJavacFiles, myMissingJavacFiles));
+    diagnostics.add(kind, file, line, column, message);
+  }
 
-      @Override
-      public void fileGenerated(FileObject path) {
+  /**
+   * @return progress of running target or task, or last started one if id is unknown
+   */
+  @Nonnull
+  private BuildProgress<BuildProgressDescriptor> getProgress(int id) {
+    if (id != NO_ID) {
+      BuildProgress<BuildProgressDescriptor> progress = myTasks.get(id);
+      if (progress == null) {
+        progress = myTargets.get(id);
       }
-    };
-    try {
-      while (true) {
-        if (!outputParser.processMessageLine(callback)) {
-          break;
-        }
+      if (progress != null) {
+        return progress;
       }
     }
-    catch (Exception e) {
-      //ignore
+    return myQueue.getLast();
+  }
+
+  private void finishChild(@Nullable BuildProgress<BuildProgressDescriptor> childProgress,
+                           @Nullable JavacDiagnostics javacMessages,
+                           boolean upToDate) {
+    myOutput.flush();
+    int currentErrors = javacMessages == null ? 0 : javacMessages.finish();
+    myErrorsCount.addAndGet(currentErrors);
+    myIsEcho = false;
+
+    if (childProgress != null) {
+      if (currentErrors > 0) {
+        childProgress.fail();
+      }
+      else {
+        childProgress.finish(upToDate);
+      }
+
+      myQueue.remove(childProgress);
     }
+  }
 
-    return errorCount.get();
+  /**
+   * Without ids, running targets and tasks of same name are told apart by their nesting
+   */
+  @Nonnull
+  private Object startKey(int id, @Nonnull String kind, @Nonnull String name) {
+    if (id != NO_ID) {
+      return id;
+    }
+    return kind + name + "#" + myNameDepths.computeIfAbsent(kind + name, key -> new AtomicInteger()).getAndIncrement();
   }
 
-  private static MessageEvent.Kind convertCategory(CompilerMessageCategory category) {
-    if (CompilerMessageCategory.ERROR.equals(category)) {
-      return MessageEvent.Kind.ERROR;
+  @Nonnull
+  private Object runningKey(int id, @Nonnull String kind, @Nonnull String name) {
+    if (id != NO_ID) {
+      return id;
     }
-    if (CompilerMessageCategory.WARNING.equals(category)) {
-      return MessageEvent.Kind.WARNING;
+    AtomicInteger depth = myNameDepths.get(kind + name);
+    return kind + name + "#" + (depth == null ? 0 : depth.get() - 1);
+  }
+
+  @Nonnull
+  private Object finishKey(int id, @Nonnull String kind, @Nonnull String name) {
+    if (id != NO_ID) {
+      return id;
     }
-    return MessageEvent.Kind.INFO;
+    AtomicInteger depth = myNameDepths.get(kind + name);
+    return kind + name + "#" + (depth == null ? 0 : depth.decrementAndGet());
+  }
+
+  /**
+   * @return key of task, which event belongs to, or of the last started task if events have no ids
+   */
+  @Nullable
+  private Object taskKey(int id) {
+    return id == NO_ID ? myRunningTasks.peekLast() : id;
+  }
+
+  @Nullable
+  private static Object parentKey(int id, int parentId) {
+    return id == NO_ID ? null : parentId;
+  }
+
+  /**
+   * @return key of target or task, which event belongs to, or null if events have no ids
+   */
+  @Nullable
+  private static Object eventKey(int id) {
+    return id == NO_ID ? null : id;
   }
 }
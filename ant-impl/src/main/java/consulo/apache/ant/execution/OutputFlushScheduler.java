@@ -0,0 +1,168 @@
+package consulo.apache.ant.execution;
+
+import com.intellij.lang.ant.AntBundle;
+import consulo.application.util.concurrent.AppExecutorUtil;
+import consulo.build.ui.progress.BuildProgress;
+import consulo.build.ui.progress.BuildProgressDescriptor;
+import consulo.util.lang.StringUtil;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces output of build view: text, which comes between flushes, is passed to {@link BuildProgress#output} by one
+ * call per target or task and stream. Unlike restarted alarm, scheduler does not postpone flush, while text is coming.
+ * <p>
+ * {@link BuildProgress#output} only queues events of view, so lag of view is measured on EDT: after flush, probe is
+ * posted to EDT, and time until it runs is lag of events, which were queued before it. Interval between flushes is
+ * {@link #IDLE_RATIO} times the lag, so busy EDT gets fewer and larger batches. When lag exceeds {@link #MAX_LAG},
+ * standard output is suppressed and view gets count of suppressed lines instead.
+ * <p>
+ * View keeps all its text on heap, so it gets at most {@link #MAX_VIEW_OUTPUT} characters of standard output, then one
+ * line, which tells that the rest is only in build log. Errors are not suppressed, and all output stays in
+ * {@link AntBuildLog}.
+ *
+ * @since 17/10/2026
+ */
+final class OutputFlushScheduler {
+  private static final long MIN_INTERVAL = 50;
+  private static final long MAX_INTERVAL = 1000;
+  // interval is so many times longer than lag of EDT
+  private static final int IDLE_RATIO = 4;
+  private static final long MAX_LAG = TimeUnit.SECONDS.toNanos(3);
+  private static final int MAX_VIEW_OUTPUT = 8 * 1024 * 1024;
+
+  private final BuildProgress<BuildProgressDescriptor> myBuildProgress;
+  private final Object myLock = new Object();
+  // flushes do not overlap, so output keeps its order
+  private final Object myFlushLock = new Object();
+  private List<Chunk> myPending = new ArrayList<>();
+  private int mySuppressedLines;
+  // characters of standard output, which are passed to view
+  private long myViewOutput;
+  @Nullable
+  private ScheduledFuture<?> myScheduledFlush;
+  private long myInterval = 100;
+  // lag of the last probe, which ran on EDT
+  private long myLag;
+  // time, when pending probe was posted, or -1
+  private long myProbeTime = -1;
+
+  /**
+   * @param buildProgress progress, which reports suppressed lines
+   */
+  OutputFlushScheduler(@Nonnull BuildProgress<BuildProgressDescriptor> buildProgress) {
+    myBuildProgress = buildProgress;
+  }
+
+  void output(@Nonnull BuildProgress<BuildProgressDescriptor> progress, @Nonnull String text, boolean stdOut) {
+    synchronized (myLock) {
+      if (stdOut && myViewOutput >= MAX_VIEW_OUTPUT) {
+        if (myViewOutput == MAX_VIEW_OUTPUT) {
+          myViewOutput++;
+          String notice = AntBundle.message("ant.execution.messages.truncated", MAX_VIEW_OUTPUT / (1024 * 1024)) + "\n";
+          myPending.add(new Chunk(myBuildProgress, false, notice));
+        }
+        else {
+          return;
+        }
+      }
+      else if (stdOut && isBehind()) {
+        mySuppressedLines += Math.max(1, StringUtil.countNewLines(text));
+      }
+      else {
+        if (stdOut) {
+          myViewOutput = Math.min(MAX_VIEW_OUTPUT, myViewOutput + text.length());
+        }
+        Chunk last = myPending.isEmpty() ? null : myPending.get(myPending.size() - 1);
+        if (last != null && last.myProgress == progress && last.myStdOut == stdOut) {
+          last.myText.append(text);
+        }
+        else {
+          myPending.add(new Chunk(progress, stdOut, text));
+        }
+      }
+
+      // suppressed lines are counted by flush, and its probe tells, when view catches up
+      if (myScheduledFlush == null) {
+        myScheduledFlush = AppExecutorUtil.getAppScheduledExecutorService().schedule(this::flush, myInterval, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  /**
+   * Passes pending output to view at once. Called before target or task starts or finishes, so output stays in its node.
+   */
+  void flush() {
+    synchronized (myFlushLock) {
+      List<Chunk> chunks;
+      int suppressedLines;
+      synchronized (myLock) {
+        if (myScheduledFlush != null) {
+          myScheduledFlush.cancel(false);
+          myScheduledFlush = null;
+        }
+        chunks = myPending;
+        suppressedLines = mySuppressedLines;
+        myPending = new ArrayList<>();
+        mySuppressedLines = 0;
+      }
+
+      for (Chunk chunk : chunks) {
+        chunk.myProgress.output(chunk.myText.toString(), chunk.myStdOut);
+      }
+      if (suppressedLines > 0) {
+        myBuildProgress.output(AntBundle.message("ant.execution.messages.suppressed", suppressedLines) + "\n", false);
+      }
+      if (!chunks.isEmpty() || suppressedLines > 0) {
+        postProbe();
+      }
+    }
+  }
+
+  /**
+   * Posts probe after events of flush, unless one is pending already: its lag grows anyway, while it waits
+   */
+  private void postProbe() {
+    long time = System.nanoTime();
+    synchronized (myLock) {
+      if (myProbeTime >= 0) {
+        return;
+      }
+      myProbeTime = time;
+    }
+    SwingUtilities.invokeLater(() -> {
+      long lag = System.nanoTime() - time;
+      synchronized (myLock) {
+        myProbeTime = -1;
+        myLag = lag;
+        myInterval = Math.min(MAX_INTERVAL, Math.max(MIN_INTERVAL, TimeUnit.NANOSECONDS.toMillis(lag) * IDLE_RATIO));
+      }
+    });
+  }
+
+  /**
+   * @return true if EDT runs events of view more than {@link #MAX_LAG} after they are queued
+   */
+  private boolean isBehind() {
+    long lag = myProbeTime < 0 ? myLag : Math.max(myLag, System.nanoTime() - myProbeTime);
+    return lag > MAX_LAG;
+  }
+
+  private static final class Chunk {
+    private final BuildProgress<BuildProgressDescriptor> myProgress;
+    private final boolean myStdOut;
+    private final StringBuilder myText;
+
+    private Chunk(@Nonnull BuildProgress<BuildProgressDescriptor> progress, boolean stdOut, @Nonnull String text) {
+      myProgress = progress;
+      myStdOut = stdOut;
+      myText = new StringBuilder(text);
+    }
+  }
+}
@@ -14,4 +14,9 @@ public interface OutputWatcher {
   void setStopped(boolean stopped);
 
   int getErrorsCount();
+
+  /**
+   * @return time from JVM start to build start in milliseconds, reported by build, or -1 if unknown
+   */
+  long getStartupTime();
 }
@@ -0,0 +1,45 @@
+package consulo.apache.ant.execution;
+
+import com.intellij.lang.ant.AntBundle;
+import consulo.application.dumb.DumbAware;
+import consulo.disposer.Disposer;
+import consulo.platform.base.icon.PlatformIconGroup;
+import consulo.project.Project;
+import consulo.ui.ex.action.AnAction;
+import consulo.ui.ex.action.AnActionEvent;
+import consulo.ui.ex.popup.JBPopup;
+import consulo.ui.ex.popup.JBPopupFactory;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Shows search over {@link AntBuildLog} of build in popup: build view has no place for search field
+ *
+ * @since 17/10/2026
+ */
+public class SearchBuildOutputAction extends AnAction implements DumbAware {
+  private final Project myProject;
+  private final AntBuildLog myLog;
+
+  public SearchBuildOutputAction(@Nonnull Project project, @Nonnull AntBuildLog log) {
+    super(AntBundle.message("ant.execution.search.action.name"),
+          AntBundle.message("ant.execution.search.action.description"),
+          PlatformIconGroup.actionsFind());
+    myProject = project;
+    myLog = log;
+  }
+
+  @Override
+  public void actionPerformed(@Nonnull AnActionEvent e) {
+    AntLogSearchPanel panel = new AntLogSearchPanel(myProject, myLog);
+    JBPopup popup = JBPopupFactory.getInstance()
+                                  .createComponentPopupBuilder(panel, panel.getPreferredFocusedComponent())
+                                  .setTitle(AntBundle.message("ant.execution.search.action.name"))
+                                  .setRequestFocus(true)
+                                  .setResizable(true)
+                                  .setMovable(true)
+                                  .createPopup();
+    Disposer.register(popup, panel);
+    popup.showInBestPositionFor(e.getDataContext());
+  }
+}
@@ -0,0 +1,222 @@
+package consulo.apache.ant.execution;
+
+import jakarta.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streaming recognizer of TeamCity service messages in process output. Chunks are joined into lines, line is checked
+ * for {@code ##teamcity[} prefix and tokenized in one pass. Plain text is passed as is, without exception which
+ * {@code ServiceMessage.parse} throws for every not service message line.
+ * <p>
+ * Not thread safe, process output is delivered sequentially.
+ *
+ * @since 17/10/2026
+ */
+public class ServiceMessageRecognizer {
+  private static final String PREFIX = "##teamcity[";
+  private static final char LINE_SEPARATOR = 0x2028;
+  private static final char PARAGRAPH_SEPARATOR = 0x2029;
+
+  private final MessageProcessor myProcessor;
+  // part of line from previous chunks
+  private final StringBuilder myLine = new StringBuilder();
+  private boolean myAfterCarriageReturn;
+
+  // state of current message
+  private final StringBuilder myValue = new StringBuilder();
+  private final Map<String, String> myAttributes = new HashMap<>();
+  private int myPosition;
+
+  public ServiceMessageRecognizer(@Nonnull MessageProcessor processor) {
+    myProcessor = processor;
+  }
+
+  public void append(@Nonnull CharSequence chunk) {
+    int start = 0;
+    int length = chunk.length();
+    for (int i = 0; i < length; i++) {
+      char c = chunk.charAt(i);
+      if (c != '\n' && c != '\r') {
+        continue;
+      }
+
+      boolean afterCarriageReturn = myAfterCarriageReturn;
+      myAfterCarriageReturn = c == '\r';
+      if (c == '\n' && afterCarriageReturn && i == start) {
+        // \r\n
+        start = i + 1;
+        continue;
+      }
+
+      if (myLine.length() == 0) {
+        processLine(chunk, start, i);
+      }
+      else {
+        myLine.append(chunk, start, i);
+        processLine(myLine, 0, myLine.length());
+        myLine.setLength(0);
+      }
+      start = i + 1;
+    }
+
+    if (start < length) {
+      myAfterCarriageReturn = false;
+      myLine.append(chunk, start, length);
+    }
+  }
+
+  /**
+   * Processes last line, which is not terminated by line separator
+   */
+  public void flush() {
+    if (myLine.length() > 0) {
+      processLine(myLine, 0, myLine.length());
+      myLine.setLength(0);
+    }
+  }
+
+  private void processLine(CharSequence line, int start, int end) {
+    while (start < end && line.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && line.charAt(end - 1) <= ' ') {
+      end--;
+    }
+
+    if (!startsWith(line, start, end, PREFIX) || !parseMessage(line, start + PREFIX.length(), end)) {
+      myProcessor.onText(line.subSequence(start, end).toString());
+    }
+  }
+
+  /**
+   * @return false if text is not valid service message
+   */
+  private boolean parseMessage(CharSequence line, int start, int end) {
+    if (end <= start || line.charAt(end - 1) != ']') {
+      return false;
+    }
+    end--;
+
+    myPosition = start;
+    while (myPosition < end && !isWhitespace(line.charAt(myPosition))) {
+      myPosition++;
+    }
+    if (myPosition == start) {
+      return false;
+    }
+    String name = line.subSequence(start, myPosition).toString();
+    skipWhitespaces(line, end);
+
+    myAttributes.clear();
+    String argument = null;
+    if (myPosition < end && line.charAt(myPosition) == '\'') {
+      if (!parseValue(line, end)) {
+        return false;
+      }
+      argument = myValue.toString();
+      skipWhitespaces(line, end);
+    }
+    else {
+      while (myPosition < end) {
+        int keyStart = myPosition;
+        while (myPosition < end && line.charAt(myPosition) != '=') {
+          if (isWhitespace(line.charAt(myPosition))) {
+            return false;
+          }
+          myPosition++;
+        }
+        if (myPosition == keyStart || myPosition == end) {
+          return false;
+        }
+        String key = line.subSequence(keyStart, myPosition).toString();
+        myPosition++;
+
+        if (myPosition == end || line.charAt(myPosition) != '\'' || !parseValue(line, end)) {
+          return false;
+        }
+        myAttributes.put(key, myValue.toString());
+        skipWhitespaces(line, end);
+      }
+    }
+
+    if (myPosition != end) {
+      return false;
+    }
+
+    myProcessor.onServiceMessage(name, argument, myAttributes);
+    return true;
+  }
+
+  /**
+   * Reads quoted value at {@link #myPosition} into {@link #myValue}
+   */
+  private boolean parseValue(CharSequence line, int end) {
+    myValue.setLength(0);
+    for (int i = myPosition + 1; i < end; i++) {
+      char c = line.charAt(i);
+      if (c == '\'') {
+        myPosition = i + 1;
+        return true;
+      }
+      if (c != '|') {
+        myValue.append(c);
+        continue;
+      }
+
+      if (++i == end) {
+        return false;
+      }
+      switch (line.charAt(i)) {
+        case 'n' -> myValue.append('\n');
+        case 'r' -> myValue.append('\r');
+        case 'x' -> myValue.append('\u0085');
+        case 'l' -> myValue.append(LINE_SEPARATOR);
+        case 'p' -> myValue.append(PARAGRAPH_SEPARATOR);
+        case '|', '\'', '[', ']' -> myValue.append(line.charAt(i));
+        case '0' -> {
+          // |0xXXXX
+          if (i + 5 >= end || line.charAt(i + 1) != 'x') {
+            return false;
+          }
+          int code = 0;
+          for (int j = i + 2; j < i + 6; j++) {
+            int digit = Character.digit(line.charAt(j), 16);
+            if (digit < 0) {
+              return false;
+            }
+            code = code * 16 + digit;
+          }
+          myValue.append((char)code);
+          i += 5;
+        }
+        default -> {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+
+  private void skipWhitespaces(CharSequence line, int end) {
+    while (myPosition < end && isWhitespace(line.charAt(myPosition))) {
+      myPosition++;
+    }
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t';
+  }
+
+  private static boolean startsWith(CharSequence line, int start, int end, String prefix) {
+    if (end - start < prefix.length()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (line.charAt(start + i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,40 @@
+package consulo.apache.ant.execution;
+
+import com.intellij.lang.ant.AntBundle;
+import consulo.apache.ant.ApacheAntIcons;
+import consulo.ui.ex.action.AnActionEvent;
+import consulo.ui.ex.action.ToggleAction;
+
+import jakarta.annotation.Nonnull;
+
+/**
+ * Raises or lowers message output level of running build, without restart
+ *
+ * @since 17/10/2026
+ */
+public class ToggleVerboseOutputAction extends ToggleAction {
+  private final AntOutputLevelController myController;
+
+  public ToggleVerboseOutputAction(@Nonnull AntOutputLevelController controller) {
+    super(AntBundle.message("ant.verbose.show.all.messages.action.name"),
+          AntBundle.message("ant.verbose.show.all.messages.action.description"),
+          ApacheAntIcons.Verbose);
+    myController = controller;
+  }
+
+  @Override
+  public boolean isSelected(@Nonnull AnActionEvent e) {
+    return myController.getLevel() >= AntOutputLevelController.MSG_VERBOSE;
+  }
+
+  @Override
+  public void setSelected(@Nonnull AnActionEvent e, boolean state) {
+    myController.setLevel(state ? AntOutputLevelController.MSG_VERBOSE : AntOutputLevelController.MSG_INFO);
+  }
+
+  @Override
+  public void update(@Nonnull AnActionEvent e) {
+    super.update(e);
+    e.getPresentation().setEnabled(myController.isChangeable());
+  }
+}
@@ -0,0 +1,47 @@
+package consulo.apache.ant.rt.common;
+
+/**
+ * Protocol between IDE and warm Ant daemon JVM.
+ * <p>
+ * After start daemon prints {@link #READY_PREFIX} followed by loopback port to stdout, and accepts one build per connection.
+ * Build request is:
+ * <pre>
+ *   UTF   working directory
+ *   int   event port, 0 if build does not use event channel
+ *   int   count of ant arguments
+ *   UTF[] ant arguments
+ * </pre>
+ * Daemon answers with chunks until build is finished:
+ * <pre>
+ *   byte kind   - {@link #STDOUT}, {@link #STDERR}, {@link #RETIRED} or {@link #EXIT}
+ *   int  value  - length of following output bytes (in daemon default encoding), or exit code for {@link #EXIT}
+ * </pre>
+ * {@link #EXIT} is the last chunk of build. {@link #RETIRED} is sent before it, if daemon exits after this build.
+ * Daemon exits when its stdin is closed, so it never outlives IDE.
+ *
+ * @since 17/10/2026
+ */
+public interface AntDaemonProtocol
+{
+	String READY_PREFIX = "##consulo.ant.daemon.port=";
+
+	/**
+	 * System property: count of builds after which daemon exits
+	 */
+	String MAX_BUILDS_PROPERTY = "consulo.ant.daemon.maxBuilds";
+
+	/**
+	 * System property: percent of max heap, used after build, when daemon exits
+	 */
+	String MAX_HEAP_PERCENT_PROPERTY = "consulo.ant.daemon.maxHeapPercent";
+
+	/**
+	 * System property: idle time in milliseconds after which daemon exits
+	 */
+	String IDLE_TIMEOUT_PROPERTY = "consulo.ant.daemon.idleTimeout";
+
+	byte STDOUT = 1;
+	byte STDERR = 2;
+	byte EXIT = 3;
+	byte RETIRED = 4;
+}
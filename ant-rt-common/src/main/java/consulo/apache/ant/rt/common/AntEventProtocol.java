@@ -0,0 +1,78 @@
+package consulo.apache.ant.rt.common;
+
+/**
+ * Binary framed event protocol between the forked Ant JVM and the IDE.
+ * <p>
+ * Every frame is laid out as:
+ * <pre>
+ *   int  length    - count of bytes following this field
+ *   byte type      - one of the event constants below
+ *   int  id        - target or task id, {@link #NO_ID} for build level events. For messages - id of target or task,
+ *                    which logged message
+ *   int  parent    - for started targets and tasks - id of enclosing target or task, {@link #NO_ID} otherwise
+ *   byte priority  - Ant message priority
+ *   long time      - {@link System#nanoTime()} of forked JVM, when event happened
+ *   byte[] payload - UTF-8 text, occupies the rest of the frame
+ * </pre>
+ * All integers are big-endian, as written by {@link java.io.DataOutputStream}.
+ * <p>
+ * IDE sends control commands back through the same connection, using the same frame layout.
+ *
+ * @since 17/10/2026
+ */
+public interface AntEventProtocol
+{
+	/**
+	 * System property with loopback port which IDE listens for events. AntMain2 connects to it at startup
+	 */
+	String EVENT_PORT_PROPERTY = "consulo.ant.event.port";
+
+	/**
+	 * System property with random token of build, which forked process sends in {@link #HANDSHAKE} frame
+	 */
+	String EVENT_TOKEN_PROPERTY = "consulo.ant.event.token";
+
+	int NO_ID = 0;
+
+	int HEADER_SIZE = 1 + 4 + 4 + 1 + 8;
+
+	int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+	/**
+	 * Payload is JVM uptime in milliseconds
+	 */
+	byte BUILD_STARTED = 1;
+	byte BUILD_FINISHED = 2;
+	byte TARGET_STARTED = 3;
+	byte TARGET_FINISHED = 4;
+	byte TASK_STARTED = 5;
+	byte TASK_FINISHED = 6;
+	byte MESSAGE = 7;
+	/**
+	 * Target is skipped by target cache, sent between {@link #TARGET_STARTED} and {@link #TARGET_FINISHED}
+	 */
+	byte TARGET_UP_TO_DATE = 8;
+	/**
+	 * Compiler diagnostic of javac task, priority is Ant priority of diagnostic kind. Payload is lines:
+	 * <pre>
+	 *   kind    - name of javax.tools.Diagnostic.Kind
+	 *   line    - 1-based, or -1
+	 *   column  - 1-based, or -1
+	 *   code    - compiler key of diagnostic, may be empty
+	 *   file    - absolute path of source file, may be empty
+	 *   message - the rest of payload, may contain line breaks
+	 * </pre>
+	 */
+	byte COMPILER_DIAGNOSTIC = 9;
+
+	/**
+	 * The first frame of connection, payload is token of {@link #EVENT_TOKEN_PROPERTY}. IDE drops connection, which does not
+	 * start with it, so other local process can't take the channel or send events to it
+	 */
+	byte HANDSHAKE = 32;
+
+	/**
+	 * IDE command: change message output level of running build, new level is passed as priority
+	 */
+	byte SET_OUTPUT_LEVEL = 64;
+}
@@ -19,4 +19,46 @@ public interface AntLoggerConstants
 	public static final char ERROR = 'E';
 	public static final char EXCEPTION = 'X';
 	public static final char EXCEPTION_LINE_SEPARATOR = 0;
+
+	/**
+	 * Ant property with path of Chrome trace-event file, which logger writes. It's not a system property,
+	 * so JVM command line does not change from build to build
+	 */
+	public static final String TRACE_FILE_PROPERTY = "consulo.ant.trace.file";
+
+	/**
+	 * System property which enables JFR events of targets and tasks, when flight recorder is not started with JVM
+	 */
+	public static final String FLIGHT_RECORDER_PROPERTY = "consulo.ant.jfr";
+
+	/**
+	 * XML namespace of target attributes {@code inputs} and {@code outputs}, which enable target cache.
+	 * Ant ignores target attributes of foreign namespaces, so build file still runs without IDE
+	 */
+	public static final String TARGET_CACHE_NAMESPACE = "urn:consulo:ant:target-cache";
+
+	/**
+	 * Ant property with directory of target cache. Cache is disabled if it's not set
+	 */
+	public static final String TARGET_CACHE_DIR_PROPERTY = "consulo.ant.cache.dir";
+
+	/**
+	 * Ant property with directory of dependency graphs of incremental javac adapter, temporary directory is used if it's not set
+	 */
+	public static final String JAVAC_GRAPH_DIR_PROPERTY = "consulo.ant.javac.graph.dir";
+
+	/**
+	 * Name of service message, which reports target skipped by target cache
+	 */
+	public static final String TARGET_UP_TO_DATE_MESSAGE = "targetUpToDate";
+
+	/**
+	 * Name of service message with compiler diagnostic, argument is payload of {@link AntEventProtocol#COMPILER_DIAGNOSTIC}
+	 */
+	public static final String COMPILER_DIAGNOSTIC_MESSAGE = "compilerDiagnostic";
+
+	/**
+	 * Attribute of buildStarted build status service message with JVM uptime in milliseconds, payload of {@link AntEventProtocol#BUILD_STARTED}
+	 */
+	public static final String UPTIME_ATTRIBUTE = "uptime";
 }
@@ -0,0 +1,35 @@
+package consulo.apache.ant.rt.common;
+
+/**
+ * Layout of target cache directory ({@link AntLoggerConstants#TARGET_CACHE_DIR_PROPERTY}), which is shared between
+ * forked Ant JVM (writes) and IDE (shows and evicts entries):
+ * <pre>
+ *   targets/&lt;hash&gt;.properties  - fingerprint of last successful run of target
+ *   entries/&lt;hash&gt;.properties  - outputs of target by fingerprint of its inputs; modification time is time of last use
+ *   objects/&lt;xx&gt;/&lt;hash&gt;       - content of output files by hash of content
+ * </pre>
+ * Entry, which references missing object, is invalid and ignored.
+ *
+ * @since 17/10/2026
+ */
+public interface TargetCacheLayout
+{
+	String TARGETS_DIR = "targets";
+	String ENTRIES_DIR = "entries";
+	String OBJECTS_DIR = "objects";
+
+	String ENTRY_EXTENSION = ".properties";
+
+	/**
+	 * Entry key: absolute path of build file
+	 */
+	String BUILD_FILE_KEY = "buildFile";
+	/**
+	 * Entry key: name of target
+	 */
+	String TARGET_KEY = "target";
+	/**
+	 * Entry key prefix: output path relative to project base dir, value is object hash
+	 */
+	String OUTPUT_PREFIX = "output:";
+}
@@ -15,12 +15,23 @@
  */
 package com.intellij.rt.ant.execution;
 
+import consulo.apache.ant.rt.AntControl;
+import consulo.apache.ant.rt.AntEventWriter;
+import consulo.apache.ant.rt.common.AntEventProtocol;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.lang.reflect.InvocationTargetException;
+import java.net.InetAddress;
+import java.net.Socket;
 
 public final class AntMain2 {
   // original out
   public static final PrintStream OUT = System.out;
+  // side channel for structured logger events, null if ide did not open it
+  private static volatile Socket ourEvents = connectEventChannel(System.getProperty(AntEventProtocol.EVENT_PORT_PROPERTY),
+                                                                       System.getProperty(AntEventProtocol.EVENT_TOKEN_PROPERTY));
 
   public static void main(String[] args) throws ClassNotFoundException, NoSuchMethodException, IllegalAccessException, InvocationTargetException {
     // as we build classpath ourselves, and ensure all libraries are added to classpath,
@@ -43,4 +54,62 @@ public final class AntMain2 {
     antLauncher.getMethod("main", new Class[]{args.getClass()}).invoke(null, new Object[]{args});
 
   }
+
+  /**
+   * @return stream of event channel for current build, or null if ide did not open it
+   */
+  public static OutputStream getEvents() {
+    Socket socket = ourEvents;
+    if (socket == null) {
+      return null;
+    }
+
+    try {
+      return socket.getOutputStream();
+    }
+    catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Replaces event channel, used by daemon which runs many builds in one process
+   */
+  public static void openEvents(String port, String token) {
+    closeEvents();
+    ourEvents = connectEventChannel(port, token);
+  }
+
+  public static void closeEvents() {
+    Socket socket = ourEvents;
+    ourEvents = null;
+    if (socket != null) {
+      try {
+        socket.close();
+      }
+      catch (IOException ignored) {
+      }
+    }
+  }
+
+  private static Socket connectEventChannel(String port, String token) {
+    AntControl.reset();
+    if (port == null || token == null) {
+      return null;
+    }
+
+    try {
+      Socket socket = new Socket(InetAddress.getByName("127.0.0.1"), Integer.parseInt(port));
+      socket.setTcpNoDelay(true);
+      AntEventWriter handshake = new AntEventWriter(socket.getOutputStream());
+      handshake.write(AntEventProtocol.HANDSHAKE, AntEventProtocol.NO_ID, AntEventProtocol.NO_ID, 0, System.nanoTime(), token);
+      handshake.flush();
+      AntControl.start(socket.getInputStream());
+      return socket;
+    }
+    catch (Exception e) {
+      // loggers will fallback to stdout
+      return null;
+    }
+  }
 }
@@ -0,0 +1,68 @@
+package consulo.apache.ant.rt;
+
+import consulo.apache.ant.rt.common.AntEventProtocol;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads control commands, which IDE sends through event channel
+ *
+ * @since 17/10/2026
+ */
+public class AntControl implements Runnable {
+  private static volatile int ourOutputLevel = -1;
+
+  private final DataInputStream myInput;
+
+  private AntControl(InputStream input) {
+    myInput = new DataInputStream(input);
+  }
+
+  public static void start(InputStream input) {
+    Thread thread = new Thread(new AntControl(input), "Consulo Ant Control Reader");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Forgets level requested for previous build
+   */
+  public static void reset() {
+    ourOutputLevel = -1;
+  }
+
+  /**
+   * @return output level requested by IDE, or {@code defaultLevel} if IDE did not change it
+   */
+  public static int getOutputLevel(int defaultLevel) {
+    int level = ourOutputLevel;
+    return level == -1 ? defaultLevel : level;
+  }
+
+  public void run() {
+    try {
+      while (true) {
+        int length = myInput.readInt();
+        if (length < AntEventProtocol.HEADER_SIZE) {
+          return;
+        }
+
+        byte type = myInput.readByte();
+        myInput.readInt(); // id
+        myInput.readInt(); // parent
+        int priority = myInput.readByte();
+        myInput.readLong(); // time
+        myInput.skipBytes(length - AntEventProtocol.HEADER_SIZE);
+
+        if (type == AntEventProtocol.SET_OUTPUT_LEVEL) {
+          ourOutputLevel = priority;
+        }
+      }
+    }
+    catch (IOException ignored) {
+      // channel closed
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package consulo.apache.ant.rt;
+
+import java.io.IOException;
+
+/**
+ * Destination of build events. Events are written by {@link AsyncEventQueue} writer thread, or by build threads
+ * under lock of sink, see {@link ConsuloAntLogger#isWrittenInBackground}. Sink does not own its stream
+ *
+ * @since 17/10/2026
+ */
+public interface AntEventSink {
+  /**
+   * @param time {@link System#nanoTime()} when event happened
+   */
+  void write(byte type, int id, int parent, int priority, long time, String text) throws IOException;
+
+  void flush() throws IOException;
+}
@@ -0,0 +1,86 @@
+package consulo.apache.ant.rt;
+
+import consulo.apache.ant.rt.common.AntEventProtocol;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Encodes build events into {@link AntEventProtocol} frames. Frame is assembled in reusable buffer, so writing event do not allocate.
+ *
+ * @since 17/10/2026
+ */
+public class AntEventWriter implements AntEventSink {
+  private static final int MAX_TEXT_LENGTH = (AntEventProtocol.MAX_FRAME_SIZE - AntEventProtocol.HEADER_SIZE) / 3;
+
+  private final OutputStream myOutput;
+  private byte[] myBuffer = new byte[1024];
+
+  public AntEventWriter(OutputStream output) {
+    myOutput = output;
+  }
+
+  public synchronized void write(byte type, int id, int parent, int priority, long time, String text) throws IOException {
+    int length = encode(type, id, parent, priority, time, text);
+    myOutput.write(myBuffer, 0, length);
+  }
+
+  public synchronized void flush() throws IOException {
+    myOutput.flush();
+  }
+
+  private int encode(byte type, int id, int parent, int priority, long time, String text) {
+    int textLength = text == null ? 0 : Math.min(text.length(), MAX_TEXT_LENGTH);
+    // worst case of UTF-8 is 3 bytes per char (surrogate pair is 4 bytes per 2 chars)
+    ensureCapacity(4 + AntEventProtocol.HEADER_SIZE + textLength * 3);
+
+    byte[] buffer = myBuffer;
+    int pos = 4;
+    buffer[pos++] = type;
+    pos = putInt(buffer, pos, id);
+    pos = putInt(buffer, pos, parent);
+    buffer[pos++] = (byte)priority;
+    pos = putInt(buffer, pos, (int)(time >>> 32));
+    pos = putInt(buffer, pos, (int)time);
+
+    for (int i = 0; i < textLength; i++) {
+      char c = text.charAt(i);
+      if (c < 0x80) {
+        buffer[pos++] = (byte)c;
+      }
+      else if (c < 0x800) {
+        buffer[pos++] = (byte)(0xC0 | (c >> 6));
+        buffer[pos++] = (byte)(0x80 | (c & 0x3F));
+      }
+      else if (Character.isHighSurrogate(c) && i + 1 < textLength && Character.isLowSurrogate(text.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, text.charAt(++i));
+        buffer[pos++] = (byte)(0xF0 | (codePoint >> 18));
+        buffer[pos++] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[pos++] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[pos++] = (byte)(0x80 | (codePoint & 0x3F));
+      }
+      else {
+        buffer[pos++] = (byte)(0xE0 | (c >> 12));
+        buffer[pos++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+        buffer[pos++] = (byte)(0x80 | (c & 0x3F));
+      }
+    }
+
+    putInt(buffer, 0, pos - 4);
+    return pos;
+  }
+
+  private void ensureCapacity(int size) {
+    if (myBuffer.length < size) {
+      myBuffer = new byte[Math.max(size, myBuffer.length * 2)];
+    }
+  }
+
+  private static int putInt(byte[] buffer, int pos, int value) {
+    buffer[pos] = (byte)(value >>> 24);
+    buffer[pos + 1] = (byte)(value >>> 16);
+    buffer[pos + 2] = (byte)(value >>> 8);
+    buffer[pos + 3] = (byte)value;
+    return pos + 4;
+  }
+}
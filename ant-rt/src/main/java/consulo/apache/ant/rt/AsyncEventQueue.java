@@ -0,0 +1,295 @@
+package consulo.apache.ant.rt;
+
+import consulo.apache.ant.rt.common.AntEventProtocol;
+import org.apache.tools.ant.Project;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free queue of build events (multiple producers, single consumer), drained by background thread
+ * into {@link AntEventSink} in batches. Build threads never wait for IDE, except when queue is full with events
+ * which can't be dropped.
+ * <p>
+ * Sink is flushed when {@link #BATCH_SIZE} events are written, when {@link #FLUSH_INTERVAL_NANOS} passed
+ * since first not flushed event, and on {@link #close()}.
+ * <p>
+ * If queue is full, verbose and debug messages are dropped, and reported to IDE as one coalesced warning.
+ * <p>
+ * Queue does not close sink, channel is closed by its owner, see {@link com.intellij.rt.ant.execution.AntMain2#closeEvents()}.
+ *
+ * @since 17/10/2026
+ */
+public class AsyncEventQueue {
+  private static final int CAPACITY = 8192;
+  private static final int BATCH_SIZE = 512;
+  private static final long FLUSH_INTERVAL_NANOS = 20 * 1000 * 1000L;
+  private static final long IDLE_PARK_NANOS = 100 * 1000 * 1000L;
+
+  private final AntEventSink mySink;
+  private final int myMask = CAPACITY - 1;
+
+  // slot sequences, see Dmitry Vyukov bounded MPMC queue
+  private final AtomicLongArray mySequences = new AtomicLongArray(CAPACITY);
+  private final byte[] myTypes = new byte[CAPACITY];
+  private final int[] myIds = new int[CAPACITY];
+  private final int[] myParents = new int[CAPACITY];
+  private final int[] myPriorities = new int[CAPACITY];
+  private final long[] myTimes = new long[CAPACITY];
+  private final String[] myTexts = new String[CAPACITY];
+
+  private final AtomicLong myTail = new AtomicLong();
+  private long myHead;
+
+  private final Thread myThread;
+  private volatile boolean myWaiting;
+  private volatile boolean myClosed;
+  // set by close, when producers, which did not see myClosed, published their events
+  private volatile boolean myStopping;
+  private volatile boolean myFailed;
+  // producers in offer
+  private final AtomicInteger myInFlight = new AtomicInteger();
+
+  // metrics
+  private final AtomicLong myDropped = new AtomicLong();
+  private long myReportedDropped;
+  private long myWritten;
+  private long myBatches;
+  private int myMaxDepth;
+
+  public AsyncEventQueue(AntEventSink sink) {
+    mySink = sink;
+    for (int i = 0; i < CAPACITY; i++) {
+      mySequences.set(i, i);
+    }
+
+    myThread = new Thread("Consulo Ant Event Writer") {
+      @Override
+      public void run() {
+        drainLoop();
+      }
+    };
+    myThread.setDaemon(true);
+    myThread.start();
+  }
+
+  public void offer(byte type, int id, int parent, int priority, long time, String text) {
+    boolean queued;
+    myInFlight.incrementAndGet();
+    try {
+      queued = !myClosed;
+      if (queued) {
+        enqueue(type, id, parent, priority, time, text);
+      }
+    }
+    finally {
+      myInFlight.decrementAndGet();
+    }
+
+    if (!queued) {
+      writeDirectly(type, id, parent, priority, time, text);
+    }
+  }
+
+  private void enqueue(byte type, int id, int parent, int priority, long time, String text) {
+    boolean droppable = type == AntEventProtocol.MESSAGE && priority > Project.MSG_INFO;
+
+    while (true) {
+      if (myFailed) {
+        return;
+      }
+
+      long pos = myTail.get();
+      int index = (int)(pos & myMask);
+      long diff = mySequences.get(index) - pos;
+      if (diff == 0) {
+        if (myTail.compareAndSet(pos, pos + 1)) {
+          myTypes[index] = type;
+          myIds[index] = id;
+          myParents[index] = parent;
+          myPriorities[index] = priority;
+          myTimes[index] = time;
+          myTexts[index] = text;
+          // full fence, so myWaiting is read after event is published
+          mySequences.set(index, pos + 1);
+
+          if (myWaiting) {
+            LockSupport.unpark(myThread);
+          }
+          return;
+        }
+      }
+      else if (diff < 0) {
+        // queue is full
+        if (droppable) {
+          myDropped.incrementAndGet();
+          return;
+        }
+
+        LockSupport.unpark(myThread);
+        Thread.yield();
+      }
+    }
+  }
+
+  /**
+   * Writes all queued events and flushes sink. Events offered after close are written on caller thread, when
+   * queued events are written
+   */
+  public void close() {
+    if (myClosed) {
+      return;
+    }
+
+    myClosed = true;
+    // producer, which read myClosed before it was set, is still publishing its event
+    while (myInFlight.get() > 0) {
+      Thread.yield();
+    }
+    myStopping = true;
+    LockSupport.unpark(myThread);
+    try {
+      myThread.join();
+    }
+    catch (InterruptedException ignored) {
+    }
+  }
+
+  public long getDroppedCount() {
+    return myDropped.get();
+  }
+
+  public int getQueueDepth() {
+    return (int)(myTail.get() - myHead);
+  }
+
+  public synchronized int getMaxQueueDepth() {
+    return myMaxDepth;
+  }
+
+  private void drainLoop() {
+    int notFlushed = 0;
+    long firstNotFlushed = 0;
+
+    try {
+      while (true) {
+        boolean stopping = myStopping;
+
+        int depth = getQueueDepth();
+        if (depth > myMaxDepth) {
+          synchronized (this) {
+            myMaxDepth = depth;
+          }
+        }
+
+        int written = drain(BATCH_SIZE);
+        if (written > 0) {
+          if (notFlushed == 0) {
+            firstNotFlushed = System.nanoTime();
+          }
+          notFlushed += written;
+        }
+
+        if (notFlushed > 0 && (notFlushed >= BATCH_SIZE || System.nanoTime() - firstNotFlushed >= FLUSH_INTERVAL_NANOS)) {
+          reportDropped();
+          mySink.flush();
+          myBatches++;
+          notFlushed = 0;
+        }
+
+        if (written > 0) {
+          continue;
+        }
+
+        if (stopping) {
+          // all events which were offered before close are written
+          break;
+        }
+
+        myWaiting = true;
+        if (isEmpty()) {
+          LockSupport.parkNanos(this, notFlushed > 0 ? FLUSH_INTERVAL_NANOS : IDLE_PARK_NANOS);
+        }
+        myWaiting = false;
+      }
+
+      reportDropped();
+      mySink.write(AntEventProtocol.MESSAGE, AntEventProtocol.NO_ID, AntEventProtocol.NO_ID, Project.MSG_VERBOSE, System.nanoTime(),
+                   "Event queue: " + myWritten + " events in " + myBatches + " batches, max depth " + myMaxDepth +
+                   ", dropped " + myDropped.get());
+      mySink.flush();
+    }
+    catch (IOException e) {
+      // ide is gone, nothing to report
+      myFailed = true;
+    }
+  }
+
+  private boolean isEmpty() {
+    long pos = myHead;
+    return mySequences.get((int)(pos & myMask)) - (pos + 1) < 0;
+  }
+
+  private int drain(int limit) throws IOException {
+    int count = 0;
+    while (count < limit) {
+      long pos = myHead;
+      int index = (int)(pos & myMask);
+      if (mySequences.get(index) - (pos + 1) < 0) {
+        break;
+      }
+
+      byte type = myTypes[index];
+      int id = myIds[index];
+      int parent = myParents[index];
+      int priority = myPriorities[index];
+      long time = myTimes[index];
+      String text = myTexts[index];
+      myTexts[index] = null;
+      mySequences.lazySet(index, pos + CAPACITY);
+      myHead = pos + 1;
+
+      mySink.write(type, id, parent, priority, time, text);
+      count++;
+    }
+    myWritten += count;
+    return count;
+  }
+
+  private void reportDropped() throws IOException {
+    long dropped = myDropped.get();
+    if (dropped > myReportedDropped) {
+      mySink.write(AntEventProtocol.MESSAGE, AntEventProtocol.NO_ID, AntEventProtocol.NO_ID, Project.MSG_WARN, System.nanoTime(),
+                   (dropped - myReportedDropped) + " verbose messages were dropped, IDE is not reading build output fast enough");
+      myReportedDropped = dropped;
+    }
+  }
+
+  private void writeDirectly(byte type, int id, int parent, int priority, long time, String text) {
+    // event must follow queued ones
+    try {
+      myThread.join();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    if (myFailed) {
+      return;
+    }
+
+    synchronized (this) {
+      try {
+        mySink.write(type, id, parent, priority, time, text);
+        mySink.flush();
+      }
+      catch (IOException e) {
+        // ide is gone, nothing to report
+        myFailed = true;
+      }
+    }
+  }
+}
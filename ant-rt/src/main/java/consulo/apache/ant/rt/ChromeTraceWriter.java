@@ -0,0 +1,142 @@
+package consulo.apache.ant.rt;
+
+import consulo.apache.ant.rt.common.AntLoggerConstants;
+
+import java.io.*;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Writes targets and tasks as Chrome trace-event JSON (chrome://tracing, Perfetto), one lane per thread.
+ * Events are written on build thread which runs target or task, so begin and end of one event are always in one lane.
+ *
+ * @since 17/10/2026
+ */
+public class ChromeTraceWriter {
+  private final File myFile;
+  private final Writer myWriter;
+  private final long myStartTime;
+  private final Set<Long> myThreads = new HashSet<Long>();
+  private boolean myEmpty = true;
+  private boolean myClosed;
+
+  private ChromeTraceWriter(File file, Writer writer, long startTime) {
+    myFile = file;
+    myWriter = writer;
+    myStartTime = startTime;
+  }
+
+  /**
+   * @param path value of {@link AntLoggerConstants#TRACE_FILE_PROPERTY}
+   * @return writer to file, or null if trace is not requested
+   */
+  public static ChromeTraceWriter create(String path) {
+    if (path == null) {
+      return null;
+    }
+
+    try {
+      File file = new File(path);
+      File parent = file.getParentFile();
+      if (parent != null) {
+        parent.mkdirs();
+      }
+      Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"), 64 * 1024);
+      writer.write("[");
+      return new ChromeTraceWriter(file, writer, System.nanoTime());
+    }
+    catch (IOException e) {
+      return null;
+    }
+  }
+
+  public File getFile() {
+    return myFile;
+  }
+
+  /**
+   * @param target owner target of task, or null
+   */
+  public synchronized void begin(String name, String category, String target, long time) {
+    Thread thread = Thread.currentThread();
+    if (myThreads.add(thread.getId())) {
+      StringBuilder builder = new StringBuilder();
+      builder.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":").append(thread.getId());
+      builder.append(",\"args\":{\"name\":");
+      appendString(builder, thread.getName());
+      builder.append("}}");
+      write(builder);
+    }
+
+    StringBuilder builder = event(name, category, "B", time);
+    if (target != null) {
+      builder.append(",\"args\":{\"target\":");
+      appendString(builder, target);
+      builder.append("}");
+    }
+    builder.append("}");
+    write(builder);
+  }
+
+  public synchronized void end(String name, String category, long time) {
+    write(event(name, category, "E", time).append("}"));
+  }
+
+  public synchronized void close() {
+    if (myClosed) {
+      return;
+    }
+
+    myClosed = true;
+    try {
+      myWriter.write("\n]\n");
+      myWriter.close();
+    }
+    catch (IOException ignored) {
+    }
+  }
+
+  private StringBuilder event(String name, String category, String phase, long time) {
+    StringBuilder builder = new StringBuilder(128);
+    builder.append("{\"name\":");
+    appendString(builder, name);
+    builder.append(",\"cat\":\"").append(category);
+    builder.append("\",\"ph\":\"").append(phase);
+    builder.append("\",\"ts\":").append((time - myStartTime) / 1000);
+    builder.append(",\"pid\":1,\"tid\":").append(Thread.currentThread().getId());
+    return builder;
+  }
+
+  private void write(StringBuilder event) {
+    if (myClosed) {
+      return;
+    }
+
+    try {
+      myWriter.write(myEmpty ? "\n" : ",\n");
+      myWriter.append(event);
+      myEmpty = false;
+    }
+    catch (IOException ignored) {
+    }
+  }
+
+  private static void appendString(StringBuilder builder, String value) {
+    builder.append('"');
+    if (value != null) {
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '"' || c == '\\') {
+          builder.append('\\').append(c);
+        }
+        else if (c < 0x20) {
+          builder.append(String.format("\\u%04x", (int)c));
+        }
+        else {
+          builder.append(c);
+        }
+      }
+    }
+    builder.append('"');
+  }
+}
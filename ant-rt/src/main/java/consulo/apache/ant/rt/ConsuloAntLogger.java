@@ -1,47 +1,284 @@
 package consulo.apache.ant.rt;
 
-import com.intellij.rt.ant.execution.AntMain2;
-import jetbrains.buildServer.messages.serviceMessages.*;
+import consulo.apache.ant.rt.cache.TargetCacheListener;
+import consulo.apache.ant.rt.common.AntEventProtocol;
+import consulo.apache.ant.rt.common.AntLoggerConstants;
+import consulo.apache.ant.rt.javac.CompilerDiagnosticListener;
 import org.apache.tools.ant.BuildEvent;
 import org.apache.tools.ant.DefaultLogger;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author VISTALL
  * @since 08/05/2023
  */
-public class ConsuloAntLogger extends DefaultLogger {
+public class ConsuloAntLogger extends DefaultLogger implements TargetCacheListener, CompilerDiagnosticListener {
+  private final Map<Object, Integer> myIds = new IdentityHashMap<Object, Integer>();
+  private int myLastId = AntEventProtocol.NO_ID;
+  // ids of running targets and tasks, by thread. Targets can run in parallel, see ParallelExecutor
+  private final ThreadLocal<List<Integer>> myRunning = new ThreadLocal<List<Integer>>() {
+    @Override
+    protected List<Integer> initialValue() {
+      return new ArrayList<Integer>();
+    }
+  };
+
+  private final AntEventSink mySink = createSink();
+  // null, if events are written on build threads
+  private final AsyncEventQueue myQueue = isWrittenInBackground(mySink) ? new AsyncEventQueue(mySink) : null;
+
+  private volatile boolean myTraceResolved;
+  private ChromeTraceWriter myTrace;
+  private final FlightRecorderEvents myFlightRecorder = FlightRecorderEvents.create();
+  private final Map<Object, Object> myFlightEvents = new IdentityHashMap<Object, Object>();
+
+  /**
+   * Called from constructor, so must not depend on subclass state
+   */
+  protected AntEventSink createSink() {
+    return new ServiceMessageSink();
+  }
+
+  /**
+   * Service messages share stdout with output of tasks, so they are printed on build thread, in order with it.
+   * Events of own channel are written in background
+   */
+  static boolean isWrittenInBackground(AntEventSink sink) {
+    return !(sink instanceof ServiceMessageSink);
+  }
+
+  private void offer(byte type, int id, int parent, int priority, long time, String text) {
+    if (myQueue != null) {
+      myQueue.offer(type, id, parent, priority, time, text);
+      return;
+    }
+
+    synchronized (mySink) {
+      try {
+        mySink.write(type, id, parent, priority, time, text);
+      }
+      catch (IOException ignored) {
+      }
+    }
+  }
+
   @Override
   public void buildStarted(BuildEvent event) {
-    AntMain2.OUT.println(new BuildStatus(String.valueOf(event.getPriority()), "buildStarted"));
+    // ide measures jvm startup with it
+    String uptime = String.valueOf(ManagementFactory.getRuntimeMXBean().getUptime());
+    offer(AntEventProtocol.BUILD_STARTED, AntEventProtocol.NO_ID, AntEventProtocol.NO_ID, event.getPriority(), System.nanoTime(),
+                  uptime);
   }
 
   @Override
   public void buildFinished(BuildEvent event) {
-    AntMain2.OUT.println(new BuildStatus(String.valueOf(event.getPriority()), "buildFinished"));
+    ChromeTraceWriter trace = getTrace(event);
+    if (trace != null) {
+      trace.close();
+      offer(AntEventProtocol.MESSAGE, AntEventProtocol.NO_ID, AntEventProtocol.NO_ID, Project.MSG_INFO, System.nanoTime(),
+                    "Build trace: " + trace.getFile().getAbsolutePath());
+    }
+
+    offer(AntEventProtocol.BUILD_FINISHED, AntEventProtocol.NO_ID, AntEventProtocol.NO_ID, event.getPriority(),
+                  System.nanoTime(), null);
+    if (myQueue != null) {
+      myQueue.close();
+    }
+    else {
+      synchronized (mySink) {
+        try {
+          mySink.flush();
+        }
+        catch (IOException ignored) {
+        }
+      }
+    }
   }
 
   @Override
   public void targetStarted(BuildEvent event) {
-    AntMain2.OUT.println(new ProgressStart(event.getTarget().getName()));
+    long time = System.nanoTime();
+    Target target = event.getTarget();
+    // target of antcall is nested into task
+    int parent = getRunningId();
+    offer(AntEventProtocol.TARGET_STARTED, startId(target), parent, event.getPriority(), time, target.getName());
+
+    ChromeTraceWriter trace = getTrace(event);
+    if (trace != null) {
+      trace.begin(target.getName(), "target", null, time);
+    }
+    if (myFlightRecorder != null) {
+      startFlightEvent(target, myFlightRecorder.beginTarget(target.getName()));
+    }
   }
 
   @Override
   public void targetFinished(BuildEvent event) {
-    AntMain2.OUT.println(new ProgressFinish(event.getTarget().getName()));
+    long time = System.nanoTime();
+    Target target = event.getTarget();
+    offer(AntEventProtocol.TARGET_FINISHED, finishId(target), AntEventProtocol.NO_ID, event.getPriority(), time,
+                  target.getName());
+
+    ChromeTraceWriter trace = getTrace(event);
+    if (trace != null) {
+      trace.end(target.getName(), "target", time);
+    }
+    if (myFlightRecorder != null) {
+      myFlightRecorder.end(finishFlightEvent(target));
+    }
+  }
+
+  public void targetUpToDate(BuildEvent event) {
+    Target target = event.getTarget();
+    offer(AntEventProtocol.TARGET_UP_TO_DATE, getId(target), AntEventProtocol.NO_ID, Project.MSG_INFO, System.nanoTime(),
+                  target.getName());
   }
 
   @Override
   public void taskStarted(BuildEvent event) {
-    AntMain2.OUT.println(new TestStarted(event.getTask().getTaskName(), false, null));
+    long time = System.nanoTime();
+    Task task = event.getTask();
+    int parent = getRunningId();
+    if (parent == AntEventProtocol.NO_ID) {
+      // task of parallel is running in own thread
+      parent = getId(task.getOwningTarget());
+    }
+    offer(AntEventProtocol.TASK_STARTED, startId(task), parent, event.getPriority(), time, task.getTaskName());
+
+    ChromeTraceWriter trace = getTrace(event);
+    if (trace != null || myFlightRecorder != null) {
+      Target owner = task.getOwningTarget();
+      String target = owner == null ? null : owner.getName();
+      if (trace != null) {
+        trace.begin(task.getTaskName(), "task", target, time);
+      }
+      if (myFlightRecorder != null) {
+        startFlightEvent(task, myFlightRecorder.beginTask(task.getTaskName(), target));
+      }
+    }
   }
 
   @Override
   public void taskFinished(BuildEvent event) {
-    AntMain2.OUT.println(new TestFinished(event.getTask().getTaskName(), 0));
+    long time = System.nanoTime();
+    Task task = event.getTask();
+    offer(AntEventProtocol.TASK_FINISHED, finishId(task), AntEventProtocol.NO_ID, event.getPriority(), time,
+                  task.getTaskName());
+
+    ChromeTraceWriter trace = getTrace(event);
+    if (trace != null) {
+      trace.end(task.getTaskName(), "task", time);
+    }
+    if (myFlightRecorder != null) {
+      myFlightRecorder.end(finishFlightEvent(task));
+    }
   }
 
   @Override
   public void messageLogged(BuildEvent event) {
-    AntMain2.OUT.println(new Message(event.getMessage(), String.valueOf(event.getPriority()), null));
+    // do not pay for messages, which ide will not show
+    if (event.getPriority() > AntControl.getOutputLevel(msgOutputLevel)) {
+      return;
+    }
+
+    int id = getRunningId();
+    if (id == AntEventProtocol.NO_ID) {
+      id = getId(event.getTask() != null ? event.getTask() : event.getTarget());
+    }
+    offer(AntEventProtocol.MESSAGE, id, AntEventProtocol.NO_ID, event.getPriority(), System.nanoTime(),
+                  event.getMessage());
+  }
+
+  public void compilerDiagnostic(BuildEvent event, String kind, String file, int line, int column, String code, String message) {
+    if (event.getPriority() > AntControl.getOutputLevel(msgOutputLevel)) {
+      return;
+    }
+
+    int id = getRunningId();
+    if (id == AntEventProtocol.NO_ID) {
+      id = getId(event.getTask());
+    }
+    StringBuilder payload = new StringBuilder();
+    payload.append(kind).append('\n');
+    payload.append(line).append('\n');
+    payload.append(column).append('\n');
+    payload.append(code == null ? "" : code).append('\n');
+    payload.append(file == null ? "" : file).append('\n');
+    payload.append(message);
+    offer(AntEventProtocol.COMPILER_DIAGNOSTIC, id, AntEventProtocol.NO_ID, event.getPriority(), System.nanoTime(),
+                  payload.toString());
+  }
+
+  /**
+   * Trace file is ant property, which is not set yet when build is started
+   */
+  private ChromeTraceWriter getTrace(BuildEvent event) {
+    if (!myTraceResolved) {
+      synchronized (this) {
+        if (!myTraceResolved) {
+          myTrace = ChromeTraceWriter.create(event.getProject().getProperty(AntLoggerConstants.TRACE_FILE_PROPERTY));
+          myTraceResolved = true;
+        }
+      }
+    }
+    return myTrace;
+  }
+
+  private void startFlightEvent(Object owner, Object flightEvent) {
+    if (flightEvent != null) {
+      synchronized (myFlightEvents) {
+        myFlightEvents.put(owner, flightEvent);
+      }
+    }
+  }
+
+  private Object finishFlightEvent(Object owner) {
+    synchronized (myFlightEvents) {
+      return myFlightEvents.remove(owner);
+    }
+  }
+
+  private int startId(Object owner) {
+    int id;
+    synchronized (this) {
+      id = ++myLastId;
+      myIds.put(owner, id);
+    }
+    myRunning.get().add(id);
+    return id;
+  }
+
+  private int finishId(Object owner) {
+    Integer id;
+    synchronized (this) {
+      id = myIds.remove(owner);
+    }
+    if (id == null) {
+      return AntEventProtocol.NO_ID;
+    }
+    myRunning.get().remove(id);
+    return id;
+  }
+
+  private synchronized int getId(Object owner) {
+    Integer id = owner == null ? null : myIds.get(owner);
+    return id == null ? AntEventProtocol.NO_ID : id;
+  }
+
+  /**
+   * @return id of innermost target or task, running in current thread
+   */
+  private int getRunningId() {
+    List<Integer> running = myRunning.get();
+    return running.isEmpty() ? AntEventProtocol.NO_ID : running.get(running.size() - 1);
   }
 }
@@ -0,0 +1,24 @@
+package consulo.apache.ant.rt;
+
+import com.intellij.rt.ant.execution.AntMain2;
+import consulo.apache.ant.rt.common.AntEventProtocol;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Sends build events in {@link AntEventProtocol} frames to {@link AntMain2#getEvents()} channel.
+ * If IDE did not open channel, or connect failed - works as {@link ConsuloAntLogger}
+ *
+ * @since 17/10/2026
+ */
+public class ConsuloBinaryAntLogger extends ConsuloAntLogger {
+  @Override
+  protected AntEventSink createSink() {
+    OutputStream events = AntMain2.getEvents();
+    if (events == null) {
+      return super.createSink();
+    }
+    return new AntEventWriter(new BufferedOutputStream(events, 64 * 1024));
+  }
+}
@@ -0,0 +1,123 @@
+package consulo.apache.ant.rt;
+
+import consulo.apache.ant.rt.common.AntLoggerConstants;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JFR events {@code consulo.ant.Target} and {@code consulo.ant.Task}, so recording of forked JVM shows which target
+ * and task was running during GC pause or lock contention.
+ * <p>
+ * ant-rt is compiled for old JVMs, so events are defined at runtime with {@code jdk.jfr.EventFactory} (JDK 11+)
+ * through reflection. Event is began and committed on build thread, which runs target or task.
+ *
+ * @since 17/10/2026
+ */
+public class FlightRecorderEvents {
+  private final Object myTargetFactory;
+  private final Object myTaskFactory;
+  private final Method myNewEvent;
+  private final Method mySet;
+  private final Method myBegin;
+  private final Method myEnd;
+  private final Method myCommit;
+
+  private FlightRecorderEvents(Object targetFactory, Object taskFactory, Method newEvent, Method set, Method begin, Method end,
+                               Method commit) {
+    myTargetFactory = targetFactory;
+    myTaskFactory = taskFactory;
+    myNewEvent = newEvent;
+    mySet = set;
+    myBegin = begin;
+    myEnd = end;
+    myCommit = commit;
+  }
+
+  /**
+   * @return null if JVM has no flight recorder, or recording was not started with JVM and
+   * {@link AntLoggerConstants#FLIGHT_RECORDER_PROPERTY} is not set
+   */
+  public static FlightRecorderEvents create() {
+    try {
+      Class<?> recorderClass = Class.forName("jdk.jfr.FlightRecorder");
+      boolean initialized = ((Boolean)recorderClass.getMethod("isInitialized").invoke(null)).booleanValue();
+      if (!initialized && !Boolean.getBoolean(AntLoggerConstants.FLIGHT_RECORDER_PROPERTY)) {
+        return null;
+      }
+
+      Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+      Class<?> eventClass = Class.forName("jdk.jfr.Event");
+      Object targetFactory = createFactory(factoryClass, "consulo.ant.Target", "Ant Target");
+      Object taskFactory = createFactory(factoryClass, "consulo.ant.Task", "Ant Task");
+      return new FlightRecorderEvents(targetFactory,
+                                      taskFactory,
+                                      factoryClass.getMethod("newEvent"),
+                                      eventClass.getMethod("set", int.class, Object.class),
+                                      eventClass.getMethod("begin"),
+                                      eventClass.getMethod("end"),
+                                      eventClass.getMethod("commit"));
+    }
+    catch (Throwable e) {
+      return null;
+    }
+  }
+
+  private static Object createFactory(Class<?> factoryClass, String name, String label) throws Exception {
+    Class<?> annotationClass = Class.forName("jdk.jfr.AnnotationElement");
+    Class<?> descriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+    Constructor<?> annotation = annotationClass.getConstructor(Class.class, Object.class);
+    Constructor<?> descriptor = descriptorClass.getConstructor(Class.class, String.class);
+
+    List<Object> annotations = Arrays.asList(annotation.newInstance(Class.forName("jdk.jfr.Name"), name),
+                                             annotation.newInstance(Class.forName("jdk.jfr.Label"), label),
+                                             annotation.newInstance(Class.forName("jdk.jfr.Category"), new String[]{"Ant"}),
+                                             // stack is always logger callback
+                                             annotation.newInstance(Class.forName("jdk.jfr.StackTrace"), Boolean.FALSE));
+    List<Object> fields = Arrays.asList(descriptor.newInstance(String.class, "name"),
+                                        descriptor.newInstance(String.class, "target"));
+    return factoryClass.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+  }
+
+  /**
+   * @return event, which must be passed to {@link #end(Object)} on same thread
+   */
+  public Object beginTarget(String name) {
+    return begin(myTargetFactory, name, null);
+  }
+
+  /**
+   * @return event, which must be passed to {@link #end(Object)} on same thread
+   */
+  public Object beginTask(String name, String target) {
+    return begin(myTaskFactory, name, target);
+  }
+
+  private Object begin(Object factory, String name, String target) {
+    try {
+      Object event = myNewEvent.invoke(factory);
+      mySet.invoke(event, 0, name);
+      mySet.invoke(event, 1, target);
+      myBegin.invoke(event);
+      return event;
+    }
+    catch (Exception e) {
+      return null;
+    }
+  }
+
+  public void end(Object event) {
+    if (event == null) {
+      return;
+    }
+
+    try {
+      myEnd.invoke(event);
+      myCommit.invoke(event);
+    }
+    catch (Exception ignored) {
+    }
+  }
+}
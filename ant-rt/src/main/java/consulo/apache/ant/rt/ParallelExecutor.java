@@ -0,0 +1,245 @@
+package consulo.apache.ant.rt;
+
+import consulo.apache.ant.rt.cache.TargetCache;
+import org.apache.tools.ant.*;
+import org.apache.tools.ant.helper.SingleCheckExecutor;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs targets of {@code depends} graph concurrently: target is started when all its dependencies are finished.
+ * Every target is executed once, like with {@link SingleCheckExecutor}. {@code if}/{@code unless} are checked by target
+ * itself, when it's started.
+ * <p>
+ * Targets, given on command line, run one after another, like with {@link org.apache.tools.ant.helper.DefaultExecutor}:
+ * {@code clean dist} starts targets of {@code dist} when {@code clean} and its dependencies are finished.
+ * <p>
+ * Targets, listed in {@link #SERIAL_TARGETS_PROPERTY}, are not parallel-safe: they run when no other target is running.
+ * Size of pool is {@link #THREADS_PROPERTY}, count of processors by default.
+ * <p>
+ * Enabled with {@code -Dant.executor.class=consulo.apache.ant.rt.ParallelExecutor}
+ *
+ * @since 17/10/2026
+ */
+public class ParallelExecutor implements Executor {
+  public static final String THREADS_PROPERTY = "consulo.ant.parallel.threads";
+  public static final String SERIAL_TARGETS_PROPERTY = "consulo.ant.parallel.serial";
+
+  private final Object myLock = new Object();
+
+  public void executeTargets(Project project, String[] targetNames) throws BuildException {
+    TargetCache.install(project);
+    ExecutorService pool = Executors.newFixedThreadPool(getThreads(project), new TargetThreadFactory());
+    Set<String> planned = new HashSet<String>();
+    BuildException failure = null;
+    try {
+      for (String targetName : targetNames) {
+        try {
+          run(project, plan(project, targetName, planned), pool);
+        }
+        catch (BuildException e) {
+          if (!project.isKeepGoingMode()) {
+            throw e;
+          }
+          failure = e;
+        }
+      }
+    }
+    finally {
+      pool.shutdown();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  public Executor getSubProjectExecutor() {
+    // antcall and ant tasks run in target thread
+    return new SingleCheckExecutor();
+  }
+
+  /**
+   * @param planned targets of previous command line targets, they are not executed again
+   * @return target and its dependencies, which are not planned yet
+   */
+  private static List<Node> plan(Project project, String targetName, Set<String> planned) {
+    @SuppressWarnings("unchecked")
+    Vector<Target> sorted = project.topoSort(new String[]{targetName}, project.getTargets(), false);
+    Set<String> serial = parseList(project.getProperty(SERIAL_TARGETS_PROPERTY));
+
+    Map<String, Node> nodes = new LinkedHashMap<String, Node>();
+    for (Target target : sorted) {
+      if (planned.add(target.getName())) {
+        nodes.put(target.getName(), new Node(target, serial.contains(target.getName())));
+      }
+    }
+
+    for (Node node : nodes.values()) {
+      for (Enumeration<?> dependencies = node.myTarget.getDependencies(); dependencies.hasMoreElements(); ) {
+        Node dependency = nodes.get(dependencies.nextElement());
+        if (dependency != null) {
+          node.myPendingDependencies++;
+          dependency.myDependents.add(node);
+        }
+      }
+    }
+    return new ArrayList<Node>(nodes.values());
+  }
+
+  private void run(final Project project, List<Node> nodes, ExecutorService pool) {
+    final boolean keepGoing = project.isKeepGoingMode();
+    List<Node> waiting = new LinkedList<Node>(nodes);
+    final BuildException[] failure = new BuildException[1];
+    final String[] failedTarget = new String[1];
+    final int[] running = new int[1];
+    final boolean[] serialRunning = new boolean[1];
+
+    synchronized (myLock) {
+      while (true) {
+        boolean stopped = failure[0] != null && !keepGoing;
+
+        for (Iterator<Node> iterator = waiting.iterator(); iterator.hasNext() && !stopped && !serialRunning[0]; ) {
+          final Node node = iterator.next();
+          if (node.mySkipped) {
+            // dependency failed in keep going mode
+            iterator.remove();
+            continue;
+          }
+          if (node.myPendingDependencies > 0) {
+            continue;
+          }
+          if (node.mySerial && running[0] > 0) {
+            // wait until running targets are finished
+            break;
+          }
+
+          iterator.remove();
+          running[0]++;
+          serialRunning[0] = node.mySerial;
+          pool.execute(new Runnable() {
+            public void run() {
+              BuildException error = null;
+              try {
+                node.myTarget.performTasks();
+              }
+              catch (Throwable e) {
+                error = e instanceof BuildException ? (BuildException)e : new BuildException(e);
+              }
+
+              synchronized (myLock) {
+                running[0]--;
+                serialRunning[0] = false;
+                if (error != null) {
+                  if (failure[0] == null) {
+                    failure[0] = error;
+                    failedTarget[0] = node.myTarget.getName();
+                  }
+                  if (keepGoing) {
+                    project.log("Target '" + node.myTarget.getName() + "' failed with message '" + error.getMessage() + "'.",
+                                Project.MSG_ERR);
+                  }
+                  skipDependents(node);
+                }
+                else {
+                  for (Node dependent : node.myDependents) {
+                    dependent.myPendingDependencies--;
+                  }
+                }
+                myLock.notifyAll();
+              }
+            }
+          });
+        }
+
+        if (running[0] == 0 && (stopped || !hasRunnable(waiting))) {
+          break;
+        }
+
+        try {
+          myLock.wait();
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new BuildException("Build interrupted");
+        }
+      }
+    }
+
+    if (failure[0] != null) {
+      if (keepGoing) {
+        throw new BuildException("Target '" + failedTarget[0] + "' failed with message '" + failure[0].getMessage() + "'.",
+                                 failure[0]);
+      }
+      throw failure[0];
+    }
+  }
+
+  private static boolean hasRunnable(List<Node> waiting) {
+    for (Node node : waiting) {
+      if (!node.mySkipped) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void skipDependents(Node node) {
+    for (Node dependent : node.myDependents) {
+      if (!dependent.mySkipped) {
+        dependent.mySkipped = true;
+        skipDependents(dependent);
+      }
+    }
+  }
+
+  private static int getThreads(Project project) {
+    String value = project.getProperty(THREADS_PROPERTY);
+    if (value != null) {
+      try {
+        return Math.max(1, Integer.parseInt(value.trim()));
+      }
+      catch (NumberFormatException ignored) {
+      }
+    }
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  private static Set<String> parseList(String value) {
+    Set<String> result = new HashSet<String>();
+    if (value != null) {
+      for (String name : value.split(",")) {
+        if (name.trim().length() > 0) {
+          result.add(name.trim());
+        }
+      }
+    }
+    return result;
+  }
+
+  private static class Node {
+    private final Target myTarget;
+    private final boolean mySerial;
+    private final List<Node> myDependents = new ArrayList<Node>();
+    private int myPendingDependencies;
+    private boolean mySkipped;
+
+    private Node(Target target, boolean serial) {
+      myTarget = target;
+      mySerial = serial;
+    }
+  }
+
+  private static class TargetThreadFactory implements ThreadFactory {
+    private final AtomicInteger myCounter = new AtomicInteger();
+
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "Ant Target Runner " + myCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package consulo.apache.ant.rt;
+
+import com.intellij.rt.ant.execution.AntMain2;
+import consulo.apache.ant.rt.common.AntEventProtocol;
+import consulo.apache.ant.rt.common.AntLoggerConstants;
+import jetbrains.buildServer.messages.serviceMessages.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prints build events as TeamCity service messages to {@link AntMain2#OUT}
+ *
+ * @since 17/10/2026
+ */
+public class ServiceMessageSink implements AntEventSink {
+  public void write(byte type, int id, int parent, int priority, long time, String text) {
+    switch (type) {
+      case AntEventProtocol.BUILD_STARTED:
+        // BuildStatus has no place for uptime, so attributes are written as is
+        Map<String, String> attributes = new LinkedHashMap<String, String>();
+        attributes.put("text", String.valueOf(priority));
+        attributes.put("status", "buildStarted");
+        attributes.put(AntLoggerConstants.UPTIME_ATTRIBUTE, text);
+        AntMain2.OUT.println(ServiceMessage.asString("buildStatus", attributes));
+        break;
+      case AntEventProtocol.BUILD_FINISHED:
+        AntMain2.OUT.println(new BuildStatus(String.valueOf(priority), "buildFinished"));
+        break;
+      case AntEventProtocol.TARGET_STARTED:
+        AntMain2.OUT.println(new ProgressStart(text));
+        break;
+      case AntEventProtocol.TARGET_FINISHED:
+        AntMain2.OUT.println(new ProgressFinish(text));
+        break;
+      case AntEventProtocol.TASK_STARTED:
+        AntMain2.OUT.println(new TestStarted(text, false, null));
+        break;
+      case AntEventProtocol.TASK_FINISHED:
+        AntMain2.OUT.println(new TestFinished(text, 0));
+        break;
+      case AntEventProtocol.TARGET_UP_TO_DATE:
+        AntMain2.OUT.println(ServiceMessage.asString(AntLoggerConstants.TARGET_UP_TO_DATE_MESSAGE, text));
+        break;
+      case AntEventProtocol.COMPILER_DIAGNOSTIC:
+        AntMain2.OUT.println(ServiceMessage.asString(AntLoggerConstants.COMPILER_DIAGNOSTIC_MESSAGE, text));
+        break;
+      case AntEventProtocol.MESSAGE:
+        AntMain2.OUT.println(new Message(text, String.valueOf(priority), null));
+        break;
+    }
+  }
+
+  public void flush() {
+    AntMain2.OUT.flush();
+  }
+}
@@ -0,0 +1,109 @@
+package consulo.apache.ant.rt.cache;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.PropertyHelper;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.UnknownElement;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Target, which is skipped when its inputs are not changed, see {@link TargetCache}
+ *
+ * @since 17/10/2026
+ */
+class CachedTarget extends Target {
+  private final TargetCache myCache;
+  private final String myInputs;
+  private final String myOutputs;
+
+  CachedTarget(Target target, TargetCache cache, String inputs, String outputs) {
+    super(target);
+    myCache = cache;
+    myInputs = inputs;
+    myOutputs = outputs;
+    // tasks are shared with original target, logger finds target of task in parallel thread by owner
+    for (Task task : getTasks()) {
+      adopt(task);
+    }
+  }
+
+  private void adopt(Task task) {
+    task.setOwningTarget(this);
+    if (task instanceof UnknownElement) {
+      List<?> children = ((UnknownElement)task).getChildren();
+      if (children != null) {
+        for (Object child : children) {
+          adopt((Task)child);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void execute() throws BuildException {
+    if (!isEnabled()) {
+      // let target log, why it's skipped
+      super.execute();
+      return;
+    }
+
+    Project project = getProject();
+    TargetCache.Entry entry;
+    try {
+      entry = myCache.open(this, myInputs, myOutputs);
+      if (entry.isUpToDate()) {
+        project.log(this, "Skipped because inputs are not changed.", Project.MSG_VERBOSE);
+        fireUpToDate();
+        return;
+      }
+
+      int restored = entry.restore();
+      if (restored >= 0) {
+        project.log(this, "Restored " + restored + " output file(s) from target cache.", Project.MSG_INFO);
+        fireUpToDate();
+        return;
+      }
+    }
+    catch (IOException e) {
+      project.log(this, "Target cache is not available: " + e.getMessage(), Project.MSG_WARN);
+      super.execute();
+      return;
+    }
+
+    entry.invalidate();
+    super.execute();
+    try {
+      entry.store();
+    }
+    catch (IOException e) {
+      project.log(this, "Cannot store target cache: " + e.getMessage(), Project.MSG_WARN);
+    }
+  }
+
+  private void fireUpToDate() {
+    BuildEvent event = new BuildEvent(this);
+    for (Object listener : getProject().getBuildListeners()) {
+      if (listener instanceof TargetCacheListener) {
+        ((TargetCacheListener)listener).targetUpToDate(event);
+      }
+    }
+  }
+
+  /**
+   * Same check as private {@code Target.testIfAllows()} and {@code Target.testUnlessAllows()}
+   */
+  private boolean isEnabled() {
+    PropertyHelper propertyHelper = PropertyHelper.getPropertyHelper(getProject());
+    String condition = getIf();
+    if (condition != null && !propertyHelper.testIfCondition(propertyHelper.parseProperties(condition))) {
+      return false;
+    }
+    condition = getUnless();
+    return condition == null || propertyHelper.testUnlessCondition(propertyHelper.parseProperties(condition));
+  }
+}
@@ -0,0 +1,516 @@
+package consulo.apache.ant.rt.cache;
+
+import consulo.apache.ant.rt.common.AntLoggerConstants;
+import consulo.apache.ant.rt.common.TargetCacheLayout;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.ProjectHelper;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.types.FileSet;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.SAXParserFactory;
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Target level build cache. Target declares files, which it reads and writes:
+ * <pre>
+ * &lt;project xmlns:cache="urn:consulo:ant:target-cache"&gt;
+ *   &lt;target name="jaxb" cache:inputs="schema/**&#47;*.xsd" cache:outputs="gen/**"&gt;
+ * </pre>
+ * Patterns are fileset includes, relative to project base dir. Target is skipped, if content of inputs, build files
+ * (main one and imported ones), property files, which they load, and user properties is same as at last successful run,
+ * and outputs were not changed since it.
+ * <p>
+ * Inputs with same size and modification time are not read again, their hashes are taken from cache.
+ * <p>
+ * Outputs of every successful run are archived by fingerprint of inputs. If inputs match archived run (e.g. after switch
+ * to other branch and back), outputs are restored from archive instead of running target. Files are copied with
+ * {@link FileChannel#transferTo}, not hard linked: ant tasks rewrite existing files in place, which would change archive.
+ *
+ * @see AntLoggerConstants#TARGET_CACHE_NAMESPACE
+ * @see TargetCacheLayout
+ * @since 17/10/2026
+ */
+public class TargetCache {
+  private static final String INPUTS = "inputs";
+  private static final String OUTPUTS = "outputs";
+  private static final String FILE_PREFIX = "file:";
+  // hash of file, which does not exist, e.g. optional property file
+  private static final String MISSING = "-";
+
+  private final File myDirectory;
+  // main and imported build files
+  private final Set<String> myBuildFiles = new TreeSet<String>();
+  // file attributes of property and loadproperties, they are resolved when target runs
+  private final Set<String> myPropertyFiles = new LinkedHashSet<String>();
+
+  private TargetCache(File directory) {
+    myDirectory = directory;
+  }
+
+  /**
+   * Replaces targets, which declare inputs, with {@link CachedTarget}.
+   * Does nothing if {@link AntLoggerConstants#TARGET_CACHE_DIR_PROPERTY} is not set
+   */
+  public static void install(Project project) {
+    String directory = project.getProperty(AntLoggerConstants.TARGET_CACHE_DIR_PROPERTY);
+    if (directory == null) {
+      return;
+    }
+
+    TargetCache cache = new TargetCache(new File(directory));
+    cache.collectBuildFiles(project);
+    Map<String, Map<Integer, String[]>> declarations = new HashMap<String, Map<Integer, String[]>>();
+    for (String buildFile : cache.myBuildFiles) {
+      declarations.put(buildFile, readDeclarations(project, new File(buildFile), cache.myPropertyFiles));
+    }
+    // imported target can be registered under several names
+    Map<Target, Target> replaced = new IdentityHashMap<Target, Target>();
+    // copy - targets are replaced while iterating
+    List<String> names = new ArrayList<String>();
+    for (Object name : project.getTargets().keySet()) {
+      names.add((String)name);
+    }
+    for (String name : names) {
+      Target target = (Target)project.getTargets().get(name);
+      if (target instanceof CachedTarget) {
+        continue;
+      }
+
+      Target cachedTarget = replaced.get(target);
+      if (cachedTarget == null) {
+        Location location = target.getLocation();
+        if (location == null || location.getFileName() == null) {
+          continue;
+        }
+
+        Map<Integer, String[]> fileDeclarations = declarations.get(location.getFileName());
+        String[] declaration = fileDeclarations == null ? null : fileDeclarations.get(location.getLineNumber());
+        if (declaration == null) {
+          continue;
+        }
+        cachedTarget = new CachedTarget(target, cache, declaration[0], declaration[1]);
+        replaced.put(target, cachedTarget);
+      }
+      project.addOrReplaceTarget(name, cachedTarget);
+    }
+  }
+
+  /**
+   * Build files are files of targets, and imported files from import stack, which may have no targets
+   */
+  private void collectBuildFiles(Project project) {
+    for (Object target : project.getTargets().values()) {
+      Location location = ((Target)target).getLocation();
+      if (location != null && location.getFileName() != null) {
+        myBuildFiles.add(location.getFileName());
+      }
+    }
+
+    Object helper = project.getReference(ProjectHelper.PROJECTHELPER_REFERENCE);
+    if (helper instanceof ProjectHelper) {
+      for (Object source : ((ProjectHelper)helper).getImportStack()) {
+        File file = toFile(source);
+        if (file != null) {
+          myBuildFiles.add(file.getAbsolutePath());
+        }
+      }
+    }
+  }
+
+  /**
+   * @param source element of import stack: file, or file resource since Ant 1.8
+   */
+  private static File toFile(Object source) {
+    if (source instanceof File) {
+      return (File)source;
+    }
+    try {
+      Object file = source.getClass().getMethod("getFile").invoke(source);
+      return file instanceof File ? (File)file : null;
+    }
+    catch (Exception e) {
+      // url resource
+      return null;
+    }
+  }
+
+  /**
+   * Ant drops attributes of foreign namespaces, so they are read from build file. Target is found by line, which is same
+   * as in {@link Target#getLocation()}, because ant uses SAX locator too
+   *
+   * @param propertyFiles file attributes of property and loadproperties tasks of build file are added to it
+   * @return inputs and outputs by line of target
+   */
+  private static Map<Integer, String[]> readDeclarations(Project project, File file, final Set<String> propertyFiles) {
+    final Map<Integer, String[]> result = new HashMap<Integer, String[]>();
+    try {
+      SAXParserFactory factory = SAXParserFactory.newInstance();
+      factory.setNamespaceAware(true);
+      factory.newSAXParser().parse(file, new DefaultHandler() {
+        private Locator myLocator;
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+          myLocator = locator;
+        }
+
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId) {
+          // do not load DTD
+          return new InputSource(new StringReader(""));
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+          String propertyFile = null;
+          if ("property".equals(localName)) {
+            propertyFile = attributes.getValue("file");
+          }
+          else if ("loadproperties".equals(localName)) {
+            propertyFile = attributes.getValue("srcfile");
+            if (propertyFile == null) {
+              propertyFile = attributes.getValue("srcFile");
+            }
+          }
+          if (propertyFile != null) {
+            propertyFiles.add(propertyFile);
+          }
+
+          String inputs = attributes.getValue(AntLoggerConstants.TARGET_CACHE_NAMESPACE, INPUTS);
+          if (inputs != null && myLocator != null) {
+            String outputs = attributes.getValue(AntLoggerConstants.TARGET_CACHE_NAMESPACE, OUTPUTS);
+            result.put(myLocator.getLineNumber(), new String[]{inputs, outputs});
+          }
+        }
+      });
+    }
+    catch (Exception e) {
+      project.log("Cannot read target cache declarations from " + file + ": " + e.getMessage(), Project.MSG_WARN);
+    }
+    return result;
+  }
+
+  /**
+   * Hashes inputs of target
+   *
+   * @param outputs patterns of outputs, or null
+   */
+  Entry open(Target target, String inputs, String outputs) throws IOException {
+    Project project = target.getProject();
+    String buildFile = target.getLocation().getFileName();
+    String targetHash = hex(digest().digest((buildFile + "\n" + target.getName()).getBytes("UTF-8")));
+    File file = new File(new File(myDirectory, TargetCacheLayout.TARGETS_DIR), targetHash + TargetCacheLayout.ENTRY_EXTENSION);
+    Properties old = load(file);
+
+    Properties updated = new Properties();
+    MessageDigest digest = digest();
+    update(digest, buildFile);
+    update(digest, target.getName());
+    for (String path : myBuildFiles) {
+      update(digest, path);
+      update(digest, optionalFileHash(new File(path), old, updated));
+    }
+    for (String value : myPropertyFiles) {
+      // property, which names file, may be set by earlier target
+      File propertyFile = project.resolveFile(project.replaceProperties(value));
+      update(digest, propertyFile.getPath());
+      update(digest, optionalFileHash(propertyFile, old, updated));
+    }
+
+    SortedMap<String, String> properties = new TreeMap<String, String>();
+    for (Object o : project.getUserProperties().entrySet()) {
+      Map.Entry<?, ?> entry = (Map.Entry<?, ?>)o;
+      String name = String.valueOf(entry.getKey());
+      // ant.* and consulo.ant.* change from run to run
+      if (!name.startsWith("ant.") && !name.startsWith("consulo.ant.")) {
+        properties.put(name, String.valueOf(entry.getValue()));
+      }
+    }
+    for (Map.Entry<String, String> entry : properties.entrySet()) {
+      update(digest, entry.getKey() + "=" + entry.getValue());
+    }
+
+    for (String path : scan(project, inputs)) {
+      update(digest, path);
+      update(digest, fileHash(new File(project.getBaseDir(), path), old, updated));
+    }
+    return new Entry(file, target, outputs, old, updated, hex(digest.digest()));
+  }
+
+  private File getObject(String hash) {
+    return new File(new File(new File(myDirectory, TargetCacheLayout.OBJECTS_DIR), hash.substring(0, 2)), hash);
+  }
+
+  private File getArchiveEntry(String inputsHash) {
+    return new File(new File(myDirectory, TargetCacheLayout.ENTRIES_DIR), inputsHash + TargetCacheLayout.ENTRY_EXTENSION);
+  }
+
+  private static String optionalFileHash(File file, Properties old, Properties updated) throws IOException {
+    return file.isFile() ? fileHash(file, old, updated) : MISSING;
+  }
+
+  private static String fileHash(File file, Properties old, Properties updated) throws IOException {
+    String key = FILE_PREFIX + file.getPath();
+    String stat = file.length() + ":" + file.lastModified() + ":";
+    String cached = old.getProperty(key);
+
+    String hash;
+    if (cached != null && cached.startsWith(stat)) {
+      hash = cached.substring(stat.length());
+    }
+    else {
+      hash = contentHash(file);
+    }
+    updated.setProperty(key, stat + hash);
+    return hash;
+  }
+
+  private static String contentHash(File file) throws IOException {
+    MessageDigest digest = digest();
+    byte[] buffer = new byte[64 * 1024];
+    InputStream stream = new FileInputStream(file);
+    try {
+      int read;
+      while ((read = stream.read(buffer)) > 0) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    finally {
+      stream.close();
+    }
+    return hex(digest.digest());
+  }
+
+  private static void copy(File from, File to) throws IOException {
+    FileInputStream input = new FileInputStream(from);
+    try {
+      FileOutputStream output = new FileOutputStream(to);
+      try {
+        FileChannel source = input.getChannel();
+        FileChannel target = output.getChannel();
+        long size = source.size();
+        long position = 0;
+        while (position < size) {
+          position += source.transferTo(position, size - position, target);
+        }
+      }
+      finally {
+        output.close();
+      }
+    }
+    finally {
+      input.close();
+    }
+  }
+
+  private static Properties load(File file) throws IOException {
+    Properties properties = new Properties();
+    if (file.isFile()) {
+      InputStream stream = new FileInputStream(file);
+      try {
+        properties.load(stream);
+      }
+      catch (IllegalArgumentException e) {
+        // broken cache file - target will run
+        properties.clear();
+      }
+      finally {
+        stream.close();
+      }
+    }
+    return properties;
+  }
+
+  /**
+   * Writes temp file and renames it, so concurrent reader never sees half written file
+   */
+  private static void store(File file, Properties properties) throws IOException {
+    File parent = file.getParentFile();
+    parent.mkdirs();
+    File temp = File.createTempFile(file.getName(), ".tmp", parent);
+    OutputStream stream = new FileOutputStream(temp);
+    try {
+      properties.store(stream, null);
+    }
+    finally {
+      stream.close();
+    }
+    rename(temp, file);
+  }
+
+  private static void rename(File from, File to) {
+    if (!from.renameTo(to)) {
+      to.delete();
+      if (!from.renameTo(to)) {
+        from.delete();
+      }
+    }
+  }
+
+  /**
+   * Outputs are written by target, so their size and modification time are enough to see, that they are intact
+   */
+  private static String outputsHash(Project project, String outputs) throws IOException {
+    MessageDigest digest = digest();
+    for (String path : scan(project, outputs)) {
+      File file = new File(project.getBaseDir(), path);
+      update(digest, path + ":" + file.length() + ":" + file.lastModified());
+    }
+    return hex(digest.digest());
+  }
+
+  private static String[] scan(Project project, String patterns) {
+    if (patterns == null) {
+      return new String[0];
+    }
+
+    FileSet fileSet = new FileSet();
+    fileSet.setProject(project);
+    fileSet.setDir(project.getBaseDir());
+    fileSet.setIncludes(patterns);
+    String[] files = fileSet.getDirectoryScanner(project).getIncludedFiles();
+    Arrays.sort(files);
+    return files;
+  }
+
+  private static MessageDigest digest() throws IOException {
+    try {
+      return MessageDigest.getInstance("MD5");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IOException(e.getMessage());
+    }
+  }
+
+  private static void update(MessageDigest digest, String value) throws IOException {
+    digest.update(value.getBytes("UTF-8"));
+    digest.update((byte)0);
+  }
+
+  private static String hex(byte[] bytes) {
+    StringBuilder builder = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Cache entry of one target run
+   */
+  class Entry {
+    private final File myFile;
+    private final Target myTarget;
+    private final Project myProject;
+    private final String myOutputs;
+    private final Properties myOld;
+    private final Properties myUpdated;
+    private final String myInputsHash;
+
+    private Entry(File file, Target target, String outputs, Properties old, Properties updated, String inputsHash) {
+      myFile = file;
+      myTarget = target;
+      myProject = target.getProject();
+      myOutputs = outputs;
+      myOld = old;
+      myUpdated = updated;
+      myInputsHash = inputsHash;
+    }
+
+    boolean isUpToDate() throws IOException {
+      return myInputsHash.equals(myOld.getProperty(INPUTS)) && outputsHash(myProject, myOutputs).equals(myOld.getProperty(OUTPUTS));
+    }
+
+    /**
+     * Replaces outputs with archived outputs of run with same inputs
+     *
+     * @return count of restored files, or -1 if there is no such run
+     */
+    int restore() throws IOException {
+      File archiveEntry = getArchiveEntry(myInputsHash);
+      if (myOutputs == null || !archiveEntry.isFile()) {
+        return -1;
+      }
+
+      Map<String, File> objects = new TreeMap<String, File>();
+      Properties manifest = load(archiveEntry);
+      for (String key : manifest.stringPropertyNames()) {
+        if (key.startsWith(TargetCacheLayout.OUTPUT_PREFIX)) {
+          File object = getObject(manifest.getProperty(key));
+          if (!object.isFile()) {
+            // evicted by IDE
+            return -1;
+          }
+          objects.put(key.substring(TargetCacheLayout.OUTPUT_PREFIX.length()), object);
+        }
+      }
+
+      // outputs of other inputs
+      for (String path : scan(myProject, myOutputs)) {
+        new File(myProject.getBaseDir(), path).delete();
+      }
+      for (Map.Entry<String, File> entry : objects.entrySet()) {
+        File output = new File(myProject.getBaseDir(), entry.getKey());
+        output.getParentFile().mkdirs();
+        copy(entry.getValue(), output);
+      }
+      archiveEntry.setLastModified(System.currentTimeMillis());
+
+      storeRun();
+      return objects.size();
+    }
+
+    /**
+     * Called before target runs, so failed run is not taken as up to date
+     */
+    void invalidate() {
+      myFile.delete();
+    }
+
+    /**
+     * Called after target successfully finished
+     */
+    void store() throws IOException {
+      storeRun();
+      archive();
+    }
+
+    private void storeRun() throws IOException {
+      myUpdated.setProperty(INPUTS, myInputsHash);
+      myUpdated.setProperty(OUTPUTS, outputsHash(myProject, myOutputs));
+      TargetCache.store(myFile, myUpdated);
+    }
+
+    private void archive() throws IOException {
+      if (myOutputs == null) {
+        return;
+      }
+
+      Properties manifest = new Properties();
+      manifest.setProperty(TargetCacheLayout.BUILD_FILE_KEY, myTarget.getLocation().getFileName());
+      manifest.setProperty(TargetCacheLayout.TARGET_KEY, myTarget.getName());
+      for (String path : scan(myProject, myOutputs)) {
+        File output = new File(myProject.getBaseDir(), path);
+        String hash = contentHash(output);
+        File object = getObject(hash);
+        if (!object.isFile()) {
+          object.getParentFile().mkdirs();
+          File temp = File.createTempFile(hash, ".tmp", object.getParentFile());
+          copy(output, temp);
+          rename(temp, object);
+        }
+        manifest.setProperty(TargetCacheLayout.OUTPUT_PREFIX + path, hash);
+      }
+      TargetCache.store(getArchiveEntry(myInputsHash), manifest);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package consulo.apache.ant.rt.cache;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.helper.DefaultExecutor;
+
+/**
+ * Default executor with {@link TargetCache}.
+ * <p>
+ * Enabled with {@code -Dant.executor.class=consulo.apache.ant.rt.cache.TargetCacheExecutor}
+ *
+ * @since 17/10/2026
+ */
+public class TargetCacheExecutor extends DefaultExecutor {
+  @Override
+  public void executeTargets(Project project, String[] targetNames) throws BuildException {
+    TargetCache.install(project);
+    super.executeTargets(project, targetNames);
+  }
+}
@@ -0,0 +1,16 @@
+package consulo.apache.ant.rt.cache;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+
+/**
+ * Build listener, which is notified about targets, skipped by {@link TargetCache}
+ *
+ * @since 17/10/2026
+ */
+public interface TargetCacheListener extends BuildListener {
+  /**
+   * Called between {@link #targetStarted(BuildEvent)} and {@link #targetFinished(BuildEvent)} of skipped target
+   */
+  void targetUpToDate(BuildEvent event);
+}
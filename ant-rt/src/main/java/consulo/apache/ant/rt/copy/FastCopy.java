@@ -0,0 +1,32 @@
+package consulo.apache.ant.rt.copy;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.taskdefs.Copy;
+
+/**
+ * Drop-in replacement of {@code <copy>}: file sets are scanned and files are copied in parallel by
+ * {@link ParallelCopier}, one summary message is logged instead of message per file. Copy with filters or encodings
+ * is done by Ant copy, as is.
+ *
+ * @since 17/10/2026
+ */
+public class FastCopy extends Copy {
+  public void execute() throws BuildException {
+    ParallelCopier.scan(getProject(), rcs);
+    super.execute();
+  }
+
+  protected void doFileOperations() {
+    if (filtering || !getFilterSets().isEmpty() || !getFilterChains().isEmpty() ||
+        getEncoding() != null || getOutputEncoding() != null || getForce()) {
+      super.doFileOperations();
+      return;
+    }
+
+    ParallelCopier.copy(this, fileCopyMap, destDir, forceOverwrite, preserveLastModified, failonerror, verbosity);
+
+    if (includeEmpty) {
+      ParallelCopier.createEmptyDirs(this, dirCopyMap, destDir);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package consulo.apache.ant.rt.copy;
+
+import org.apache.tools.ant.AntTypeDefinition;
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.ComponentHelper;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.TaskAdapter;
+
+/**
+ * Replaces {@code <copy>} and {@code <sync>} with {@link FastCopy} and {@link FastSync} in every project of build,
+ * subprojects included, so build file does not change. Added by IDE with {@code -listener}.
+ * <p>
+ * Default tasks are defined by {@code Project.init()}, after build is started, so tasks are replaced when project
+ * starts its first task. Build files can use replacements without IDE too, with
+ * {@code xmlns:fast="antlib:consulo.apache.ant.rt.copy"}.
+ *
+ * @since 17/10/2026
+ */
+public class FastCopyInstaller implements BuildListener {
+  public void buildStarted(BuildEvent event) {
+  }
+
+  public void buildFinished(BuildEvent event) {
+  }
+
+  public void targetStarted(BuildEvent event) {
+  }
+
+  public void targetFinished(BuildEvent event) {
+  }
+
+  public void taskStarted(BuildEvent event) {
+    install(event.getProject());
+  }
+
+  public void taskFinished(BuildEvent event) {
+  }
+
+  public void messageLogged(BuildEvent event) {
+  }
+
+  private static void install(Project project) {
+    ComponentHelper helper = ComponentHelper.getComponentHelper(project);
+    replace(helper, "copy", FastCopy.class);
+    replace(helper, "sync", FastSync.class);
+  }
+
+  private static void replace(ComponentHelper helper, String name, Class<? extends Task> taskClass) {
+    AntTypeDefinition old = helper.getDefinition(name);
+    if (old != null && taskClass.getName().equals(old.getClassName())) {
+      return;
+    }
+
+    AntTypeDefinition definition = new Replacement();
+    definition.setName(name);
+    definition.setClassName(taskClass.getName());
+    definition.setClass(taskClass);
+    definition.setClassLoader(taskClass.getClassLoader());
+    definition.setAdapterClass(TaskAdapter.class);
+    definition.setAdaptToClass(Task.class);
+    helper.addDataTypeDefinition(definition);
+  }
+
+  /**
+   * Definition, which replaces Ant task. Replacement is intended, so Ant logs it as verbose message, not as warning
+   */
+  private static class Replacement extends AntTypeDefinition {
+    public boolean similarDefinition(AntTypeDefinition other, Project project) {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package consulo.apache.ant.rt.copy;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.taskdefs.Sync;
+
+import java.lang.reflect.Field;
+
+/**
+ * Drop-in replacement of {@code <sync>}: copy part of task is done by {@link ParallelCopier}. Sync keeps its copy
+ * task in private field, it's replaced by reflection; Ant copy is used if it fails.
+ *
+ * @since 17/10/2026
+ */
+public class FastSync extends Sync {
+  public void init() throws BuildException {
+    super.init();
+
+    // same configuration as Sync.init() does
+    ParallelSyncCopy copy = new ParallelSyncCopy();
+    copy.setProject(getProject());
+    copy.setTaskName(getTaskName());
+    copy.setOwningTarget(getOwningTarget());
+    copy.init();
+    copy.setFiltering(false);
+    copy.setIncludeEmptyDirs(false);
+    copy.setPreserveLastModified(true);
+
+    try {
+      Field field = Sync.class.getDeclaredField("myCopy");
+      field.setAccessible(true);
+      field.set(this, copy);
+    }
+    catch (Exception ignored) {
+    }
+  }
+
+  public static class ParallelSyncCopy extends MyCopy {
+    public void execute() throws BuildException {
+      ParallelCopier.scan(getProject(), rcs);
+      super.execute();
+    }
+
+    protected void doFileOperations() {
+      ParallelCopier.copy(this, fileCopyMap, destDir, forceOverwrite, preserveLastModified, failonerror, verbosity);
+      if (getIncludeEmptyDirs()) {
+        ParallelCopier.createEmptyDirs(this, dirCopyMap, destDir);
+      }
+    }
+  }
+}
@@ -0,0 +1,331 @@
+package consulo.apache.ant.rt.copy;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.types.FileSet;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scans file sets and copies files of {@link FastCopy} and {@link FastSync} on bounded pool, shared by tasks of JVM.
+ * Content is copied by {@code Files.copy} on Java 7 and later, and by {@link FileChannel#transferTo} otherwise, so it
+ * does not pass through Java buffers. Like Ant copy, only modification time of file is preserved, and target, which
+ * is symbolic link, is written through: {@code Files.copy} would replace link itself.
+ * <p>
+ * Messages are logged by thread of task: one summary, and file names only for {@code verbose="true"}.
+ *
+ * @since 17/10/2026
+ */
+final class ParallelCopier {
+  private static final int THREADS = Math.min(8, Math.max(2, Runtime.getRuntime().availableProcessors()));
+
+  private static final ExecutorService ourExecutor = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+    private final AtomicInteger myCount = new AtomicInteger();
+
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "Ant copy " + myCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  });
+
+  // File.toPath(), Files.copy(Path, Path, CopyOption...) and Files.isSymbolicLink(Path) of Java 7
+  private static final Method TO_PATH;
+  private static final Method FILES_COPY;
+  private static final Object COPY_OPTIONS;
+  private static final Method IS_SYMBOLIC_LINK;
+
+  static {
+    Method toPath = null;
+    Method filesCopy = null;
+    Object options = null;
+    Method isSymbolicLink = null;
+    try {
+      Class<?> pathClass = Class.forName("java.nio.file.Path");
+      Class<?> optionClass = Class.forName("java.nio.file.CopyOption");
+      Class<?> standardOptionClass = Class.forName("java.nio.file.StandardCopyOption");
+      toPath = File.class.getMethod("toPath");
+      Class<?> filesClass = Class.forName("java.nio.file.Files");
+      filesCopy = filesClass.getMethod("copy", pathClass, pathClass, Array.newInstance(optionClass, 0).getClass());
+      options = Array.newInstance(optionClass, 1);
+      Array.set(options, 0, standardOptionClass.getField("REPLACE_EXISTING").get(null));
+      isSymbolicLink = filesClass.getMethod("isSymbolicLink", pathClass);
+    }
+    catch (Exception e) {
+      toPath = null;
+      filesCopy = null;
+      isSymbolicLink = null;
+    }
+    TO_PATH = toPath;
+    FILES_COPY = filesCopy;
+    COPY_OPTIONS = options;
+    IS_SYMBOLIC_LINK = isSymbolicLink;
+  }
+
+  private ParallelCopier() {
+  }
+
+  /**
+   * Scans file sets concurrently. File set keeps its scanner, so task, which scans them again, gets result at once.
+   * Errors are not reported here, task gets them when it scans.
+   */
+  static void scan(final Project project, Collection<?> resources) {
+    List<FileSet> fileSets = new ArrayList<FileSet>();
+    for (Object resource : resources) {
+      if (resource instanceof FileSet) {
+        fileSets.add((FileSet)resource);
+      }
+    }
+    if (fileSets.size() < 2) {
+      // nothing to parallelize, task scans single file set itself
+      return;
+    }
+
+    List<Future<?>> futures = new ArrayList<Future<?>>();
+    for (final FileSet fileSet : fileSets) {
+      futures.add(ourExecutor.submit(new Runnable() {
+        public void run() {
+          fileSet.getDirectoryScanner(project);
+        }
+      }));
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      }
+      catch (ExecutionException ignored) {
+      }
+      catch (InterruptedException e) {
+        cancel(futures);
+        Thread.currentThread().interrupt();
+        throw new BuildException("Scan of files is interrupted");
+      }
+    }
+  }
+
+  /**
+   * Copies files of {@code Copy.fileCopyMap}: source path to array of target paths
+   *
+   * @param overwrite copy even if target is newer
+   */
+  static void copy(Task task,
+                   Map<?, ?> fileCopyMap,
+                   File destDir,
+                   final boolean overwrite,
+                   final boolean preserveLastModified,
+                   final boolean failOnError,
+                   int verbosity) {
+    if (fileCopyMap.isEmpty()) {
+      return;
+    }
+
+    long start = System.currentTimeMillis();
+    final AtomicInteger copied = new AtomicInteger();
+    final AtomicLong bytes = new AtomicLong();
+    final AtomicBoolean failed = new AtomicBoolean();
+    final List<String> errors = new ArrayList<String>();
+    final List<IOException> exceptions = new ArrayList<IOException>();
+
+    List<Future<?>> futures = new ArrayList<Future<?>>();
+    for (Map.Entry<?, ?> entry : fileCopyMap.entrySet()) {
+      final String from = (String)entry.getKey();
+      for (final String to : (String[])entry.getValue()) {
+        if (from.equals(to)) {
+          task.log("Skipping self-copy of " + from, verbosity);
+          continue;
+        }
+        if (verbosity == Project.MSG_INFO) {
+          task.log("Copying " + from + " to " + to, verbosity);
+        }
+
+        futures.add(ourExecutor.submit(new Runnable() {
+          public void run() {
+            if (failOnError && failed.get()) {
+              return;
+            }
+            File source = new File(from);
+            File target = new File(to);
+            try {
+              if (copyFile(source, target, overwrite, preserveLastModified)) {
+                copied.incrementAndGet();
+                bytes.addAndGet(source.length());
+              }
+            }
+            catch (IOException e) {
+              failed.set(true);
+              String message = "Failed to copy " + from + " to " + to + " due to " + e.getMessage();
+              if (target.exists() && !target.delete()) {
+                message += " and I couldn't delete the corrupt " + to;
+              }
+              synchronized (errors) {
+                errors.add(message);
+                exceptions.add(e);
+              }
+            }
+          }
+        }));
+      }
+    }
+
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      }
+      catch (ExecutionException e) {
+        cancel(futures);
+        throw new BuildException(e.getCause(), task.getLocation());
+      }
+      catch (InterruptedException e) {
+        cancel(futures);
+        Thread.currentThread().interrupt();
+        throw new BuildException("Copy is interrupted", task.getLocation());
+      }
+    }
+
+    if (!errors.isEmpty()) {
+      if (failOnError) {
+        throw new BuildException(errors.get(0), exceptions.get(0), task.getLocation());
+      }
+      for (String error : errors) {
+        task.log(error, Project.MSG_ERR);
+      }
+    }
+
+    int count = copied.get();
+    task.log("Copied " + count + " file" + (count == 1 ? "" : "s") + " to " + destDir.getAbsolutePath() +
+             " (" + formatSize(bytes.get()) + " in " + (System.currentTimeMillis() - start) + " ms)");
+  }
+
+  /**
+   * Creates empty directories of {@code Copy.dirCopyMap}: source directory to array of target directories
+   */
+  static void createEmptyDirs(Task task, Map<?, ?> dirCopyMap, File destDir) {
+    int createCount = 0;
+    for (Object dirs : dirCopyMap.values()) {
+      for (String dir : (String[])dirs) {
+        File directory = new File(dir);
+        if (!directory.exists()) {
+          if (!directory.mkdirs() && !directory.isDirectory()) {
+            task.log("Unable to create directory " + directory.getAbsolutePath(), Project.MSG_ERR);
+          }
+          else {
+            createCount++;
+          }
+        }
+      }
+    }
+    if (createCount > 0) {
+      task.log("Copied " + dirCopyMap.size() + " empty director" + (dirCopyMap.size() == 1 ? "y" : "ies") + " to " +
+               createCount + " empty director" + (createCount == 1 ? "y" : "ies") + " under " + destDir.getAbsolutePath());
+    }
+  }
+
+  /**
+   * @return false if target is up to date
+   */
+  private static boolean copyFile(File source, File target, boolean overwrite, boolean preserveLastModified) throws IOException {
+    if (!overwrite && target.exists() && target.lastModified() >= source.lastModified()) {
+      return false;
+    }
+
+    File parent = target.getParentFile();
+    if (parent != null && !parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+      throw new IOException("Can't create directory " + parent);
+    }
+    if (target.exists() && !target.canWrite()) {
+      // Files.copy would replace read-only file, Ant copy does not without force
+      throw new IOException(target + " is not writable");
+    }
+
+    if (FILES_COPY != null) {
+      copyByFiles(source, target);
+    }
+    else {
+      transfer(source, target);
+    }
+
+    if (preserveLastModified && !target.setLastModified(source.lastModified())) {
+      throw new IOException("Can't set modification time of " + target);
+    }
+    return true;
+  }
+
+  private static void copyByFiles(File source, File target) throws IOException {
+    try {
+      if (Boolean.TRUE.equals(IS_SYMBOLIC_LINK.invoke(null, TO_PATH.invoke(target)))) {
+        // Ant copy writes file, which link points to
+        transfer(source, target);
+        return;
+      }
+      FILES_COPY.invoke(null, TO_PATH.invoke(source), TO_PATH.invoke(target), COPY_OPTIONS);
+    }
+    catch (InvocationTargetException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException)cause;
+      }
+      throw new IOException(String.valueOf(cause));
+    }
+    catch (IllegalAccessException e) {
+      transfer(source, target);
+    }
+  }
+
+  private static void transfer(File source, File target) throws IOException {
+    FileInputStream in = new FileInputStream(source);
+    try {
+      FileOutputStream out = new FileOutputStream(target);
+      try {
+        FileChannel from = in.getChannel();
+        FileChannel to = out.getChannel();
+        long size = from.size();
+        long position = 0;
+        while (position < size) {
+          position += from.transferTo(position, size - position, to);
+        }
+      }
+      finally {
+        out.close();
+      }
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  private static void cancel(List<Future<?>> futures) {
+    for (Future<?> future : futures) {
+      future.cancel(false);
+    }
+  }
+
+  private static String formatSize(long bytes) {
+    if (bytes < 1024) {
+      return bytes + " B";
+    }
+    if (bytes < 1024 * 1024) {
+      return (bytes / 1024) + " KB";
+    }
+    return (bytes / (1024 * 1024)) + " MB";
+  }
+}
@@ -0,0 +1,223 @@
+package consulo.apache.ant.rt.daemon;
+
+import com.intellij.rt.ant.execution.AntMain2;
+import consulo.apache.ant.rt.common.AntDaemonProtocol;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Warm ant JVM, which runs builds one by one, so JIT and loaded ant classes are reused between builds.
+ * Every build runs in new ant {@code Project}, with own copy of system properties and own stdout/stderr.
+ * <p>
+ * Daemon is recycled (exits) after {@link AntDaemonProtocol#MAX_BUILDS_PROPERTY} builds, or when heap used after build
+ * is over {@link AntDaemonProtocol#MAX_HEAP_PERCENT_PROPERTY}.
+ *
+ * @see AntDaemonProtocol
+ * @since 17/10/2026
+ */
+public class AntDaemon {
+  private static final List<String> BUILD_FILE_ARGUMENTS = Arrays.asList("-buildfile", "-file", "-f");
+  private static final List<String> FILE_ARGUMENTS =
+    Arrays.asList("-buildfile", "-file", "-f", "-logfile", "-l", "-propertyfile");
+
+  private final ServerSocket myServerSocket;
+  private final SwitchingOutputStream myOut;
+  private final SwitchingOutputStream myErr;
+  private final int myMaxBuilds;
+  private final int myMaxHeapPercent;
+  private int myBuilds;
+
+  private AntDaemon(ServerSocket serverSocket, SwitchingOutputStream out, SwitchingOutputStream err) {
+    myServerSocket = serverSocket;
+    myOut = out;
+    myErr = err;
+    myMaxBuilds = Integer.getInteger(AntDaemonProtocol.MAX_BUILDS_PROPERTY, 50).intValue();
+    myMaxHeapPercent = Integer.getInteger(AntDaemonProtocol.MAX_HEAP_PERCENT_PROPERTY, 70).intValue();
+  }
+
+  public static void main(String[] args) throws IOException {
+    PrintStream stdout = System.out;
+
+    SwitchingOutputStream out = new SwitchingOutputStream(stdout);
+    SwitchingOutputStream err = new SwitchingOutputStream(System.err);
+    System.setOut(new PrintStream(out, true));
+    System.setErr(new PrintStream(err, true));
+
+    ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"));
+    serverSocket.setSoTimeout(Integer.getInteger(AntDaemonProtocol.IDLE_TIMEOUT_PROPERTY, 30 * 60 * 1000).intValue());
+
+    watchParent(System.in);
+    // builds must not read daemon stdin, ant input requests fail in daemon
+    System.setIn(new ByteArrayInputStream(new byte[0]));
+
+    stdout.println(AntDaemonProtocol.READY_PREFIX + serverSocket.getLocalPort());
+    stdout.flush();
+
+    new AntDaemon(serverSocket, out, err).serve();
+    System.exit(0);
+  }
+
+  /**
+   * IDE holds daemon stdin open while alive
+   */
+  private static void watchParent(final InputStream stdin) {
+    Thread thread = new Thread("Consulo Ant Daemon Parent Watcher") {
+      @Override
+      public void run() {
+        try {
+          while (stdin.read() != -1) {
+            // ignore
+          }
+        }
+        catch (IOException ignored) {
+        }
+        System.exit(0);
+      }
+    };
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private void serve() throws IOException {
+    try {
+      while (true) {
+        Socket socket;
+        try {
+          socket = myServerSocket.accept();
+        }
+        catch (SocketTimeoutException e) {
+          // idle for too long
+          return;
+        }
+
+        boolean retire;
+        try {
+          retire = runBuild(socket);
+        }
+        catch (IOException e) {
+          // ide closed connection, build state is unknown
+          retire = true;
+        }
+        finally {
+          try {
+            socket.close();
+          }
+          catch (IOException ignored) {
+          }
+        }
+
+        if (retire) {
+          return;
+        }
+      }
+    }
+    finally {
+      myServerSocket.close();
+    }
+  }
+
+  /**
+   * @return true if daemon must exit after this build
+   */
+  private boolean runBuild(Socket socket) throws IOException {
+    DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+    String workingDirectory = input.readUTF();
+    int eventPort = input.readInt();
+    String eventToken = input.readUTF();
+    String[] args = new String[input.readInt()];
+    for (int i = 0; i < args.length; i++) {
+      args[i] = input.readUTF();
+    }
+
+    Properties properties = (Properties)System.getProperties().clone();
+    // for tasks, which read the property. Since JDK 11 it does not change resolution of relative files,
+    // so file arguments are resolved explicitly
+    System.setProperty("user.dir", workingDirectory);
+    myOut.setTarget(new ChunkOutputStream(output, AntDaemonProtocol.STDOUT));
+    myErr.setTarget(new ChunkOutputStream(output, AntDaemonProtocol.STDERR));
+    AntMain2.openEvents(eventPort == 0 ? null : String.valueOf(eventPort), eventToken);
+
+    int exitCode;
+    try {
+      exitCode = new DaemonAntMain().run(resolveFileArguments(args, new File(workingDirectory)));
+    }
+    catch (Throwable e) {
+      e.printStackTrace();
+      exitCode = 1;
+    }
+    finally {
+      AntMain2.closeEvents();
+      System.out.flush();
+      System.err.flush();
+      myOut.setTarget(null);
+      myErr.setTarget(null);
+      System.setProperties(properties);
+    }
+
+    myBuilds++;
+    boolean retire = myBuilds >= myMaxBuilds || isHeapExhausted();
+
+    synchronized (output) {
+      if (retire) {
+        output.writeByte(AntDaemonProtocol.RETIRED);
+        output.writeInt(0);
+      }
+      output.writeByte(AntDaemonProtocol.EXIT);
+      output.writeInt(exitCode);
+      output.flush();
+    }
+    return retire;
+  }
+
+  /**
+   * Makes relative build file, log file and property file arguments absolute. Without build file argument ant looks
+   * for {@code build.xml} in current directory, so it is passed explicitly. {@code -find} searches from
+   * {@code user.dir} property and needs nothing
+   */
+  static String[] resolveFileArguments(String[] args, File workingDirectory) {
+    String[] result = new String[args.length + 2];
+    int count = 0;
+    boolean buildFile = false;
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      result[count++] = arg;
+      if (FILE_ARGUMENTS.contains(arg) && i + 1 < args.length) {
+        File file = new File(args[++i]);
+        result[count++] = file.isAbsolute() ? file.getPath() : new File(workingDirectory, file.getPath()).getPath();
+        buildFile |= BUILD_FILE_ARGUMENTS.contains(arg);
+      }
+      else if (BUILD_FILE_ARGUMENTS.contains(arg) || "-find".equals(arg) || "-s".equals(arg)) {
+        buildFile = true;
+      }
+    }
+    if (!buildFile) {
+      result[count++] = "-buildfile";
+      result[count++] = new File(workingDirectory, "build.xml").getPath();
+    }
+    String[] resolved = new String[count];
+    System.arraycopy(result, 0, resolved, 0, count);
+    return resolved;
+  }
+
+  private boolean isHeapExhausted() {
+    Runtime runtime = Runtime.getRuntime();
+    long used = runtime.totalMemory() - runtime.freeMemory();
+    if (used * 100 < runtime.maxMemory() * myMaxHeapPercent) {
+      return false;
+    }
+
+    // garbage of last build may be not collected yet
+    System.gc();
+    used = runtime.totalMemory() - runtime.freeMemory();
+    return used * 100 >= runtime.maxMemory() * myMaxHeapPercent;
+  }
+}
@@ -0,0 +1,48 @@
+package consulo.apache.ant.rt.daemon;
+
+import consulo.apache.ant.rt.common.AntDaemonProtocol;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes build output as {@link AntDaemonProtocol} chunks of one kind. Stdout and stderr of build share one connection,
+ * so chunks are written under connection lock.
+ *
+ * @since 17/10/2026
+ */
+class ChunkOutputStream extends OutputStream {
+  private final DataOutputStream myOutput;
+  private final byte myKind;
+
+  ChunkOutputStream(DataOutputStream output, byte kind) {
+    myOutput = output;
+    myKind = kind;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[]{(byte)b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return;
+    }
+
+    synchronized (myOutput) {
+      myOutput.writeByte(myKind);
+      myOutput.writeInt(len);
+      myOutput.write(b, off, len);
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    synchronized (myOutput) {
+      myOutput.flush();
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package consulo.apache.ant.rt.daemon;
+
+import org.apache.tools.ant.Main;
+
+/**
+ * Ant entry point, which reports exit code instead of calling {@link System#exit(int)}
+ *
+ * @since 17/10/2026
+ */
+class DaemonAntMain extends Main {
+  private int myExitCode = -1;
+
+  int run(String[] args) {
+    startAnt(args, null, null);
+    return myExitCode;
+  }
+
+  @Override
+  protected void exit(int exitCode) {
+    myExitCode = exitCode;
+  }
+}
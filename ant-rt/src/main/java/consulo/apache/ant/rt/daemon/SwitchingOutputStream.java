@@ -0,0 +1,39 @@
+package consulo.apache.ant.rt.daemon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Installed as {@link System#out} and {@link System#err} of daemon, before any ant class is loaded. Classes which
+ * remember original stream in static field (like {@code AntMain2.OUT} or ant {@code Main}) write to current build this way.
+ *
+ * @since 17/10/2026
+ */
+class SwitchingOutputStream extends OutputStream {
+  private final OutputStream myDefault;
+  private volatile OutputStream myTarget;
+
+  SwitchingOutputStream(OutputStream defaultTarget) {
+    myDefault = defaultTarget;
+    myTarget = defaultTarget;
+  }
+
+  void setTarget(OutputStream target) {
+    myTarget = target == null ? myDefault : target;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    myTarget.write(b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    myTarget.write(b, off, len);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    myTarget.flush();
+  }
+}
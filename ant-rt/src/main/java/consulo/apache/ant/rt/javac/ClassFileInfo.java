@@ -0,0 +1,325 @@
+package consulo.apache.ant.rt.javac;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What {@link DependencyGraph} needs to know about compiled class: its supertypes, classes it references, and hashes
+ * of its API and of its constants. Class names are internal ({@code a/b/C$D}).
+ * <p>
+ * References are collected from class constants and from every type descriptor of constant pool (descriptors,
+ * generic signatures, annotations). Compile-time constants of other classes are inlined by javac and leave no
+ * reference, that's why constants are hashed separately.
+ *
+ * @since 17/10/2026
+ */
+final class ClassFileInfo {
+  private static final int MAGIC = 0xCAFEBABE;
+
+  private static final int ACC_PRIVATE = 0x0002;
+  private static final int ACC_STATIC = 0x0008;
+  private static final int ACC_FINAL = 0x0010;
+  private static final int ACC_SUPER = 0x0020;
+
+  private final String myName;
+  private final String mySuperName;
+  private final String[] myInterfaces;
+  private final Set<String> myReferences;
+  private final long myApiHash;
+  private final long myConstantsHash;
+
+  private ClassFileInfo(String name,
+                        String superName,
+                        String[] interfaces,
+                        Set<String> references,
+                        long apiHash,
+                        long constantsHash) {
+    myName = name;
+    mySuperName = superName;
+    myInterfaces = interfaces;
+    myReferences = references;
+    myApiHash = apiHash;
+    myConstantsHash = constantsHash;
+  }
+
+  String getName() {
+    return myName;
+  }
+
+  /**
+   * @return null for {@code java/lang/Object} and {@code module-info}
+   */
+  String getSuperName() {
+    return mySuperName;
+  }
+
+  String[] getInterfaces() {
+    return myInterfaces;
+  }
+
+  Set<String> getReferences() {
+    return myReferences;
+  }
+
+  /**
+   * Hash of everything other classes can depend on: modifiers, supertypes and not private members with their
+   * signatures and constant values
+   */
+  long getApiHash() {
+    return myApiHash;
+  }
+
+  /**
+   * Hash of compile-time constants of not private fields, 0 if class has none
+   */
+  long getConstantsHash() {
+    return myConstantsHash;
+  }
+
+  static ClassFileInfo read(File file) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      return read(in);
+    }
+    finally {
+      in.close();
+    }
+  }
+
+  private static ClassFileInfo read(DataInputStream in) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a class file");
+    }
+    in.readUnsignedShort();
+    in.readUnsignedShort();
+
+    int count = in.readUnsignedShort();
+    String[] strings = new String[count];
+    // constant values and indexes of class names
+    Object[] values = new Object[count];
+    int[] classes = new int[count];
+    int[] stringValues = new int[count];
+    for (int i = 1; i < count; i++) {
+      int tag = in.readUnsignedByte();
+      switch (tag) {
+        case 1:
+          strings[i] = in.readUTF();
+          break;
+        case 3:
+          values[i] = Integer.valueOf(in.readInt());
+          break;
+        case 4:
+          values[i] = Float.valueOf(Float.intBitsToFloat(in.readInt()));
+          break;
+        case 5:
+          values[i++] = Long.valueOf(in.readLong());
+          break;
+        case 6:
+          values[i++] = Double.valueOf(Double.longBitsToDouble(in.readLong()));
+          break;
+        case 7:
+          classes[i] = in.readUnsignedShort();
+          break;
+        case 8:
+          stringValues[i] = in.readUnsignedShort();
+          break;
+        case 16:
+        case 19:
+        case 20:
+          in.readUnsignedShort();
+          break;
+        case 15:
+          in.skipBytes(3);
+          break;
+        case 9:
+        case 10:
+        case 11:
+        case 12:
+        case 17:
+        case 18:
+          in.readInt();
+          break;
+        default:
+          throw new IOException("Unknown constant pool tag " + tag);
+      }
+    }
+
+    Set<String> references = new HashSet<String>();
+    for (int i = 1; i < count; i++) {
+      if (classes[i] != 0) {
+        addClassReference(references, strings[classes[i]]);
+      }
+      else if (stringValues[i] != 0) {
+        values[i] = strings[stringValues[i]];
+      }
+      else if (strings[i] != null) {
+        addDescriptorReferences(references, strings[i]);
+      }
+    }
+
+    int access = in.readUnsignedShort();
+    String name = strings[classes[in.readUnsignedShort()]];
+    int superIndex = in.readUnsignedShort();
+    String superName = superIndex == 0 ? null : strings[classes[superIndex]];
+    String[] interfaces = new String[in.readUnsignedShort()];
+    for (int i = 0; i < interfaces.length; i++) {
+      interfaces[i] = strings[classes[in.readUnsignedShort()]];
+    }
+    references.remove(name);
+
+    List<String> api = new ArrayList<String>();
+    List<String> constants = new ArrayList<String>();
+    readMembers(in, strings, values, "field", api, constants);
+    readMembers(in, strings, values, "method", api, null);
+
+    StringBuilder header = new StringBuilder();
+    header.append(access & ~ACC_SUPER).append(' ').append(superName);
+    for (String anInterface : interfaces) {
+      header.append(' ').append(anInterface);
+    }
+    header.append(' ').append(readSignature(in, strings));
+    Collections.sort(api);
+    api.add(0, header.toString());
+
+    Collections.sort(constants);
+    long constantsHash = constants.isEmpty() ? 0 : hash(constants);
+    return new ClassFileInfo(name, superName, interfaces, references, hash(api), constantsHash);
+  }
+
+  /**
+   * Adds signatures of not private fields or methods to {@code api}, and constants of fields to {@code constants}
+   */
+  private static void readMembers(DataInputStream in,
+                                  String[] strings,
+                                  Object[] values,
+                                  String kind,
+                                  List<String> api,
+                                  List<String> constants) throws IOException {
+    int count = in.readUnsignedShort();
+    for (int i = 0; i < count; i++) {
+      int access = in.readUnsignedShort();
+      String name = strings[in.readUnsignedShort()];
+      String descriptor = strings[in.readUnsignedShort()];
+      String signature = null;
+      Object constant = null;
+      int attributes = in.readUnsignedShort();
+      for (int j = 0; j < attributes; j++) {
+        String attribute = strings[in.readUnsignedShort()];
+        int length = in.readInt();
+        if ("Signature".equals(attribute)) {
+          signature = strings[in.readUnsignedShort()];
+        }
+        else if ("ConstantValue".equals(attribute) && (access & (ACC_STATIC | ACC_FINAL)) == (ACC_STATIC | ACC_FINAL)) {
+          constant = values[in.readUnsignedShort()];
+        }
+        else {
+          skip(in, length);
+        }
+      }
+
+      if ((access & ACC_PRIVATE) != 0) {
+        continue;
+      }
+      String member = kind + " " + access + " " + name + " " + descriptor + " " + signature;
+      if (constant != null) {
+        member += " = " + constant;
+        constants.add(name + " = " + constant);
+      }
+      api.add(member);
+    }
+  }
+
+  /**
+   * Reads attributes of class
+   *
+   * @return generic signature of class, or null
+   */
+  private static String readSignature(DataInputStream in, String[] strings) throws IOException {
+    String signature = null;
+    int attributes = in.readUnsignedShort();
+    for (int i = 0; i < attributes; i++) {
+      String attribute = strings[in.readUnsignedShort()];
+      int length = in.readInt();
+      if ("Signature".equals(attribute)) {
+        signature = strings[in.readUnsignedShort()];
+      }
+      else {
+        skip(in, length);
+      }
+    }
+    return signature;
+  }
+
+  private static void addClassReference(Set<String> references, String name) {
+    if (name.startsWith("[")) {
+      // array class
+      addDescriptorReferences(references, name);
+    }
+    else {
+      references.add(name);
+    }
+  }
+
+  /**
+   * Adds classes of {@code Lname;} and {@code Lname<...>;} types of descriptor or signature. Other strings may give
+   * false references, they only make dependent set larger
+   */
+  private static void addDescriptorReferences(Set<String> references, String descriptor) {
+    int length = descriptor.length();
+    for (int i = descriptor.indexOf('L'); i >= 0 && i < length; i = descriptor.indexOf('L', i + 1)) {
+      int end = i + 1;
+      while (end < length && isNameChar(descriptor.charAt(end))) {
+        end++;
+      }
+      if (end > i + 1 && end < length && (descriptor.charAt(end) == ';' || descriptor.charAt(end) == '<')) {
+        references.add(descriptor.substring(i + 1, end));
+        i = end;
+      }
+    }
+  }
+
+  private static boolean isNameChar(char c) {
+    return c == '/' || c == '$' || Character.isJavaIdentifierPart(c);
+  }
+
+  private static void skip(DataInputStream in, int length) throws IOException {
+    int skipped = 0;
+    while (skipped < length) {
+      int step = in.skipBytes(length - skipped);
+      if (step <= 0) {
+        throw new IOException("Unexpected end of class file");
+      }
+      skipped += step;
+    }
+  }
+
+  private static long hash(List<String> lines) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("MD5");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IOException(e.getMessage());
+    }
+    for (String line : lines) {
+      digest.update(line.getBytes("UTF-8"));
+      digest.update((byte)0);
+    }
+    byte[] bytes = digest.digest();
+    long hash = 0;
+    for (int i = 0; i < 8; i++) {
+      hash = (hash << 8) | (bytes[i] & 0xFF);
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,21 @@
+package consulo.apache.ant.rt.javac;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+
+/**
+ * Build listener, which receives diagnostics of {@link ConsuloJavacAdapter} as is, instead of formatted messages
+ *
+ * @since 17/10/2026
+ */
+public interface CompilerDiagnosticListener extends BuildListener {
+  /**
+   * @param event  event of javac task, priority is set by diagnostic kind
+   * @param kind   name of {@link javax.tools.Diagnostic.Kind}
+   * @param file   absolute path of source file, or null
+   * @param line   1-based line, or -1
+   * @param column 1-based column, or -1
+   * @param code   compiler key of diagnostic, or null
+   */
+  void compilerDiagnostic(BuildEvent event, String kind, String file, int line, int column, String code, String message);
+}
@@ -0,0 +1,232 @@
+package consulo.apache.ant.rt.javac;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.compilers.DefaultCompilerAdapter;
+import org.apache.tools.ant.taskdefs.compilers.JavacExternal;
+import org.apache.tools.ant.types.Commandline;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs {@link JavaCompiler} of current JVM in process and reports its diagnostics to {@link CompilerDiagnosticListener}s
+ * as is: IDE does not parse javac output then. Other listeners receive diagnostics as javac formats them.
+ * <p>
+ * Compiler and its file managers ({@link FileManagerPool}) are shared by all javac tasks of build, so next task
+ * does not open JDK classes and unchanged class path jars again.
+ * <p>
+ * Enabled with {@code -Dbuild.compiler=consulo.apache.ant.rt.javac.ConsuloJavacAdapter}, or {@code compiler} attribute of javac.
+ * Forked javac is run by {@link JavacExternal}, as usual.
+ *
+ * @since 17/10/2026
+ */
+public class ConsuloJavacAdapter extends DefaultCompilerAdapter {
+  private static volatile JavaCompiler ourCompiler;
+
+  public boolean execute() throws BuildException {
+    if (getJavac().isForkedJavac()) {
+      JavacExternal external = new JavacExternal();
+      external.setJavac(getJavac());
+      return external.execute();
+    }
+
+    return compile(setupOptions(), null);
+  }
+
+  /**
+   * @return options of compiler, without source files
+   */
+  protected List<String> setupOptions() {
+    Commandline commandline = setupModernJavacCommandlineSwitches(new Commandline());
+    List<String> options = new ArrayList<String>(Arrays.asList(commandline.getArguments()));
+    if (!options.contains("-encoding")) {
+      // shared file manager keeps encoding of previous task
+      options.add("-encoding");
+      options.add(Charset.defaultCharset().name());
+    }
+    return options;
+  }
+
+  /**
+   * Compiles {@link #compileList} in process
+   *
+   * @param outputs receives names of classes (like {@code a.b.C$D}) written for every source file, may be null
+   */
+  protected boolean compile(List<String> options, Map<File, List<String>> outputs) throws BuildException {
+    JavaCompiler compiler = getCompiler();
+    if (compiler == null) {
+      throw new BuildException("Java compiler is not available, javac task must run on JDK", location);
+    }
+
+    attributes.log("Using in-process javac compiler with structured diagnostics", Project.MSG_VERBOSE);
+    // only logs files, they are passed to compiler as file objects
+    logAndAddFilesToCompile(new Commandline());
+
+    DiagnosticReporter reporter = new DiagnosticReporter();
+    LogWriter output = new LogWriter();
+    FileManagerPool.Entry fileManager = FileManagerPool.acquire(compiler, getProject());
+    attributes.log("File manager is used by " + fileManager.getUses() + " javac task(s)", Project.MSG_DEBUG);
+    boolean reusable = false;
+    try {
+      StandardJavaFileManager standardFileManager = fileManager.getFileManager();
+      Iterable<? extends JavaFileObject> units = standardFileManager.getJavaFileObjects(compileList);
+      JavaFileManager taskFileManager =
+        outputs == null ? standardFileManager : new OutputRecordingFileManager(standardFileManager, outputs);
+      JavaCompiler.CompilationTask task = compiler.getTask(output, taskFileManager, reporter, options, null, units);
+      boolean result = task.call();
+      reusable = true;
+      return result;
+    }
+    catch (IllegalArgumentException e) {
+      // bad option
+      throw new BuildException(e.getMessage(), e, location);
+    }
+    finally {
+      output.close();
+      FileManagerPool.release(fileManager, reusable);
+    }
+  }
+
+  private static JavaCompiler getCompiler() {
+    JavaCompiler compiler = ourCompiler;
+    if (compiler == null) {
+      compiler = ToolProvider.getSystemJavaCompiler();
+      ourCompiler = compiler;
+    }
+    return compiler;
+  }
+
+  private void report(Diagnostic<? extends JavaFileObject> diagnostic) {
+    String kind = diagnostic.getKind().name();
+    String file = getPath(diagnostic.getSource());
+    int line = (int)diagnostic.getLineNumber();
+    int column = (int)diagnostic.getColumnNumber();
+    String code = diagnostic.getCode();
+    String message = diagnostic.getMessage(Locale.getDefault());
+    int priority = getPriority(diagnostic.getKind());
+
+    String text = null;
+    for (Object listener : getProject().getBuildListeners()) {
+      BuildEvent event = new BuildEvent(attributes);
+      if (listener instanceof CompilerDiagnosticListener) {
+        event.setMessage(message, priority);
+        ((CompilerDiagnosticListener)listener).compilerDiagnostic(event, kind, file, line, column, code, message);
+      }
+      else {
+        if (text == null) {
+          text = diagnostic.toString();
+        }
+        event.setMessage(text, priority);
+        ((BuildListener)listener).messageLogged(event);
+      }
+    }
+  }
+
+  private static String getPath(JavaFileObject source) {
+    if (source == null) {
+      return null;
+    }
+    URI uri = source.toUri();
+    if (uri != null && "file".equals(uri.getScheme())) {
+      return new File(uri).getAbsolutePath();
+    }
+    return source.getName();
+  }
+
+  private static int getPriority(Diagnostic.Kind kind) {
+    switch (kind) {
+      case ERROR:
+        return Project.MSG_ERR;
+      case WARNING:
+      case MANDATORY_WARNING:
+        return Project.MSG_WARN;
+      default:
+        return Project.MSG_INFO;
+    }
+  }
+
+  /**
+   * Records classes written by compiler
+   */
+  private static class OutputRecordingFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+    private final Map<File, List<String>> myOutputs;
+
+    OutputRecordingFileManager(StandardJavaFileManager fileManager, Map<File, List<String>> outputs) {
+      super(fileManager);
+      myOutputs = outputs;
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling)
+      throws IOException {
+      if (location == StandardLocation.CLASS_OUTPUT && kind == JavaFileObject.Kind.CLASS && sibling != null) {
+        URI uri = sibling.toUri();
+        if (uri != null && "file".equals(uri.getScheme())) {
+          File source = new File(uri).getAbsoluteFile();
+          List<String> classes = myOutputs.get(source);
+          if (classes == null) {
+            classes = new ArrayList<String>();
+            myOutputs.put(source, classes);
+          }
+          classes.add(className);
+        }
+      }
+      return super.getJavaFileForOutput(location, className, kind, sibling);
+    }
+  }
+
+  private class DiagnosticReporter implements DiagnosticListener<JavaFileObject> {
+    public void report(Diagnostic<? extends JavaFileObject> diagnostic) {
+      ConsuloJavacAdapter.this.report(diagnostic);
+    }
+  }
+
+  /**
+   * Output of compiler, which is not diagnostic (like {@code -verbose} output), logged line by line
+   */
+  private class LogWriter extends Writer {
+    private final StringBuilder myLine = new StringBuilder();
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      for (int i = offset; i < offset + length; i++) {
+        char c = buffer[i];
+        if (c == '\n') {
+          logLine();
+        }
+        else if (c != '\r') {
+          myLine.append(c);
+        }
+      }
+    }
+
+    @Override
+    public void flush() {
+      // partial line is logged, when it's finished
+    }
+
+    @Override
+    public void close() {
+      logLine();
+    }
+
+    private void logLine() {
+      if (myLine.length() > 0) {
+        attributes.log(myLine.toString(), Project.MSG_INFO);
+        myLine.setLength(0);
+      }
+    }
+  }
+}
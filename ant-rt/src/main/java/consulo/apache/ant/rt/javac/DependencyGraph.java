@@ -0,0 +1,410 @@
+package consulo.apache.ant.rt.javac;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class dependencies of javac destination directory, from previous compilation. Graph is stored in compact binary
+ * file: table of names, then sources with their classes. Only references to classes of graph are kept.
+ * <p>
+ * Graph knows, which sources have to be recompiled, when API of classes changes: sources, which reference changed
+ * class, and sources of its subclasses, recursively. Compile-time constants are inlined, so when constants change,
+ * sources, which mention changed class or its subclass by simple name, are recompiled too.
+ *
+ * @since 17/10/2026
+ */
+final class DependencyGraph {
+  private static final int VERSION = 1;
+
+  private final String myFingerprint;
+  // sources by path
+  private final Map<String, Source> mySources = new LinkedHashMap<String, Source>();
+  // paths of sources by class name
+  private final Map<String, String> myClassSources = new HashMap<String, String>();
+
+  DependencyGraph(String fingerprint) {
+    myFingerprint = fingerprint;
+  }
+
+  /**
+   * @return options and class path of compilation, which produced graph
+   */
+  String getFingerprint() {
+    return myFingerprint;
+  }
+
+  Collection<Source> getSources() {
+    return mySources.values();
+  }
+
+  Source getSource(String path) {
+    return mySources.get(path);
+  }
+
+  boolean containsClass(String name) {
+    return myClassSources.containsKey(name);
+  }
+
+  Source removeSource(String path) {
+    Source source = mySources.remove(path);
+    if (source != null) {
+      for (String name : source.myClasses.keySet()) {
+        if (path.equals(myClassSources.get(name))) {
+          myClassSources.remove(name);
+        }
+      }
+    }
+    return source;
+  }
+
+  /**
+   * Replaces classes of source by just compiled ones
+   *
+   * @return previous source, or null
+   */
+  Source putSource(Source source) {
+    Source old = removeSource(source.myPath);
+    mySources.put(source.myPath, source);
+    for (String name : source.myClasses.keySet()) {
+      myClassSources.put(name, source.myPath);
+    }
+    return old;
+  }
+
+  /**
+   * Graph is consistent, if classes of not changed sources are in place
+   *
+   * @param changed paths of sources, which are compiled anyway
+   */
+  boolean isConsistent(File destDir, Set<String> changed) {
+    for (Source source : mySources.values()) {
+      if (changed.contains(source.myPath) || !new File(source.myPath).exists()) {
+        continue;
+      }
+      for (String name : source.myClasses.keySet()) {
+        if (!getClassFile(destDir, name).isFile()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param dirty     classes, which API changed or which are removed
+   * @param constants classes, which constants changed or which are removed
+   * @param exclude   paths of sources, which are compiled already
+   * @return paths of sources, which have to be recompiled
+   */
+  Set<String> getDependents(Set<String> dirty, Set<String> constants, Set<String> exclude) {
+    Map<String, List<String>> subclasses = new HashMap<String, List<String>>();
+    for (Source source : mySources.values()) {
+      for (ClassNode node : source.myClasses.values()) {
+        for (String supertype : node.getSupertypes()) {
+          List<String> list = subclasses.get(supertype);
+          if (list == null) {
+            list = new ArrayList<String>();
+            subclasses.put(supertype, list);
+          }
+          list.add(node.myName);
+        }
+      }
+    }
+
+    Set<String> affected = collectSubclasses(dirty, subclasses);
+    Set<String> result = new HashSet<String>();
+    for (String name : affected) {
+      String path = myClassSources.get(name);
+      if (path != null && !dirty.contains(name)) {
+        result.add(path);
+      }
+    }
+    for (Source source : mySources.values()) {
+      if (!result.contains(source.myPath) && intersects(source.myReferences, affected)) {
+        result.add(source.myPath);
+      }
+    }
+
+    if (!constants.isEmpty()) {
+      Set<String> simpleNames = new HashSet<String>();
+      for (String name : collectSubclasses(constants, subclasses)) {
+        simpleNames.add(getSimpleName(name));
+      }
+      for (Source source : mySources.values()) {
+        String path = source.myPath;
+        if (!result.contains(path) && !exclude.contains(path) && mentions(new File(path), simpleNames)) {
+          result.add(path);
+        }
+      }
+    }
+
+    result.removeAll(exclude);
+    return result;
+  }
+
+  private static Set<String> collectSubclasses(Set<String> classes, Map<String, List<String>> subclasses) {
+    Set<String> result = new HashSet<String>(classes);
+    List<String> queue = new ArrayList<String>(classes);
+    while (!queue.isEmpty()) {
+      List<String> list = subclasses.get(queue.remove(queue.size() - 1));
+      if (list != null) {
+        for (String subclass : list) {
+          if (result.add(subclass)) {
+            queue.add(subclass);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private static boolean intersects(Set<String> set, Set<String> other) {
+    for (String name : set) {
+      if (other.contains(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Source text is read as ISO-8859-1, names of classes are expected to be ASCII
+   */
+  private static boolean mentions(File file, Set<String> names) {
+    String text;
+    try {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      try {
+        byte[] bytes = new byte[(int)file.length()];
+        in.readFully(bytes);
+        text = new String(bytes, "ISO-8859-1");
+      }
+      finally {
+        in.close();
+      }
+    }
+    catch (IOException e) {
+      // it's recompiled, if it can't be checked
+      return true;
+    }
+
+    int length = text.length();
+    int i = 0;
+    while (i < length) {
+      if (!Character.isJavaIdentifierStart(text.charAt(i))) {
+        i++;
+        continue;
+      }
+      int start = i;
+      while (i < length && Character.isJavaIdentifierPart(text.charAt(i))) {
+        i++;
+      }
+      if (names.contains(text.substring(start, i))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static String getSimpleName(String name) {
+    return name.substring(Math.max(name.lastIndexOf('/'), name.lastIndexOf('$')) + 1);
+  }
+
+  static File getClassFile(File destDir, String name) {
+    return new File(destDir, name.replace('/', File.separatorChar) + ".class");
+  }
+
+  /**
+   * @return graph, or null if file is missing or can't be read
+   */
+  static DependencyGraph load(File file) {
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+      try {
+        return read(in);
+      }
+      finally {
+        in.close();
+      }
+    }
+    catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static DependencyGraph read(DataInputStream in) throws IOException {
+    if (in.readInt() != VERSION) {
+      return null;
+    }
+    DependencyGraph graph = new DependencyGraph(in.readUTF());
+    String[] names = new String[in.readInt()];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = in.readUTF();
+    }
+
+    int sourceCount = in.readInt();
+    for (int i = 0; i < sourceCount; i++) {
+      Source source = new Source(names[in.readInt()]);
+      int classCount = in.readInt();
+      for (int j = 0; j < classCount; j++) {
+        String name = names[in.readInt()];
+        int superIndex = in.readInt();
+        String[] interfaces = new String[in.readInt()];
+        for (int k = 0; k < interfaces.length; k++) {
+          interfaces[k] = names[in.readInt()];
+        }
+        long apiHash = in.readLong();
+        long constantsHash = in.readLong();
+        source.myClasses.put(name, new ClassNode(name, superIndex < 0 ? null : names[superIndex], interfaces, apiHash, constantsHash));
+      }
+      int referenceCount = in.readInt();
+      for (int j = 0; j < referenceCount; j++) {
+        source.myReferences.add(names[in.readInt()]);
+      }
+      graph.putSource(source);
+    }
+    return graph;
+  }
+
+  void save(File file) throws IOException {
+    Map<String, Integer> names = new LinkedHashMap<String, Integer>();
+    for (Source source : mySources.values()) {
+      index(names, source.myPath);
+      for (ClassNode node : source.myClasses.values()) {
+        index(names, node.myName);
+        for (String supertype : node.getSupertypes()) {
+          index(names, supertype);
+        }
+      }
+      // references to classes out of graph are useless
+      source.myReferences.retainAll(myClassSources.keySet());
+    }
+
+    File parent = file.getParentFile();
+    if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+      throw new IOException("Can't create directory " + parent);
+    }
+    File temp = new File(file.getPath() + ".tmp");
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+    try {
+      out.writeInt(VERSION);
+      out.writeUTF(myFingerprint);
+      out.writeInt(names.size());
+      for (String name : names.keySet()) {
+        out.writeUTF(name);
+      }
+
+      out.writeInt(mySources.size());
+      for (Source source : mySources.values()) {
+        out.writeInt(names.get(source.myPath));
+        out.writeInt(source.myClasses.size());
+        for (ClassNode node : source.myClasses.values()) {
+          out.writeInt(names.get(node.myName));
+          out.writeInt(node.mySuperName == null ? -1 : names.get(node.mySuperName));
+          out.writeInt(node.myInterfaces.length);
+          for (String anInterface : node.myInterfaces) {
+            out.writeInt(names.get(anInterface));
+          }
+          out.writeLong(node.myApiHash);
+          out.writeLong(node.myConstantsHash);
+        }
+        out.writeInt(source.myReferences.size());
+        for (String reference : source.myReferences) {
+          out.writeInt(names.get(reference));
+        }
+      }
+    }
+    finally {
+      out.close();
+    }
+
+    if (!file.delete() && file.exists() || !temp.renameTo(file)) {
+      temp.delete();
+      throw new IOException("Can't write " + file);
+    }
+  }
+
+  private static void index(Map<String, Integer> names, String name) {
+    if (!names.containsKey(name)) {
+      names.put(name, names.size());
+    }
+  }
+
+  /**
+   * Source file and classes compiled from it
+   */
+  static final class Source {
+    private final String myPath;
+    private final Map<String, ClassNode> myClasses = new LinkedHashMap<String, ClassNode>();
+    private final Set<String> myReferences = new HashSet<String>();
+
+    Source(String path) {
+      myPath = path;
+    }
+
+    String getPath() {
+      return myPath;
+    }
+
+    Map<String, ClassNode> getClasses() {
+      return myClasses;
+    }
+
+    void addClass(ClassFileInfo info) {
+      myClasses.put(info.getName(), new ClassNode(info.getName(), info.getSuperName(), info.getInterfaces(), info.getApiHash(), info.getConstantsHash()));
+      myReferences.addAll(info.getReferences());
+    }
+  }
+
+  static final class ClassNode {
+    private final String myName;
+    private final String mySuperName;
+    private final String[] myInterfaces;
+    private final long myApiHash;
+    private final long myConstantsHash;
+
+    private ClassNode(String name, String superName, String[] interfaces, long apiHash, long constantsHash) {
+      myName = name;
+      mySuperName = superName;
+      myInterfaces = interfaces;
+      myApiHash = apiHash;
+      myConstantsHash = constantsHash;
+    }
+
+    long getApiHash() {
+      return myApiHash;
+    }
+
+    long getConstantsHash() {
+      return myConstantsHash;
+    }
+
+    private List<String> getSupertypes() {
+      List<String> result = new ArrayList<String>(myInterfaces.length + 1);
+      if (mySuperName != null) {
+        result.add(mySuperName);
+      }
+      for (String anInterface : myInterfaces) {
+        result.add(anInterface);
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,246 @@
+package consulo.apache.ant.rt.javac;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.SubBuildListener;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * File managers of {@link ConsuloJavacAdapter}, shared by javac tasks of build.
+ * File manager keeps archives of class path and platform classes opened, so next task does not read them again.
+ * File manager, which has opened archive changed since, is closed. Archive, which was modified just before task,
+ * may change again without new modification time, so its file manager is not kept.
+ * <p>
+ * Idle file managers are closed, when build finishes: daemon JVM must not keep jars of project opened (and locked on
+ * Windows) between builds.
+ * <p>
+ * File manager is not thread safe, so every concurrent task takes its own one.
+ *
+ * @since 17/10/2026
+ */
+final class FileManagerPool {
+  private static final int MAX_IDLE = Math.max(1, Runtime.getRuntime().availableProcessors());
+  // ms, file systems keep modification time so precisely at least
+  private static final long TIME_GRANULARITY = 2000;
+  private static final String LISTENER_REFERENCE = "consulo.apache.ant.rt.javac.FileManagerPool";
+
+  /**
+   * Locations, which are set by options of task, they are reset before next task
+   */
+  private static final JavaFileManager.Location[] TASK_LOCATIONS = {
+    StandardLocation.CLASS_OUTPUT,
+    StandardLocation.SOURCE_OUTPUT,
+    StandardLocation.CLASS_PATH,
+    StandardLocation.SOURCE_PATH,
+    StandardLocation.ANNOTATION_PROCESSOR_PATH,
+    StandardLocation.PLATFORM_CLASS_PATH
+  };
+
+  private static final List<Entry> ourIdle = new ArrayList<Entry>();
+
+  private FileManagerPool() {
+  }
+
+  /**
+   * @param project project of task, idle file managers are closed, when it finishes
+   */
+  static Entry acquire(JavaCompiler compiler, Project project) {
+    synchronized (ourIdle) {
+      if (project.getReference(LISTENER_REFERENCE) == null) {
+        BuildFinishListener listener = new BuildFinishListener(project);
+        project.addReference(LISTENER_REFERENCE, listener);
+        project.addBuildListener(listener);
+      }
+    }
+
+    while (true) {
+      Entry entry;
+      synchronized (ourIdle) {
+        if (ourIdle.isEmpty()) {
+          break;
+        }
+        entry = ourIdle.remove(ourIdle.size() - 1);
+      }
+
+      if (!entry.isStale() && entry.reset()) {
+        entry.myUses++;
+        return entry;
+      }
+      entry.close();
+    }
+
+    Entry entry = new Entry(compiler.getStandardFileManager(null, null, null));
+    entry.myUses++;
+    return entry;
+  }
+
+  /**
+   * @param reusable false if compiler failed, file manager is closed then
+   */
+  static void release(Entry entry, boolean reusable) {
+    if (reusable) {
+      try {
+        entry.myFileManager.flush();
+        reusable = entry.rememberArchives();
+      }
+      catch (IOException e) {
+        reusable = false;
+      }
+    }
+
+    if (reusable) {
+      synchronized (ourIdle) {
+        if (ourIdle.size() < MAX_IDLE) {
+          ourIdle.add(entry);
+          return;
+        }
+      }
+    }
+    entry.close();
+  }
+
+  /**
+   * Closes idle file managers, so their archives are not opened any more
+   */
+  static void closeIdle() {
+    List<Entry> idle;
+    synchronized (ourIdle) {
+      idle = new ArrayList<Entry>(ourIdle);
+      ourIdle.clear();
+    }
+    for (Entry entry : idle) {
+      entry.close();
+    }
+  }
+
+  /**
+   * Closes idle file managers, when project finishes. Listeners of build are added to subprojects too, so only
+   * events of own project are handled.
+   */
+  private static final class BuildFinishListener implements SubBuildListener {
+    private final Project myProject;
+
+    private BuildFinishListener(Project project) {
+      myProject = project;
+    }
+
+    public void buildStarted(BuildEvent event) {
+    }
+
+    public void buildFinished(BuildEvent event) {
+      if (event.getProject() == myProject) {
+        closeIdle();
+      }
+    }
+
+    public void subBuildStarted(BuildEvent event) {
+    }
+
+    public void subBuildFinished(BuildEvent event) {
+      if (event.getProject() == myProject) {
+        closeIdle();
+      }
+    }
+
+    public void targetStarted(BuildEvent event) {
+    }
+
+    public void targetFinished(BuildEvent event) {
+    }
+
+    public void taskStarted(BuildEvent event) {
+    }
+
+    public void taskFinished(BuildEvent event) {
+    }
+
+    public void messageLogged(BuildEvent event) {
+    }
+  }
+
+  static final class Entry {
+    private final StandardJavaFileManager myFileManager;
+    // length and modification time of archives, when they were used
+    private final Map<File, long[]> myArchives = new HashMap<File, long[]>();
+    private int myUses;
+
+    private Entry(StandardJavaFileManager fileManager) {
+      myFileManager = fileManager;
+    }
+
+    StandardJavaFileManager getFileManager() {
+      return myFileManager;
+    }
+
+    /**
+     * @return count of tasks, which used file manager, including current one
+     */
+    int getUses() {
+      return myUses;
+    }
+
+    /**
+     * @return false if archive was modified just now, so its later changes may be not detected
+     */
+    private boolean rememberArchives() {
+      long now = System.currentTimeMillis();
+      for (JavaFileManager.Location location : TASK_LOCATIONS) {
+        Iterable<? extends File> files = myFileManager.getLocation(location);
+        if (files == null) {
+          continue;
+        }
+        for (File file : files) {
+          if (file.isFile() && !myArchives.containsKey(file)) {
+            long modified = file.lastModified();
+            if (now - modified < TIME_GRANULARITY) {
+              return false;
+            }
+            myArchives.put(file, new long[]{file.length(), modified});
+          }
+        }
+      }
+      return true;
+    }
+
+    private boolean isStale() {
+      for (Map.Entry<File, long[]> archive : myArchives.entrySet()) {
+        File file = archive.getKey();
+        long[] stamp = archive.getValue();
+        if (file.length() != stamp[0] || file.lastModified() != stamp[1]) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean reset() {
+      try {
+        for (JavaFileManager.Location location : TASK_LOCATIONS) {
+          myFileManager.setLocation(location, null);
+        }
+        return true;
+      }
+      catch (IOException e) {
+        return false;
+      }
+    }
+
+    private void close() {
+      try {
+        myFileManager.close();
+      }
+      catch (IOException ignored) {
+      }
+    }
+  }
+}
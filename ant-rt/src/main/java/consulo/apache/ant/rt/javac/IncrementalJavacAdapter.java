@@ -0,0 +1,301 @@
+package consulo.apache.ant.rt.javac;
+
+import consulo.apache.ant.rt.common.AntLoggerConstants;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.MatchingTask;
+import org.apache.tools.ant.types.FileSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link ConsuloJavacAdapter}, which compiles only what changed. Class dependencies of destination directory are kept
+ * in {@link DependencyGraph} between builds.
+ * <p>
+ * Sources, which javac task finds out of date, are compiled first. Then sources, which depend on classes with changed
+ * API, are compiled, and so on, until API does not change. Class files of deleted sources and deleted inner classes
+ * are removed. When graph is missing, is not consistent with destination directory, or was built with other options
+ * or class path jars, all sources are compiled.
+ * <p>
+ * Javac task does not run compiler, when no source is out of date, so deleted sources are handled by next compilation.
+ * <p>
+ * Enabled with {@code -Dbuild.compiler=consulo.apache.ant.rt.javac.IncrementalJavacAdapter}, or {@code compiler}
+ * attribute of javac.
+ *
+ * @since 17/10/2026
+ */
+public class IncrementalJavacAdapter extends ConsuloJavacAdapter {
+  public boolean execute() throws BuildException {
+    File destDir = getJavac().getDestdir();
+    if (getJavac().isForkedJavac() || destDir == null) {
+      return super.execute();
+    }
+
+    List<File> sources = getAllSources();
+    if (sources == null) {
+      attributes.log("Sources of javac task can't be listed, incremental compilation is disabled", Project.MSG_VERBOSE);
+      return super.execute();
+    }
+
+    List<String> options = setupOptions();
+    File graphFile = getGraphFile(destDir);
+    String fingerprint = fingerprint(options);
+    DependencyGraph graph = DependencyGraph.load(graphFile);
+
+    Set<String> changed = new LinkedHashSet<String>();
+    for (File file : compileList) {
+      changed.add(file.getAbsolutePath());
+    }
+    Set<String> paths = new HashSet<String>();
+    for (File file : sources) {
+      paths.add(file.getAbsolutePath());
+    }
+
+    Set<String> dirty = new HashSet<String>();
+    Set<String> constants = new HashSet<String>();
+    if (graph == null || !fingerprint.equals(graph.getFingerprint()) || !graph.isConsistent(destDir, changed)) {
+      attributes.log("Dependency graph of " + destDir + " is missing or out of date, compiling all " + paths.size() + " source files");
+      if (graph != null) {
+        for (DependencyGraph.Source source : graph.getSources()) {
+          deleteClasses(destDir, source.getClasses().keySet());
+        }
+      }
+      graph = new DependencyGraph(fingerprint);
+      changed.addAll(paths);
+    }
+    else {
+      for (DependencyGraph.Source source : new ArrayList<DependencyGraph.Source>(graph.getSources())) {
+        if (!paths.contains(source.getPath())) {
+          graph.removeSource(source.getPath());
+          Set<String> classes = source.getClasses().keySet();
+          deleteClasses(destDir, classes);
+          dirty.addAll(classes);
+          constants.addAll(classes);
+        }
+      }
+      changed.addAll(graph.getDependents(dirty, constants, changed));
+    }
+
+    Set<String> compiled = new HashSet<String>();
+    List<String> round = new ArrayList<String>(changed);
+    int rounds = 0;
+    while (!round.isEmpty()) {
+      if (rounds > 0) {
+        attributes.log("Compiling " + round.size() + " dependent source file" + (round.size() == 1 ? "" : "s"));
+      }
+      rounds++;
+      compileList = toFiles(round);
+      Map<File, List<String>> outputs = new HashMap<File, List<String>>();
+      boolean success = compile(options, outputs);
+      compiled.addAll(round);
+      if (!success) {
+        // they are out of date and are compiled by next build, previous graph still knows their dependents
+        for (String path : round) {
+          DependencyGraph.Source source = graph.getSource(path);
+          if (source != null) {
+            deleteClasses(destDir, source.getClasses().keySet());
+          }
+        }
+        for (List<String> classes : outputs.values()) {
+          deleteClasses(destDir, toInternalNames(classes));
+        }
+        saveGraph(graph, graphFile);
+        return false;
+      }
+
+      dirty.clear();
+      constants.clear();
+      Set<String> removed = new HashSet<String>();
+      for (String path : round) {
+        if (!outputs.containsKey(new File(path))) {
+          // package-info, or source without classes
+          outputs.put(new File(path), new ArrayList<String>());
+        }
+      }
+      for (Map.Entry<File, List<String>> entry : outputs.entrySet()) {
+        String path = entry.getKey().getPath();
+        compiled.add(path);
+        DependencyGraph.Source source = new DependencyGraph.Source(path);
+        for (String name : toInternalNames(entry.getValue())) {
+          try {
+            source.addClass(ClassFileInfo.read(DependencyGraph.getClassFile(destDir, name)));
+          }
+          catch (IOException e) {
+            throw new BuildException("Can't read class file of " + name + ": " + e.getMessage(), e, location);
+          }
+        }
+        updateGraph(graph, source, dirty, constants, removed);
+      }
+      for (String name : removed) {
+        // class may be moved to other source
+        if (!graph.containsClass(name)) {
+          DependencyGraph.getClassFile(destDir, name).delete();
+        }
+      }
+      round = new ArrayList<String>(graph.getDependents(dirty, constants, compiled));
+    }
+
+    attributes.log("Compiled " + compiled.size() + " of " + paths.size() + " source files in " + rounds + " round(s)", Project.MSG_VERBOSE);
+    saveGraph(graph, graphFile);
+    return true;
+  }
+
+  /**
+   * Puts just compiled source into graph, and collects classes with changed API or constants, and classes which source
+   * does not produce anymore
+   */
+  private static void updateGraph(DependencyGraph graph,
+                                  DependencyGraph.Source source,
+                                  Set<String> dirty,
+                                  Set<String> constants,
+                                  Set<String> removed) {
+    DependencyGraph.Source old = graph.putSource(source);
+    Map<String, DependencyGraph.ClassNode> classes = source.getClasses();
+    if (old == null) {
+      return;
+    }
+
+    for (Map.Entry<String, DependencyGraph.ClassNode> entry : old.getClasses().entrySet()) {
+      String name = entry.getKey();
+      DependencyGraph.ClassNode oldNode = entry.getValue();
+      DependencyGraph.ClassNode node = classes.get(name);
+      if (node == null) {
+        removed.add(name);
+        dirty.add(name);
+        constants.add(name);
+        continue;
+      }
+      if (node.getApiHash() != oldNode.getApiHash()) {
+        dirty.add(name);
+      }
+      if (node.getConstantsHash() != oldNode.getConstantsHash()) {
+        constants.add(name);
+      }
+    }
+  }
+
+  private void saveGraph(DependencyGraph graph, File file) {
+    try {
+      graph.save(file);
+    }
+    catch (IOException e) {
+      attributes.log("Can't save dependency graph: " + e.getMessage(), Project.MSG_WARN);
+      file.delete();
+    }
+  }
+
+  /**
+   * Sources, which javac task compiles when destination directory is empty. Task does not expose its file set,
+   * it's read by reflection
+   *
+   * @return sources, or null if they can't be listed
+   */
+  private List<File> getAllSources() {
+    FileSet fileSet;
+    try {
+      Field field = MatchingTask.class.getDeclaredField("fileset");
+      field.setAccessible(true);
+      fileSet = (FileSet)((FileSet)field.get(getJavac())).clone();
+    }
+    catch (Exception e) {
+      return null;
+    }
+
+    List<File> result = new ArrayList<File>();
+    for (String directory : getJavac().getSrcdir().list()) {
+      File srcDir = getProject().resolveFile(directory);
+      if (!srcDir.isDirectory()) {
+        continue;
+      }
+      fileSet.setDir(srcDir);
+      for (String name : fileSet.getDirectoryScanner(getProject()).getIncludedFiles()) {
+        if (name.endsWith(".java")) {
+          result.add(new File(srcDir, name).getAbsoluteFile());
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Graph has to be rebuilt, when options, JDK, or jars of class path change
+   */
+  private static String fingerprint(List<String> options) {
+    StringBuilder builder = new StringBuilder();
+    builder.append(System.getProperty("java.version"));
+    for (int i = 0; i < options.size(); i++) {
+      String option = options.get(i);
+      builder.append('\n').append(option);
+      if (i > 0 && isPathOption(options.get(i - 1))) {
+        for (String entry : option.split(File.pathSeparator)) {
+          File file = new File(entry);
+          if (file.isFile()) {
+            builder.append(' ').append(file.length()).append(':').append(file.lastModified());
+          }
+        }
+      }
+    }
+    return hash(builder.toString());
+  }
+
+  private static boolean isPathOption(String option) {
+    return "-classpath".equals(option) || "-cp".equals(option) || "-bootclasspath".equals(option) ||
+           "-processorpath".equals(option) || "--module-path".equals(option) || "-extdirs".equals(option);
+  }
+
+  private File getGraphFile(File destDir) {
+    String directory = getProject().getProperty(AntLoggerConstants.JAVAC_GRAPH_DIR_PROPERTY);
+    File parent = directory != null ? new File(directory) : new File(System.getProperty("java.io.tmpdir"), "consulo-javac-graphs");
+    return new File(parent, hash(destDir.getAbsolutePath()) + ".graph");
+  }
+
+  private static void deleteClasses(File destDir, Set<String> names) {
+    for (String name : names) {
+      DependencyGraph.getClassFile(destDir, name).delete();
+    }
+  }
+
+  private static Set<String> toInternalNames(List<String> classNames) {
+    Set<String> result = new HashSet<String>();
+    for (String name : classNames) {
+      result.add(name.replace('.', '/'));
+    }
+    return result;
+  }
+
+  private static File[] toFiles(List<String> paths) {
+    File[] result = new File[paths.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = new File(paths.get(i));
+    }
+    return result;
+  }
+
+  private static String hash(String text) {
+    try {
+      byte[] bytes = MessageDigest.getInstance("MD5").digest(text.getBytes("UTF-8"));
+      StringBuilder builder = new StringBuilder(bytes.length * 2);
+      for (byte b : bytes) {
+        builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return builder.toString();
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new BuildException(e);
+    }
+    catch (IOException e) {
+      throw new BuildException(e);
+    }
+  }
+}
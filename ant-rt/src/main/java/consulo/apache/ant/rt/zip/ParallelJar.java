@@ -0,0 +1,125 @@
+package consulo.apache.ant.rt.zip;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.taskdefs.Manifest;
+import org.apache.tools.ant.taskdefs.ManifestException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Jar task on top of {@link ParallelZip}. Writes {@code META-INF/MANIFEST.MF} first, merged from default manifest of
+ * Ant, {@code manifest} attribute and nested {@code <manifest>}, like {@code <jar>} does. Manifests of file sets are
+ * not merged, they are skipped.
+ *
+ * @since 17/10/2026
+ */
+public class ParallelJar extends ParallelZip {
+  private static final String META_INF = "META-INF/";
+  private static final String MANIFEST_NAME = "META-INF/MANIFEST.MF";
+
+  private File myManifestFile;
+  private String myManifestEncoding;
+  private Manifest myConfiguredManifest;
+
+  public void setManifest(File manifestFile) {
+    myManifestFile = manifestFile;
+  }
+
+  public void setManifestEncoding(String encoding) {
+    myManifestEncoding = encoding;
+  }
+
+  public void addConfiguredManifest(Manifest manifest) throws ManifestException {
+    if (myConfiguredManifest == null) {
+      myConfiguredManifest = manifest;
+    }
+    else {
+      myConfiguredManifest.merge(manifest);
+    }
+  }
+
+  protected String getArchiveType() {
+    return "jar";
+  }
+
+  protected boolean skipWhenEmpty() {
+    return false;
+  }
+
+  protected boolean isReserved(String name) {
+    return META_INF.equalsIgnoreCase(name) || MANIFEST_NAME.equalsIgnoreCase(name);
+  }
+
+  protected List<ZipWriter.Entry> getInitialEntries() throws IOException {
+    List<ZipWriter.Entry> entries = super.getInitialEntries();
+    long time = getEntryTime(System.currentTimeMillis());
+    ZipWriter.Entry directory = new ZipWriter.Entry(META_INF, null, null, time, ZipWriter.DEFAULT_DIR_MODE);
+    directory.setExtra(ZipWriter.JAR_MARKER);
+    entries.add(directory);
+    entries.add(new ZipWriter.Entry(MANIFEST_NAME, null, createManifest(), time, ZipWriter.DEFAULT_FILE_MODE));
+    return entries;
+  }
+
+  protected boolean isUpToDate(List<ZipWriter.Entry> entries) {
+    if (!super.isUpToDate(entries)) {
+      return false;
+    }
+    long time = getDestFile().lastModified();
+    if (myManifestFile != null && myManifestFile.lastModified() > time) {
+      return false;
+    }
+    if (myConfiguredManifest != null) {
+      // nested manifest is a part of build file
+      String buildFile = getProject().getProperty("ant.file");
+      return buildFile == null || new File(buildFile).lastModified() <= time;
+    }
+    return true;
+  }
+
+  private byte[] createManifest() throws IOException {
+    Manifest manifest = Manifest.getDefaultManifest();
+    try {
+      if (myManifestFile != null) {
+        manifest.merge(readManifest(myManifestFile));
+      }
+      if (myConfiguredManifest != null) {
+        manifest.merge(myConfiguredManifest);
+      }
+    }
+    catch (ManifestException e) {
+      throw new BuildException("Invalid Manifest: " + e.getMessage(), e, getLocation());
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PrintWriter writer = new PrintWriter(new OutputStreamWriter(bytes, "UTF-8"));
+    manifest.write(writer);
+    writer.close();
+    if (writer.checkError()) {
+      throw new IOException("Can't write manifest");
+    }
+    return bytes.toByteArray();
+  }
+
+  private Manifest readManifest(File file) throws IOException, ManifestException {
+    if (!file.isFile()) {
+      throw new BuildException("Manifest file: " + file + " does not exist.", getLocation());
+    }
+    Reader reader = myManifestEncoding == null
+                    ? new InputStreamReader(new FileInputStream(file))
+                    : new InputStreamReader(new FileInputStream(file), myManifestEncoding);
+    try {
+      return new Manifest(reader);
+    }
+    finally {
+      reader.close();
+    }
+  }
+}
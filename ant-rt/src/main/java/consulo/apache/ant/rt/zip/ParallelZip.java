@@ -0,0 +1,515 @@
+package consulo.apache.ant.rt.zip;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.MatchingTask;
+import org.apache.tools.ant.taskdefs.Zip;
+import org.apache.tools.ant.types.FileSet;
+import org.apache.tools.ant.types.ZipFileSet;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Zip task, which deflates entries concurrently and writes them in order. Supports common attributes of {@code <zip>}:
+ * {@code destfile}, {@code basedir}, {@code compress}, {@code level}, {@code filesonly}, {@code duplicate}, pattern
+ * attributes and nested {@code fileset} and {@code zipfileset} (without {@code src}).
+ * <p>
+ * Entries are sorted by name within every file set. With {@code modificationtime} (ISO date like
+ * {@code 2020-01-01T00:00:00}, or milliseconds) all entries get the same time, so archive is reproducible.
+ *
+ * @since 17/10/2026
+ */
+public class ParallelZip extends MatchingTask {
+  // compressed data, which may wait for writer
+  private static final long MAX_PENDING_BYTES = 64 * 1024 * 1024;
+
+  private File myDestFile;
+  private File myBaseDir;
+  private boolean myCompress = true;
+  private int myLevel = Deflater.DEFAULT_COMPRESSION;
+  private boolean myFilesOnly;
+  private String myDuplicate = "add";
+  private long myModificationTime = -1;
+  private int myThreads = Runtime.getRuntime().availableProcessors();
+  private final List<FileSet> myFileSets = new ArrayList<FileSet>();
+
+  public void setDestFile(File destFile) {
+    myDestFile = destFile;
+  }
+
+  public void setBasedir(File baseDir) {
+    myBaseDir = baseDir;
+  }
+
+  public void setCompress(boolean compress) {
+    myCompress = compress;
+  }
+
+  public void setLevel(int level) {
+    myLevel = level;
+  }
+
+  public void setFilesonly(boolean filesOnly) {
+    myFilesOnly = filesOnly;
+  }
+
+  public void setDuplicate(Zip.Duplicate duplicate) {
+    myDuplicate = duplicate.getValue();
+  }
+
+  public void setModificationtime(String time) {
+    try {
+      if (time.length() > 0 && Character.isDigit(time.charAt(0)) && time.indexOf('-') < 0) {
+        myModificationTime = Long.parseLong(time);
+      }
+      else {
+        myModificationTime = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").parse(time).getTime();
+      }
+    }
+    catch (NumberFormatException e) {
+      throw new BuildException("Invalid modification time: " + time, getLocation());
+    }
+    catch (ParseException e) {
+      throw new BuildException("Invalid modification time: " + time, getLocation());
+    }
+  }
+
+  public void setThreads(int threads) {
+    myThreads = threads;
+  }
+
+  public void addFileset(FileSet fileSet) {
+    myFileSets.add(fileSet);
+  }
+
+  public void addZipfileset(ZipFileSet fileSet) {
+    myFileSets.add(fileSet);
+  }
+
+  protected File getDestFile() {
+    return myDestFile;
+  }
+
+  protected String getArchiveType() {
+    return "zip";
+  }
+
+  /**
+   * @return entries, which precede entries of file sets
+   */
+  protected List<ZipWriter.Entry> getInitialEntries() throws IOException {
+    return new ArrayList<ZipWriter.Entry>();
+  }
+
+  /**
+   * @return true if entry of file set is not written, it's written by {@link #getInitialEntries()}
+   */
+  protected boolean isReserved(String name) {
+    return false;
+  }
+
+  /**
+   * @return true if archive without file entries is not created
+   */
+  protected boolean skipWhenEmpty() {
+    return true;
+  }
+
+  protected boolean isUpToDate(List<ZipWriter.Entry> entries) {
+    if (!myDestFile.isFile()) {
+      return false;
+    }
+    long time = myDestFile.lastModified();
+    for (ZipWriter.Entry entry : entries) {
+      File file = entry.getFile();
+      if (file != null && file.lastModified() > time) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  protected long getEntryTime(long time) {
+    return myModificationTime >= 0 ? myModificationTime : time;
+  }
+
+  public void execute() throws BuildException {
+    if (myDestFile == null) {
+      throw new BuildException("destfile attribute must be set!", getLocation());
+    }
+    if (myBaseDir == null && myFileSets.isEmpty()) {
+      throw new BuildException("basedir attribute must be set, or at least one resource collection must be given!", getLocation());
+    }
+
+    List<ZipWriter.Entry> entries;
+    try {
+      entries = collectEntries();
+    }
+    catch (IOException e) {
+      throw new BuildException(e, getLocation());
+    }
+
+    boolean hasFiles = false;
+    for (ZipWriter.Entry entry : entries) {
+      if (entry.getFile() != null) {
+        hasFiles = true;
+        break;
+      }
+    }
+    if (!hasFiles && skipWhenEmpty()) {
+      log("skipping " + getArchiveType() + " archive " + myDestFile + " because no files were included.", Project.MSG_WARN);
+      return;
+    }
+    if (isUpToDate(entries)) {
+      log(myDestFile + " is up to date", Project.MSG_VERBOSE);
+      return;
+    }
+
+    log("Building " + getArchiveType() + ": " + myDestFile.getAbsolutePath());
+    File parent = myDestFile.getParentFile();
+    if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+      throw new BuildException("Can't create directory " + parent, getLocation());
+    }
+
+    long start = System.currentTimeMillis();
+    boolean success = false;
+    try {
+      long[] sizes = write(entries);
+      success = true;
+      log("Compressed " + entries.size() + " entries from " + formatSize(sizes[0]) + " to " + formatSize(sizes[1]) + " in " +
+          (System.currentTimeMillis() - start) + " ms, " + myThreads + " threads", Project.MSG_VERBOSE);
+    }
+    catch (IOException e) {
+      throw new BuildException("Problem creating " + getArchiveType() + ": " + e.getMessage(), e, getLocation());
+    }
+    finally {
+      if (!success) {
+        myDestFile.delete();
+      }
+    }
+  }
+
+  private List<ZipWriter.Entry> collectEntries() throws IOException {
+    List<ZipWriter.Entry> entries = getInitialEntries();
+    Set<String> names = new HashSet<String>();
+    for (ZipWriter.Entry entry : entries) {
+      names.add(entry.getName());
+    }
+
+    if (myBaseDir != null) {
+      addEntries(entries, names, getDirectoryScanner(myBaseDir), "", null, null);
+    }
+    for (FileSet fileSet : myFileSets) {
+      String prefix = "";
+      String fullPath = null;
+      ZipFileSet zipFileSet = null;
+      if (fileSet instanceof ZipFileSet) {
+        zipFileSet = (ZipFileSet)fileSet;
+        if (zipFileSet.getSrc(getProject()) != null) {
+          throw new BuildException("zipfileset with src attribute is not supported, use zip task", getLocation());
+        }
+        prefix = zipFileSet.getPrefix(getProject());
+        if (prefix.length() > 0 && !prefix.endsWith("/") && !prefix.endsWith("\\")) {
+          prefix += "/";
+        }
+        prefix = prefix.replace('\\', '/');
+        fullPath = zipFileSet.getFullpath(getProject());
+        if (fullPath.length() == 0) {
+          fullPath = null;
+        }
+      }
+      addEntries(entries, names, fileSet.getDirectoryScanner(getProject()), prefix, fullPath, zipFileSet);
+    }
+    return entries;
+  }
+
+  private void addEntries(List<ZipWriter.Entry> entries,
+                          Set<String> names,
+                          DirectoryScanner scanner,
+                          String prefix,
+                          String fullPath,
+                          ZipFileSet zipFileSet) {
+    File baseDir = scanner.getBasedir();
+    String[] files = scanner.getIncludedFiles();
+    if (fullPath != null) {
+      if (files.length != 1) {
+        throw new BuildException("fullpath attribute may only be specified for filesets that specify a single file.", getLocation());
+      }
+      File file = new File(baseDir, files[0]);
+      addEntry(entries, names, new ZipWriter.Entry(fullPath, file, null, getEntryTime(file.lastModified()), getFileMode(zipFileSet)));
+      return;
+    }
+
+    List<String> paths = new ArrayList<String>(Arrays.asList(files));
+    if (!myFilesOnly) {
+      for (String directory : scanner.getIncludedDirectories()) {
+        if (directory.length() > 0) {
+          paths.add(directory + File.separatorChar);
+        }
+      }
+    }
+    for (int i = 0; i < paths.size(); i++) {
+      paths.set(i, paths.get(i).replace(File.separatorChar, '/'));
+    }
+    // directories go before their content
+    Collections.sort(paths);
+
+    for (String path : paths) {
+      String name = prefix + path;
+      if (!myFilesOnly) {
+        addParentDirectories(entries, names, name, zipFileSet);
+      }
+      File file = new File(baseDir, path);
+      if (path.endsWith("/")) {
+        addEntry(entries, names, new ZipWriter.Entry(name, null, null, getEntryTime(file.lastModified()), getDirMode(zipFileSet)));
+      }
+      else {
+        addEntry(entries, names, new ZipWriter.Entry(name, file, null, getEntryTime(file.lastModified()), getFileMode(zipFileSet)));
+      }
+    }
+  }
+
+  private void addParentDirectories(List<ZipWriter.Entry> entries, Set<String> names, String name, ZipFileSet zipFileSet) {
+    int end = name.lastIndexOf('/', name.length() - 2);
+    if (end < 0 || names.contains(name.substring(0, end + 1))) {
+      return;
+    }
+    List<String> parents = new ArrayList<String>();
+    while (end >= 0 && !names.contains(name.substring(0, end + 1))) {
+      parents.add(name.substring(0, end + 1));
+      end = name.lastIndexOf('/', end - 1);
+    }
+    long time = getEntryTime(System.currentTimeMillis());
+    for (int i = parents.size() - 1; i >= 0; i--) {
+      addEntry(entries, names, new ZipWriter.Entry(parents.get(i), null, null, time, getDirMode(zipFileSet)));
+    }
+  }
+
+  private void addEntry(List<ZipWriter.Entry> entries, Set<String> names, ZipWriter.Entry entry) {
+    String name = entry.getName();
+    if (isReserved(name)) {
+      log("Skipping " + name + ", it's written by " + getArchiveType() + " task", Project.MSG_VERBOSE);
+      return;
+    }
+    if (!names.add(name)) {
+      if (entry.isDirectory()) {
+        return;
+      }
+      if ("fail".equals(myDuplicate)) {
+        throw new BuildException("Duplicate file " + name + " was found and the duplicate attribute is 'fail'.", getLocation());
+      }
+      if ("preserve".equals(myDuplicate)) {
+        log(name + " already added, skipping", Project.MSG_INFO);
+        return;
+      }
+      log("duplicate file " + name + " found, adding.", Project.MSG_VERBOSE);
+    }
+    entries.add(entry);
+  }
+
+  private int getFileMode(ZipFileSet zipFileSet) {
+    return zipFileSet != null && zipFileSet.hasFileModeBeenSet() ? zipFileSet.getFileMode(getProject()) : ZipWriter.DEFAULT_FILE_MODE;
+  }
+
+  private int getDirMode(ZipFileSet zipFileSet) {
+    return zipFileSet != null && zipFileSet.hasDirModeBeenSet() ? zipFileSet.getDirMode(getProject()) : ZipWriter.DEFAULT_DIR_MODE;
+  }
+
+  /**
+   * Entries are compressed on pool, writer takes them in order. Number of compressed entries, which wait for writer,
+   * is bounded, and so is their size, unless single entry is larger. Deflaters are reused by entries of archive
+   * and are ended, when it's written, so their native memory is not kept until finalization.
+   *
+   * @return size of content and of compressed content
+   */
+  private long[] write(List<ZipWriter.Entry> entries) throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, myThreads), new ThreadFactory() {
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "Ant " + getArchiveType() + " deflater");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    Queue<Deflater> deflaters = new ConcurrentLinkedQueue<Deflater>();
+    int window = Math.max(1, myThreads) * 4;
+    Deque<Future<ZipWriter.Data>> queue = new ArrayDeque<Future<ZipWriter.Data>>();
+    long pending = 0;
+    long size = 0;
+    long compressedSize = 0;
+
+    ZipWriter writer = new ZipWriter(myDestFile);
+    try {
+      int next = 0;
+      for (ZipWriter.Entry entry : entries) {
+        while (next < entries.size() && (queue.isEmpty() || queue.size() < window && pending < MAX_PENDING_BYTES)) {
+          ZipWriter.Entry nextEntry = entries.get(next++);
+          queue.addLast(submit(executor, nextEntry, deflaters));
+          File file = nextEntry.getFile();
+          pending += file == null ? 0 : file.length();
+        }
+
+        ZipWriter.Data data = get(queue.removeFirst());
+        File file = entry.getFile();
+        pending -= file == null ? 0 : file.length();
+        size += data.getSize();
+        compressedSize += data.getLength();
+        writer.write(entry, data);
+      }
+      writer.finish();
+    }
+    finally {
+      for (Future<ZipWriter.Data> future : queue) {
+        future.cancel(false);
+      }
+      executor.shutdown();
+      endDeflaters(executor, deflaters);
+      writer.close();
+    }
+    return new long[]{size, compressedSize};
+  }
+
+  private Future<ZipWriter.Data> submit(ExecutorService executor, final ZipWriter.Entry entry, final Queue<Deflater> deflaters) {
+    Callable<ZipWriter.Data> compression = new Callable<ZipWriter.Data>() {
+      public ZipWriter.Data call() throws IOException {
+        return compress(entry, deflaters);
+      }
+    };
+    if (entry.getFile() == null) {
+      // directory or generated content, it's small
+      FutureTask<ZipWriter.Data> task = new FutureTask<ZipWriter.Data>(compression);
+      task.run();
+      return task;
+    }
+    return executor.submit(compression);
+  }
+
+  private static ZipWriter.Data get(Future<ZipWriter.Data> future) throws IOException {
+    try {
+      return future.get();
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException)cause;
+      }
+      throw new BuildException(cause);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BuildException("Archiving is interrupted");
+    }
+  }
+
+  /**
+   * Ends deflaters, when cancelled compressions are finished
+   */
+  private static void endDeflaters(ExecutorService executor, Queue<Deflater> deflaters) {
+    try {
+      if (!executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+        return;
+      }
+    }
+    catch (InterruptedException e) {
+      // deflater may be used yet, it's left to finalization
+      Thread.currentThread().interrupt();
+      return;
+    }
+    for (Deflater deflater : deflaters) {
+      deflater.end();
+    }
+  }
+
+  private ZipWriter.Data compress(ZipWriter.Entry entry, Queue<Deflater> deflaters) throws IOException {
+    byte[] content = entry.getContent();
+    if (content == null) {
+      content = entry.getFile() == null ? new byte[0] : readFile(entry.getFile());
+    }
+    CRC32 crc = new CRC32();
+    crc.update(content);
+    if (!myCompress || entry.isDirectory() || content.length == 0) {
+      return new ZipWriter.Data(ZipWriter.STORED, crc.getValue(), content.length, content, content.length);
+    }
+
+    Deflater deflater = deflaters.poll();
+    if (deflater == null) {
+      deflater = new Deflater(myLevel, true);
+    }
+    byte[] buffer = new byte[Math.max(64, content.length + content.length / 1000 + 64)];
+    int length = 0;
+    try {
+      deflater.setInput(content);
+      deflater.finish();
+      while (!deflater.finished()) {
+        if (length == buffer.length) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        length += deflater.deflate(buffer, length, buffer.length - length);
+      }
+    }
+    finally {
+      deflater.reset();
+      deflaters.offer(deflater);
+    }
+    if (length >= content.length) {
+      // incompressible
+      return new ZipWriter.Data(ZipWriter.STORED, crc.getValue(), content.length, content, content.length);
+    }
+    return new ZipWriter.Data(ZipWriter.DEFLATED, crc.getValue(), content.length, buffer, length);
+  }
+
+  private static byte[] readFile(File file) throws IOException {
+    long length = file.length();
+    if (length > Integer.MAX_VALUE - 8) {
+      throw new IOException(file + " is too large for parallel archiving");
+    }
+    byte[] content = new byte[(int)length];
+    InputStream in = new FileInputStream(file);
+    try {
+      int offset = 0;
+      while (offset < content.length) {
+        int read = in.read(content, offset, content.length - offset);
+        if (read < 0) {
+          return Arrays.copyOf(content, offset);
+        }
+        offset += read;
+      }
+    }
+    finally {
+      in.close();
+    }
+    return content;
+  }
+
+  private static String formatSize(long bytes) {
+    if (bytes < 1024 * 1024) {
+      return (bytes / 1024) + " KB";
+    }
+    return (bytes / (1024 * 1024)) + " MB";
+  }
+}
@@ -0,0 +1,259 @@
+package consulo.apache.ant.rt.zip;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Calendar;
+
+/**
+ * Writes zip archive of entries, which are compressed already. Sizes and CRC are known before entry is written, so
+ * local headers carry them and no data descriptors are needed. Zip64 records are written, when archive has more than
+ * 65535 entries or is larger than 4 GB.
+ *
+ * @since 17/10/2026
+ */
+final class ZipWriter {
+  static final int STORED = 0;
+  static final int DEFLATED = 8;
+
+  // S_IFREG | 0644 and S_IFDIR | 0755
+  static final int DEFAULT_FILE_MODE = 0100644;
+  static final int DEFAULT_DIR_MODE = 040755;
+
+  /**
+   * Extra field, which marks jar archive, java jar tool puts it into first entry
+   */
+  static final byte[] JAR_MARKER = {(byte)0xFE, (byte)0xCA, 0, 0};
+
+  private static final int LOCAL_HEADER = 0x04034b50;
+  private static final int CENTRAL_HEADER = 0x02014b50;
+  private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+  private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+  private static final int ZIP64_LOCATOR = 0x07064b50;
+  private static final int ZIP64_EXTRA = 0x0001;
+  private static final int UTF8_FLAG = 0x0800;
+  private static final int VERSION = 20;
+  private static final int ZIP64_VERSION = 45;
+  private static final int UNIX = 3;
+  private static final long MAX_32 = 0xFFFFFFFFL;
+  private static final int MAX_16 = 0xFFFF;
+
+  private final OutputStream myOut;
+  private final ByteArrayOutputStream myCentralDirectory = new ByteArrayOutputStream();
+  private final byte[] myBuffer = new byte[8];
+  private final Calendar myCalendar = Calendar.getInstance();
+  private long myOffset;
+  private int myCount;
+
+  ZipWriter(File file) throws IOException {
+    myOut = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024);
+  }
+
+  void write(Entry entry, Data data) throws IOException {
+    byte[] name = entry.myName.getBytes("UTF-8");
+    int flags = isAscii(entry.myName) ? 0 : UTF8_FLAG;
+    byte[] extra = entry.myExtra == null ? new byte[0] : entry.myExtra;
+    long dosTime = toDosTime(entry.myTime);
+    long offset = myOffset;
+
+    writeInt(myOut, LOCAL_HEADER);
+    writeShort(myOut, VERSION);
+    writeShort(myOut, flags);
+    writeShort(myOut, data.myMethod);
+    writeInt(myOut, dosTime);
+    writeInt(myOut, data.myCrc);
+    writeInt(myOut, data.myLength);
+    writeInt(myOut, data.mySize);
+    writeShort(myOut, name.length);
+    writeShort(myOut, extra.length);
+    myOut.write(name);
+    myOut.write(extra);
+    myOut.write(data.myBytes, 0, data.myLength);
+    myOffset += 30 + name.length + extra.length + data.myLength;
+
+    boolean zip64 = offset >= MAX_32;
+    OutputStream out = myCentralDirectory;
+    writeInt(out, CENTRAL_HEADER);
+    writeShort(out, (UNIX << 8) | (zip64 ? ZIP64_VERSION : VERSION));
+    writeShort(out, zip64 ? ZIP64_VERSION : VERSION);
+    writeShort(out, flags);
+    writeShort(out, data.myMethod);
+    writeInt(out, dosTime);
+    writeInt(out, data.myCrc);
+    writeInt(out, data.myLength);
+    writeInt(out, data.mySize);
+    writeShort(out, name.length);
+    writeShort(out, extra.length + (zip64 ? 12 : 0));
+    // comment, disk, internal attributes
+    writeShort(out, 0);
+    writeShort(out, 0);
+    writeShort(out, 0);
+    writeInt(out, ((long)entry.myMode << 16) | (entry.isDirectory() ? 0x10 : 0));
+    writeInt(out, zip64 ? MAX_32 : offset);
+    out.write(name);
+    out.write(extra);
+    if (zip64) {
+      writeShort(out, ZIP64_EXTRA);
+      writeShort(out, 8);
+      writeLong(out, offset);
+    }
+    myCount++;
+  }
+
+  void finish() throws IOException {
+    long offset = myOffset;
+    long size = myCentralDirectory.size();
+    myCentralDirectory.writeTo(myOut);
+    myOffset += size;
+
+    boolean zip64 = myCount >= MAX_16 || offset >= MAX_32 || size >= MAX_32;
+    if (zip64) {
+      long recordOffset = myOffset;
+      writeInt(myOut, ZIP64_END_OF_CENTRAL_DIRECTORY);
+      writeLong(myOut, 44);
+      writeShort(myOut, (UNIX << 8) | ZIP64_VERSION);
+      writeShort(myOut, ZIP64_VERSION);
+      writeInt(myOut, 0);
+      writeInt(myOut, 0);
+      writeLong(myOut, myCount);
+      writeLong(myOut, myCount);
+      writeLong(myOut, size);
+      writeLong(myOut, offset);
+
+      writeInt(myOut, ZIP64_LOCATOR);
+      writeInt(myOut, 0);
+      writeLong(myOut, recordOffset);
+      writeInt(myOut, 1);
+    }
+
+    writeInt(myOut, END_OF_CENTRAL_DIRECTORY);
+    writeShort(myOut, 0);
+    writeShort(myOut, 0);
+    writeShort(myOut, Math.min(myCount, MAX_16));
+    writeShort(myOut, Math.min(myCount, MAX_16));
+    writeInt(myOut, Math.min(size, MAX_32));
+    writeInt(myOut, Math.min(offset, MAX_32));
+    writeShort(myOut, 0);
+  }
+
+  void close() throws IOException {
+    myOut.close();
+  }
+
+  private long toDosTime(long time) {
+    myCalendar.setTimeInMillis(time);
+    int year = myCalendar.get(Calendar.YEAR);
+    if (year < 1980) {
+      // 1980-01-01 00:00
+      return (1 << 21) | (1 << 16);
+    }
+    return ((long)(year - 1980) << 25) |
+           ((myCalendar.get(Calendar.MONTH) + 1) << 21) |
+           (myCalendar.get(Calendar.DAY_OF_MONTH) << 16) |
+           (myCalendar.get(Calendar.HOUR_OF_DAY) << 11) |
+           (myCalendar.get(Calendar.MINUTE) << 5) |
+           (myCalendar.get(Calendar.SECOND) >> 1);
+  }
+
+  private static boolean isAscii(String name) {
+    for (int i = 0; i < name.length(); i++) {
+      if (name.charAt(i) >= 0x80) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void writeShort(OutputStream out, int value) throws IOException {
+    myBuffer[0] = (byte)value;
+    myBuffer[1] = (byte)(value >> 8);
+    out.write(myBuffer, 0, 2);
+  }
+
+  private void writeInt(OutputStream out, long value) throws IOException {
+    for (int i = 0; i < 4; i++) {
+      myBuffer[i] = (byte)(value >> (i * 8));
+    }
+    out.write(myBuffer, 0, 4);
+  }
+
+  private void writeLong(OutputStream out, long value) throws IOException {
+    for (int i = 0; i < 8; i++) {
+      myBuffer[i] = (byte)(value >> (i * 8));
+    }
+    out.write(myBuffer, 0, 8);
+  }
+
+  /**
+   * Entry of archive: file, directory, or generated content
+   */
+  static final class Entry {
+    private final String myName;
+    private final File myFile;
+    private final byte[] myContent;
+    private final long myTime;
+    private final int myMode;
+    private byte[] myExtra;
+
+    Entry(String name, File file, byte[] content, long time, int mode) {
+      myName = name;
+      myFile = file;
+      myContent = content;
+      myTime = time;
+      myMode = mode;
+    }
+
+    String getName() {
+      return myName;
+    }
+
+    /**
+     * @return file of entry, or null for directory or generated content
+     */
+    File getFile() {
+      return myFile;
+    }
+
+    byte[] getContent() {
+      return myContent;
+    }
+
+    boolean isDirectory() {
+      return myName.endsWith("/");
+    }
+
+    void setExtra(byte[] extra) {
+      myExtra = extra;
+    }
+  }
+
+  /**
+   * Compressed content of entry
+   */
+  static final class Data {
+    private final int myMethod;
+    private final long myCrc;
+    private final long mySize;
+    private final byte[] myBytes;
+    private final int myLength;
+
+    Data(int method, long crc, long size, byte[] bytes, int length) {
+      myMethod = method;
+      myCrc = crc;
+      mySize = size;
+      myBytes = bytes;
+      myLength = length;
+    }
+
+    long getSize() {
+      return mySize;
+    }
+
+    int getLength() {
+      return myLength;
+    }
+  }
+}